@@ -0,0 +1,66 @@
+package com.fabrick.service;
+
+import com.fabrick.dto.NasaAsteroidResponse;
+import com.fabrick.dto.NasaAsteroidResponse.CloseApproachData;
+import com.fabrick.model.AsteroidPath;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Path extraction from NASA close-approach data. Well-observed asteroids have a few hundred
+ * approaches spread over two centuries, returned roughly but not strictly in date order.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AsteroidPathBenchmark {
+
+    private static final String[] BODIES = {"Earth", "Mars", "Venus", "Merc", "Juptr", "Moon"};
+
+    @Param({"50", "300", "1000"})
+    int approaches;
+
+    private AsteroidService asteroidService;
+    private NasaAsteroidResponse response;
+    private final LocalDate from = LocalDate.of(1900, 1, 1);
+    private final LocalDate to = LocalDate.of(2200, 1, 1);
+
+    @Setup
+    public void setUp() {
+        asteroidService = new AsteroidService(null, null);
+
+        Random random = new Random(7);
+        List<CloseApproachData> data = new ArrayList<>();
+        LocalDate date = LocalDate.of(1900, 1, 1);
+        for (int i = 0; i < approaches; i++) {
+            date = date.plusDays(1 + random.nextInt(100));
+            CloseApproachData approach = new CloseApproachData();
+            approach.setCloseApproachDate(date.toString());
+            approach.setOrbitingBody(BODIES[random.nextInt(BODIES.length)]);
+            data.add(approach);
+        }
+        // Mostly ordered, with local disorder
+        for (int i = 0; i + 1 < data.size(); i += 7) {
+            Collections.swap(data, i, i + 1);
+        }
+
+        response = new NasaAsteroidResponse();
+        response.setId("3542519");
+        response.setCloseApproachData(data);
+    }
+
+    @Benchmark
+    public List<AsteroidPath> processAsteroidData() {
+        // processAsteroidData copies before sorting, so the input stays shuffled across invocations
+        return asteroidService.processAsteroidData(response, from, to);
+    }
+}
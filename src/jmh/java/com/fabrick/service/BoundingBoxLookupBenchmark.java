@@ -0,0 +1,74 @@
+package com.fabrick.service;
+
+import com.fabrick.FabrickApplication;
+import com.fabrick.dataset.SyntheticAirports;
+import com.fabrick.model.Station;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Closest-stations lookups below the result cache, against the real JPA/H2 stack loaded with a
+ * synthetic dataset, at growing radii.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BoundingBoxLookupBenchmark {
+
+    private static final double LATITUDE = 39.86;
+    private static final double LONGITUDE = -104.67;
+
+    @Param({"0.1", "0.5", "1.0", "5.0"})
+    double closestBy;
+
+    @Param({"80000"})
+    int rows;
+
+    private ConfigurableApplicationContext context;
+    private LocationLookup locationLookup;
+    private Path dataset;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dataset = Files.createTempFile("benchmark-airports", ".csv");
+        Files.writeString(dataset, SyntheticAirports.csv(rows, 1));
+
+        // Command-line arguments, since default properties would lose to application.yml. A reactive
+        // context on a random port, as the response cache needs the server codecs.
+        context = new SpringApplicationBuilder(FabrickApplication.class)
+                .web(WebApplicationType.REACTIVE)
+                .run("--server.port=0",
+                        "--fabrick.dataset.location=" + dataset.toUri(),
+                        "--fabrick.warmup.enabled=false",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.com.fabrick=WARN",
+                        "--logging.level.org.hibernate=WARN");
+        locationLookup = context.getBean(LocationLookup.class);
+        if (context.getBean(AirportDatabaseService.class).currentSnapshot().getRecordCount() != rows) {
+            throw new IllegalStateException("Synthetic dataset was not loaded");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.close();
+        Files.deleteIfExists(dataset);
+    }
+
+    @Benchmark
+    public List<Station> findStationsInBoundingBox() {
+        return locationLookup.findStationsInBoundingBox(
+                LATITUDE - closestBy, LATITUDE + closestBy, LONGITUDE - closestBy, LONGITUDE + closestBy).block();
+    }
+}
@@ -0,0 +1,57 @@
+package com.fabrick.service;
+
+import com.fabrick.dataset.SyntheticAirports;
+import com.fabrick.entity.LocationEntity;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.io.ByteArrayResource;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CSV parsing of the airports dataset: a single line, and the whole file into entities.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CsvLoadBenchmark {
+
+    // parseCsvLine and parseLocations use none of the collaborators
+    private final AirportDatabaseService airportDatabaseService =
+            new AirportDatabaseService(null, null, null, null, null, null);
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public String[] parseCsvLine(Line line) {
+        return airportDatabaseService.parseCsvLine(line.text);
+    }
+
+    @Benchmark
+    public Map<String, LocationEntity> parseLocations(Dataset dataset) throws IOException {
+        return airportDatabaseService.parseLocations(dataset.resource);
+    }
+
+    @State(Scope.Benchmark)
+    public static class Line {
+        String text = SyntheticAirports.row(4242, 1);
+    }
+
+    @State(Scope.Benchmark)
+    public static class Dataset {
+
+        @Param({"10000", "80000"})
+        int rows;
+
+        ByteArrayResource resource;
+
+        @Setup
+        public void setUp() {
+            resource = new ByteArrayResource(SyntheticAirports.csv(rows, 1).getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
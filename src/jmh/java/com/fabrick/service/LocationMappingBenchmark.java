@@ -0,0 +1,61 @@
+package com.fabrick.service;
+
+import com.fabrick.entity.AirportCacheEntity;
+import com.fabrick.entity.StationCacheEntity;
+import com.fabrick.model.Airport;
+import com.fabrick.model.Station;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity-to-DTO mapping of a typical bounding-box result.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LocationMappingBenchmark {
+
+    @Param({"1000"})
+    int size;
+
+    private JpaLocationLookup lookup;
+    private List<AirportCacheEntity> airports;
+    private List<StationCacheEntity> stations;
+
+    @Setup
+    public void setUp() {
+        lookup = new JpaLocationLookup(null, null, null);
+        airports = new ArrayList<>();
+        stations = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < size; i++) {
+            airports.add(AirportCacheEntity.builder()
+                    .id((long) i).airportId("K" + i).name("Airport " + i).state("CO").country("US")
+                    .latitude(39.0 + i * 1e-4).longitude(-105.0 + i * 1e-4).elevation(5400.5)
+                    .cellId((long) i).cachedAt(now)
+                    .build());
+            stations.add(StationCacheEntity.builder()
+                    .id((long) i).stationId("K" + i).site("Station " + i).state("CO").country("US")
+                    .latitude(39.0 + i * 1e-4).longitude(-105.0 + i * 1e-4).elevation(5400)
+                    .cellId((long) i).cachedAt(now)
+                    .build());
+        }
+    }
+
+    @Benchmark
+    public List<Airport> toAirports() {
+        return airports.stream().map(lookup::toAirport).toList();
+    }
+
+    @Benchmark
+    public List<Station> toStations() {
+        return stations.stream().map(lookup::toStation).toList();
+    }
+}
@@ -0,0 +1,188 @@
+package com.fabrick.loadtest;
+
+import com.fabrick.FabrickApplication;
+import com.fabrick.dataset.SyntheticAirports;
+import com.sun.management.ThreadMXBean;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Open-loop load test of the whole application against local upstream stand-ins.
+ * <p>
+ * Starts the application on a random port with a synthetic dataset and both external APIs
+ * replaced by {@link UpstreamStandIns}, then sends the {@link Workload} mix at a fixed rate.
+ * Latency is measured from when each request was due, not from when it was sent, so a stalled
+ * server shows up in the percentiles instead of silently lowering the offered load.
+ * 503 responses from the service's concurrency limits are counted as shed, separately from
+ * other errors. Allocation is measured across the whole JVM, so it includes the (small) share of the driver.
+ * <p>
+ * Settings are system properties: {@code loadtest.rps} (default 200), {@code loadtest.duration}
+ * (PT60S), {@code loadtest.warmup} (PT15S), {@code loadtest.rows} (80000),
+ * {@code loadtest.upstream-latency} (PT0.1S) and {@code loadtest.upstream-error-rate} (0.01).
+ */
+public final class LoadTest {
+
+    private static final Duration TICK = Duration.ofMillis(10);
+
+    private final Map<String, Histogram> latencies = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> errors = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> shed = new ConcurrentHashMap<>();
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int rps = Integer.getInteger("loadtest.rps", 200);
+        Duration duration = Duration.parse(System.getProperty("loadtest.duration", "PT60S"));
+        Duration warmup = Duration.parse(System.getProperty("loadtest.warmup", "PT15S"));
+        int rows = Integer.getInteger("loadtest.rows", 80_000);
+        Duration upstreamLatency = Duration.parse(System.getProperty("loadtest.upstream-latency", "PT0.1S"));
+        double upstreamErrorRate = Double.parseDouble(System.getProperty("loadtest.upstream-error-rate", "0.01"));
+
+        Path dataset = Files.createTempFile("loadtest-airports", ".csv");
+        Files.writeString(dataset, SyntheticAirports.csv(rows, 1));
+
+        try (UpstreamStandIns upstreams = new UpstreamStandIns(upstreamLatency, upstreamErrorRate)) {
+            // Command-line arguments, since default properties would lose to application.yml
+            ConfigurableApplicationContext application = new SpringApplicationBuilder(FabrickApplication.class)
+                    .run("--server.port=0",
+                            "--nasa.api.base-url=" + upstreams.nasaUrl(),
+                            "--aviation.api.base-url=" + upstreams.aviationUrl(),
+                            "--fabrick.dataset.location=" + dataset.toUri(),
+                            "--fabrick.warmup.enabled=false",
+                            "--spring.jpa.show-sql=false",
+                            "--logging.level.com.fabrick=WARN",
+                            "--logging.level.org.hibernate=WARN");
+            try {
+                int port = application.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+                WebClient client = WebClient.builder()
+                        .baseUrl("http://localhost:" + port + "/api/fabrick/v1.0")
+                        .clientConnector(new ReactorClientHttpConnector(HttpClient.create(
+                                ConnectionProvider.builder("loadtest")
+                                        .maxConnections(2_000)
+                                        .pendingAcquireMaxCount(-1)
+                                        .build())))
+                        .build();
+
+                System.out.printf("Warming up for %ss at %d rps%n", warmup.toSeconds(), rps);
+                new LoadTest().drive(new Workload(client, rows, 1), rps, warmup);
+
+                System.out.printf("Measuring for %ss at %d rps (upstream latency %d ms, error rate %.1f%%)%n",
+                        duration.toSeconds(), rps, upstreamLatency.toMillis(), upstreamErrorRate * 100);
+                ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+                long allocatedBefore = threads.getTotalThreadAllocatedBytes();
+                long upstreamBefore = upstreams.requests.get();
+                long injectedBefore = upstreams.injectedErrors.get();
+                long start = System.nanoTime();
+
+                LoadTest measured = new LoadTest();
+                measured.drive(new Workload(client, rows, 2), rps, duration);
+
+                double seconds = (System.nanoTime() - start) / 1e9;
+                long allocated = threads.getTotalThreadAllocatedBytes() - allocatedBefore;
+                measured.report(seconds, allocated,
+                        upstreams.requests.get() - upstreamBefore, upstreams.injectedErrors.get() - injectedBefore);
+            } finally {
+                application.close();
+            }
+        } finally {
+            Files.deleteIfExists(dataset);
+        }
+    }
+
+    /**
+     * Issue requests at the given rate for the given time and wait for the stragglers.
+     */
+    private void drive(Workload workload, int rps, Duration duration) {
+        long ticks = duration.toMillis() / TICK.toMillis();
+        double perTick = rps * TICK.toMillis() / 1000.0;
+        long start = System.nanoTime();
+
+        Flux.interval(TICK)
+                .take(ticks)
+                .onBackpressureBuffer()
+                .concatMapIterable(tick -> {
+                    // Requests due in this tick, carrying the fractional remainder over
+                    long due = (long) ((tick + 1) * perTick) - (long) (tick * perTick);
+                    long dueAt = start + TICK.toNanos() * tick;
+                    List<Mono<Void>> calls = new ArrayList<>();
+                    for (long i = 0; i < due; i++) {
+                        calls.add(timed(workload.next(), dueAt));
+                    }
+                    return calls;
+                })
+                .flatMap(call -> call, Integer.MAX_VALUE)
+                .blockLast(duration.plusSeconds(60));
+    }
+
+    private Mono<Void> timed(Workload.Request request, long dueAt) {
+        return request.call()
+                .then()
+                .onErrorResume(error -> {
+                    boolean rejected = error instanceof WebClientResponseException response
+                            && response.getStatusCode() == HttpStatus.SERVICE_UNAVAILABLE;
+                    (rejected ? shed : errors)
+                            .computeIfAbsent(request.endpoint(), name -> new AtomicLong()).incrementAndGet();
+                    return Mono.empty();
+                })
+                .doFinally(signal -> latencies
+                        .computeIfAbsent(request.endpoint(), name -> new ConcurrentHistogram(
+                                TimeUnit.MINUTES.toMicros(5), 3))
+                        .recordValue(Math.max(0, (System.nanoTime() - dueAt) / 1_000)));
+    }
+
+    private void report(double seconds, long allocatedBytes, long upstreamRequests, long injectedErrors) {
+        Histogram total = new Histogram(TimeUnit.MINUTES.toMicros(5), 3);
+        long totalErrors = 0;
+        long totalShed = 0;
+
+        System.out.printf("%n%-16s %9s %7s %7s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "errors", "shed", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (Map.Entry<String, Histogram> entry : new TreeMap<>(latencies).entrySet()) {
+            Histogram histogram = entry.getValue();
+            long endpointErrors = errors.getOrDefault(entry.getKey(), new AtomicLong()).get();
+            long endpointShed = shed.getOrDefault(entry.getKey(), new AtomicLong()).get();
+            print(entry.getKey(), histogram, endpointErrors, endpointShed, seconds);
+            total.add(histogram);
+            totalErrors += endpointErrors;
+            totalShed += endpointShed;
+        }
+        print("total", total, totalErrors, totalShed, seconds);
+
+        System.out.printf("%nallocation: %.1f MB/s, %.1f KB/request%n",
+                allocatedBytes / seconds / (1024 * 1024),
+                allocatedBytes / (double) Math.max(1, total.getTotalCount()) / 1024);
+        System.out.printf("upstream: %d requests, %d injected errors%n", upstreamRequests, injectedErrors);
+    }
+
+    private static void print(String name, Histogram histogram, long errors, long shed, double seconds) {
+        System.out.printf("%-16s %9d %7d %7d %9.1f %9.2f %9.2f %9.2f %9.2f%n",
+                name, histogram.getTotalCount(), errors, shed, histogram.getTotalCount() / seconds,
+                histogram.getValueAtPercentile(50) / 1000.0,
+                histogram.getValueAtPercentile(99) / 1000.0,
+                histogram.getValueAtPercentile(99.9) / 1000.0,
+                histogram.getMaxValue() / 1000.0);
+    }
+}
@@ -0,0 +1,170 @@
+package com.fabrick.loadtest;
+
+import com.fabrick.FabrickApplication;
+import com.fabrick.dataset.SyntheticAirports;
+import com.fabrick.model.Airport;
+import com.fabrick.model.DatasetReloadResult;
+import com.fabrick.service.AirportDatabaseService;
+import com.fabrick.service.LocationLookup;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * How the dataset load and the bounding-box lookups scale with the number of locations.
+ * <p>
+ * For each size a clustered {@link SyntheticAirports} file is generated and loaded into a fresh
+ * application context (no web server, no upstream calls). The report gives the reload time,
+ * the heap retained by the loaded dataset after a full GC, and the latency of closest-station
+ * lookups below the result cache, around stored locations, per radius. Origins are drawn from
+ * the data, so dense clusters weigh in as often as they occur.
+ * <p>
+ * Settings are system properties: {@code scaling.sizes} (default 80000,400000,800000,1600000),
+ * {@code scaling.radii} (0.1,0.5,2.0) and {@code scaling.queries} (2000 per size and radius).
+ * Rows beyond {@link SyntheticAirports#ICAO_CAPACITY} are parsed but not loaded.
+ */
+public final class ScalingTest {
+
+    private static final int ORIGINS = 500;
+    private static final int WARMUP_QUERIES = 200;
+
+    private final List<String> loadLines = new ArrayList<>();
+    private final List<String> queryLines = new ArrayList<>();
+
+    private ScalingTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        long[] sizes = Arrays.stream(System.getProperty("scaling.sizes", "80000,400000,800000,1600000").split(","))
+                .mapToLong(size -> Long.parseLong(size.trim()))
+                .toArray();
+        double[] radii = Arrays.stream(System.getProperty("scaling.radii", "0.1,0.5,2.0").split(","))
+                .mapToDouble(radius -> Double.parseDouble(radius.trim()))
+                .toArray();
+        int queries = Integer.getInteger("scaling.queries", 2_000);
+
+        ScalingTest test = new ScalingTest();
+        for (long size : sizes) {
+            test.measure(size, radii, queries);
+        }
+        test.report();
+    }
+
+    private void measure(long rows, double[] radii, int queries) throws Exception {
+        System.out.printf("Measuring %d rows%n", rows);
+        Path dataset = Files.createTempFile("scaling-airports", ".csv");
+        try {
+            // Generated up front, so only the reload below is timed; the context starts empty
+            // because the dataset location does not exist yet when it comes up
+            Path location = dataset.resolveSibling(dataset.getFileName() + ".load");
+            SyntheticAirports.write(dataset, rows, 1);
+            long fileBytes = Files.size(dataset);
+
+            ConfigurableApplicationContext context = new SpringApplicationBuilder(FabrickApplication.class)
+                    .web(WebApplicationType.NONE)
+                    .run("--fabrick.dataset.location=" + location.toUri(),
+                            "--spring.main.banner-mode=off",
+                            "--fabrick.warmup.enabled=false",
+                            "--spring.jpa.show-sql=false",
+                            "--logging.level.com.fabrick=ERROR",
+                            "--logging.level.org.hibernate=WARN");
+            try {
+                AirportDatabaseService airportDatabaseService = context.getBean(AirportDatabaseService.class);
+                LocationLookup locationLookup = context.getBean(LocationLookup.class);
+
+                long heapBefore = usedHeapAfterGc();
+                Files.move(dataset, location);
+                dataset = location;
+                DatasetReloadResult result = airportDatabaseService.reloadAirportsDatabase();
+                long heapRetained = usedHeapAfterGc() - heapBefore;
+                int loaded = airportDatabaseService.currentSnapshot().getRecordCount();
+
+                loadLines.add(String.format("%10d %9d %8d %9d %9.0f %8d %8.0f",
+                        rows, loaded, fileBytes / (1024 * 1024), result.getDurationMillis(),
+                        rows * 1000.0 / Math.max(1, result.getDurationMillis()),
+                        heapRetained / (1024 * 1024), heapRetained / (double) Math.max(1, loaded)));
+
+                List<Airport> origins = origins(locationLookup, loaded);
+                for (double radius : radii) {
+                    query(locationLookup, origins, radius, WARMUP_QUERIES, null);
+                    Histogram latency = new Histogram(TimeUnit.MINUTES.toMicros(1), 3);
+                    long found = query(locationLookup, origins, radius, queries, latency);
+                    queryLines.add(String.format("%10d %7.2f %9.1f %9.2f %9.2f %9.2f",
+                            rows, radius, found / (double) queries,
+                            latency.getValueAtPercentile(50) / 1000.0,
+                            latency.getValueAtPercentile(99) / 1000.0,
+                            latency.getMaxValue() / 1000.0));
+                }
+            } finally {
+                context.close();
+            }
+        } finally {
+            Files.deleteIfExists(dataset);
+        }
+    }
+
+    /**
+     * Stored locations picked uniformly by row, hence proportionally to cluster density.
+     */
+    private static List<Airport> origins(LocationLookup locationLookup, int loaded) {
+        SplittableRandom random = new SplittableRandom(2);
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < ORIGINS; i++) {
+            ids.add(SyntheticAirports.ident(random.nextInt(loaded)));
+        }
+        List<Airport> origins = locationLookup.findAirports(ids).block();
+        if (origins == null || origins.isEmpty()) {
+            throw new IllegalStateException("Synthetic dataset was not loaded");
+        }
+        return origins;
+    }
+
+    /**
+     * Run the lookups round-robin over the origins and return the total number of stations found.
+     */
+    private static long query(LocationLookup locationLookup, List<Airport> origins, double radius,
+                              int queries, Histogram latency) {
+        long found = 0;
+        for (int i = 0; i < queries; i++) {
+            Airport origin = origins.get(i % origins.size());
+            long start = System.nanoTime();
+            found += locationLookup.findStationsInBoundingBox(
+                    origin.getLatitude() - radius, origin.getLatitude() + radius,
+                    origin.getLongitude() - radius, origin.getLongitude() + radius).block().size();
+            if (latency != null) {
+                latency.recordValue((System.nanoTime() - start) / 1_000);
+            }
+        }
+        return found;
+    }
+
+    private static long usedHeapAfterGc() throws InterruptedException {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    private void report() {
+        System.out.printf("%n%10s %9s %8s %9s %9s %8s %8s%n",
+                "rows", "loaded", "file MB", "load ms", "rows/s", "heap MB", "B/row");
+        loadLines.forEach(System.out::println);
+
+        System.out.printf("%n%10s %7s %9s %9s %9s %9s%n",
+                "rows", "radius", "results", "p50 ms", "p99 ms", "max ms");
+        queryLines.forEach(System.out::println);
+    }
+}
@@ -0,0 +1,122 @@
+package com.fabrick.loadtest;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Local stand-ins for the NASA NeoWs and Aviation Weather APIs. Each response waits between half
+ * and one and a half times the configured latency, and the configured fraction fails with 503.
+ */
+class UpstreamStandIns implements AutoCloseable {
+
+    private static final String[] BODIES = {"Earth", "Mars", "Venus", "Merc", "Juptr", "Moon"};
+
+    private final MockWebServer nasa = new MockWebServer();
+    private final MockWebServer aviation = new MockWebServer();
+    private final Duration latency;
+    private final double errorRate;
+
+    final AtomicLong requests = new AtomicLong();
+    final AtomicLong injectedErrors = new AtomicLong();
+
+    UpstreamStandIns(Duration latency, double errorRate) throws IOException {
+        this.latency = latency;
+        this.errorRate = errorRate;
+        Logger.getLogger(MockWebServer.class.getName()).setLevel(Level.WARNING);
+
+        nasa.setDispatcher(dispatcher(this::asteroid));
+        aviation.setDispatcher(dispatcher(this::metar));
+        nasa.start();
+        aviation.start();
+    }
+
+    String nasaUrl() {
+        return nasa.url("/neo/rest/v1").toString();
+    }
+
+    String aviationUrl() {
+        return aviation.url("/").toString();
+    }
+
+    private Dispatcher dispatcher(Function<RecordedRequest, String> body) {
+        return new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                requests.incrementAndGet();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long delayMillis = (long) (latency.toMillis() * (0.5 + random.nextDouble()));
+
+                if (random.nextDouble() < errorRate) {
+                    injectedErrors.incrementAndGet();
+                    return new MockResponse().setResponseCode(503).setHeadersDelay(delayMillis, TimeUnit.MILLISECONDS);
+                }
+                return new MockResponse()
+                        .setBody(body.apply(request))
+                        .addHeader("Content-Type", "application/json")
+                        .setHeadersDelay(delayMillis, TimeUnit.MILLISECONDS);
+            }
+        };
+    }
+
+    /**
+     * NeoWs lookup: a few hundred approaches spread over two centuries.
+     */
+    private String asteroid(RecordedRequest request) {
+        String path = request.getRequestUrl().encodedPath();
+        String id = path.substring(path.lastIndexOf('/') + 1);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        StringBuilder json = new StringBuilder("{\"id\":\"").append(id)
+                .append("\",\"name\":\"(").append(id).append(")\",\"close_approach_data\":[");
+        LocalDate date = LocalDate.of(1900, 1, 1);
+        int approaches = 100 + random.nextInt(300);
+        for (int i = 0; i < approaches; i++) {
+            date = date.plusDays(1 + random.nextInt(200));
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"close_approach_date\":\"").append(date)
+                    .append("\",\"orbiting_body\":\"").append(BODIES[random.nextInt(BODIES.length)]).append("\"}");
+        }
+        return json.append("]}").toString();
+    }
+
+    /**
+     * METAR lookup: one observation per requested ID, at a random spot in the continental US.
+     */
+    private String metar(RecordedRequest request) {
+        String ids = request.getRequestUrl().queryParameter("ids");
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        StringBuilder json = new StringBuilder("[");
+        String[] split = ids != null ? ids.split(",") : new String[0];
+        for (int i = 0; i < split.length; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"icaoId\":\"").append(split[i]).append("\",\"name\":\"Stand-in ").append(split[i])
+                    .append("\",\"lat\":").append(25 + random.nextDouble() * 24)
+                    .append(",\"lon\":").append(-125 + random.nextDouble() * 58)
+                    .append(",\"elev\":").append(random.nextInt(3000)).append('}');
+        }
+        return json.append(']').toString();
+    }
+
+    @Override
+    public void close() throws IOException {
+        nasa.shutdown();
+        aviation.shutdown();
+    }
+}
@@ -0,0 +1,102 @@
+package com.fabrick.loadtest;
+
+import com.fabrick.dataset.SyntheticAirports;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Mixed request stream over the public endpoints. Location IDs follow a skewed distribution, so
+ * a realistic share is answered from the caches, and a small share is unknown locally and goes
+ * to the Aviation Weather stand-in.
+ */
+class Workload {
+
+    /**
+     * Endpoint name and relative weight, in the order they are drawn.
+     */
+    static final Map<String, Integer> MIX = Map.of(
+            "stations", 35,
+            "airports", 25,
+            "asteroids", 20,
+            "stations-page", 10,
+            "stations-batch", 10);
+
+    private static final double[] RADII = {0.1, 0.25, 0.5, 1.0, 2.0};
+    private static final double UNKNOWN_SHARE = 0.02;
+    private static final int ASTEROIDS = 200;
+    private static final int BATCH_SIZE = 20;
+
+    private final WebClient client;
+    private final int locations;
+    private final List<String> endpoints = new ArrayList<>();
+    private final SplittableRandom random;
+
+    Workload(WebClient client, int locations, long seed) {
+        this.client = client;
+        this.locations = locations;
+        this.random = new SplittableRandom(seed);
+        MIX.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .forEach(entry -> {
+                    for (int i = 0; i < entry.getValue(); i++) {
+                        endpoints.add(entry.getKey());
+                    }
+                });
+    }
+
+    /**
+     * Draw the next request. Not thread safe; call from the driver thread only.
+     */
+    Request next() {
+        String endpoint = endpoints.get(random.nextInt(endpoints.size()));
+        double radius = RADII[random.nextInt(RADII.length)];
+
+        Mono<?> call = switch (endpoint) {
+            case "stations" -> get("/airports/" + locationId() + "/stations?closestBy=" + radius);
+            case "airports" -> get("/stations/" + locationId() + "/airports?closestBy=" + radius);
+            case "asteroids" -> get("/asteroids/" + (2_000_000 + skewed(ASTEROIDS)) + "/paths");
+            case "stations-page" -> get("/airports/" + locationId() + "/stations?closestBy=" + radius + "&limit=100");
+            case "stations-batch" -> {
+                List<String> ids = new ArrayList<>();
+                for (int i = 0; i < BATCH_SIZE; i++) {
+                    ids.add(locationId());
+                }
+                yield client.post().uri("/airports/stations/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .bodyValue(Map.of("ids", ids, "closestBy", radius))
+                        .retrieve()
+                        .toBodilessEntity();
+            }
+            default -> throw new IllegalStateException("Unknown endpoint " + endpoint);
+        };
+        return new Request(endpoint, call);
+    }
+
+    private Mono<?> get(String uri) {
+        return client.get().uri(uri).retrieve().toBodilessEntity();
+    }
+
+    private String locationId() {
+        if (random.nextDouble() < UNKNOWN_SHARE) {
+            // Outside the generated range: not in the local dataset
+            return "Z" + SyntheticAirports.ident(random.nextInt(locations)).substring(1);
+        }
+        return SyntheticAirports.ident(skewed(locations));
+    }
+
+    /**
+     * Index in [0, n) with a heavy head: a few percent of the IDs get most of the traffic.
+     */
+    private int skewed(int n) {
+        return (int) (n * Math.pow(random.nextDouble(), 4));
+    }
+
+    record Request(String endpoint, Mono<?> call) {
+    }
+}
@@ -0,0 +1,103 @@
+package com.fabrick.bulkhead;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Isolates one workload from the others: a cap on concurrent calls plus a dedicated scheduler
+ * for the workload's CPU work. Calls over the cap are rejected straight away instead of queueing,
+ * so a slow dependency can only exhaust its own bulkhead.
+ * Publishes {@code fabrick.bulkhead.active}, {@code fabrick.bulkhead.saturation} and
+ * {@code fabrick.bulkhead.rejected}, tagged with the bulkhead name.
+ */
+public class Bulkhead {
+
+    @Getter
+    private final String name;
+
+    @Getter
+    private final int maxConcurrentCalls;
+
+    @Getter
+    private final Scheduler scheduler;
+
+    private final AtomicInteger active = new AtomicInteger();
+    private final Counter rejected;
+
+    public Bulkhead(String name, int maxConcurrentCalls, Scheduler scheduler, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.maxConcurrentCalls = maxConcurrentCalls;
+        this.scheduler = scheduler;
+
+        Gauge.builder("fabrick.bulkhead.active", active, AtomicInteger::get)
+                .description("Calls currently running inside the bulkhead")
+                .tag("bulkhead", name)
+                .register(meterRegistry);
+        Gauge.builder("fabrick.bulkhead.saturation", this, Bulkhead::saturation)
+                .description("Fraction of the concurrency limit in use")
+                .tag("bulkhead", name)
+                .register(meterRegistry);
+        this.rejected = Counter.builder("fabrick.bulkhead.rejected")
+                .description("Calls rejected because the bulkhead was full")
+                .tag("bulkhead", name)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Subscribe to the call if a slot is free, otherwise fail with {@link BulkheadFullException}.
+     * The slot is released when the call completes, fails or is cancelled.
+     */
+    public <T> Mono<T> execute(Mono<T> call) {
+        return Mono.defer(() -> {
+            if (!tryAcquire()) {
+                rejected.increment();
+                return Mono.error(new BulkheadFullException(name));
+            }
+            return call.doFinally(signal -> active.decrementAndGet());
+        });
+    }
+
+    /**
+     * Streaming variant of {@link #execute(Mono)}; the slot is held until the stream terminates.
+     */
+    public <T> Flux<T> executeMany(Flux<T> call) {
+        return Flux.defer(() -> {
+            if (!tryAcquire()) {
+                rejected.increment();
+                return Flux.error(new BulkheadFullException(name));
+            }
+            return call.doFinally(signal -> active.decrementAndGet());
+        });
+    }
+
+    public int activeCalls() {
+        return active.get();
+    }
+
+    public double saturation() {
+        return (double) active.get() / maxConcurrentCalls;
+    }
+
+    public void dispose() {
+        scheduler.dispose();
+    }
+
+    private boolean tryAcquire() {
+        while (true) {
+            int current = active.get();
+            if (current >= maxConcurrentCalls) {
+                return false;
+            }
+            if (active.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+}
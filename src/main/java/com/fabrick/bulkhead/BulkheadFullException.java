@@ -0,0 +1,14 @@
+package com.fabrick.bulkhead;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Raised when a bulkhead has no free slot; surfaces to clients as 503 Service Unavailable.
+ */
+public class BulkheadFullException extends ResponseStatusException {
+
+    public BulkheadFullException(String bulkhead) {
+        super(HttpStatus.SERVICE_UNAVAILABLE, "Bulkhead '" + bulkhead + "' is full");
+    }
+}
@@ -0,0 +1,48 @@
+package com.fabrick.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time spent computing missed entries of one cache, published as {@code fabrick.cache.load}
+ * tagged with the cache name and {@code result=success|failure}.
+ * Micrometer only reports load times for Caffeine loading caches, and ours are filled either by
+ * {@code @Cacheable} through the async cache or by hand, as {@link SpatialResultCache} does.
+ */
+public class CacheLoadTimer {
+
+    private final Timer success;
+    private final Timer failure;
+
+    public CacheLoadTimer(String cacheName, MeterRegistry meterRegistry) {
+        this.success = timer(cacheName, "success", meterRegistry);
+        this.failure = timer(cacheName, "failure", meterRegistry);
+    }
+
+    public void record(long nanos, boolean succeeded) {
+        (succeeded ? success : failure).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Record the time from subscription until the load completes or fails.
+     */
+    public <T> Mono<T> time(Mono<T> load) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return load
+                    .doOnSuccess(value -> record(System.nanoTime() - start, true))
+                    .doOnError(error -> record(System.nanoTime() - start, false));
+        });
+    }
+
+    private static Timer timer(String cacheName, String result, MeterRegistry meterRegistry) {
+        return Timer.builder("fabrick.cache.load")
+                .description("Time to compute a missed cache entry")
+                .tag("cache", cacheName)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,88 @@
+package com.fabrick.cache;
+
+import com.fabrick.service.AirportStationService;
+import com.fabrick.service.AsteroidService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Replays the hot keys recorded by the previous run before the application reports ready.
+ * Application runners complete before readiness flips to ACCEPTING_TRAFFIC, so blocking here keeps
+ * traffic away until the caches are warm, or until the timeout, whichever comes first.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "fabrick.warmup.enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+public class CacheWarmer implements ApplicationRunner {
+
+    private static final Pattern SEPARATOR = Pattern.compile(HotKeyRecorder.SEPARATOR, Pattern.LITERAL);
+
+    private final HotKeyRecorder hotKeyRecorder;
+    private final AsteroidService asteroidService;
+    private final AirportStationService airportStationService;
+
+    @Value("${fabrick.warmup.concurrency:8}")
+    private int concurrency;
+
+    @Value("${fabrick.warmup.timeout:PT60S}")
+    private Duration timeout;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        Map<String, Map<String, Long>> hotKeys = hotKeyRecorder.load();
+
+        List<Mono<?>> lookups = new ArrayList<>();
+        hotKeys.forEach((cacheName, keys) -> keys.keySet().forEach(key -> {
+            Mono<?> lookup = replay(cacheName, SEPARATOR.split(key, -1));
+            if (lookup != null) {
+                lookups.add(lookup);
+            }
+        }));
+        if (lookups.isEmpty()) {
+            return;
+        }
+
+        log.info("Warming caches with {} hot keys", lookups.size());
+        long start = System.nanoTime();
+        try {
+            Flux.fromIterable(lookups)
+                    .flatMap(lookup -> lookup.onErrorResume(error -> Mono.empty()), concurrency)
+                    .then()
+                    .block(timeout);
+            log.info("Cache warmup done in {} ms", (System.nanoTime() - start) / 1_000_000);
+        } catch (IllegalStateException e) {
+            log.warn("Cache warmup did not finish within {}, continuing with partially warm caches", timeout);
+        }
+    }
+
+    private Mono<?> replay(String cacheName, String[] parameters) {
+        try {
+            return switch (cacheName) {
+                case "asteroids" -> asteroidService.getAsteroidPaths(parameters[0],
+                        parameters[1].isEmpty() ? AsteroidService.defaultFromDate() : LocalDate.parse(parameters[1]),
+                        parameters[2].isEmpty() ? AsteroidService.defaultToDate() : LocalDate.parse(parameters[2]));
+                case "stations" -> airportStationService.getClosestStations(parameters[0], Double.parseDouble(parameters[1]));
+                case "airports" -> airportStationService.getClosestAirports(parameters[0], Double.parseDouble(parameters[1]));
+                default -> null;
+            };
+        } catch (RuntimeException e) {
+            log.debug("Skipping unreadable hot key {} for cache {}", String.join(HotKeyRecorder.SEPARATOR, parameters), cacheName);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,266 @@
+package com.fabrick.cache;
+
+import com.fabrick.timing.RequestTiming;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.web.server.Compression;
+import org.springframework.cache.Cache;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.Encoder;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.MimeType;
+import org.springframework.web.reactive.accept.RequestedContentTypeResolver;
+import org.springframework.web.server.NotAcceptableStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Lookup responses kept as encoded bytes, so a hot result is serialized once per dataset version
+ * instead of on every request. Result lists and single values, such as map tiles, are kept alike.
+ * The format is negotiated from the Accept header against the server's encoders, in their order,
+ * and each format is stored separately.
+ * Each response carries an ETag digested from its format and encoded bytes, so every replica
+ * and every restart tags the same content the same way; a request whose {@code If-None-Match} names
+ * the tag of a stored response gets 304 without the lookup running. The tag is weak whenever the
+ * server may compress the response, since the gzip, br and identity bytes must not share a strong tag.
+ * Empty result lists, which failed upstream calls also degrade to, are neither stored nor tagged.
+ * Responses vary by Accept-Encoding as well, since the server compresses the larger ones.
+ * Results with properties left unset on purpose, such as {@code fields=} projections, can be encoded
+ * with the null properties left out; everything else keeps the default wire format.
+ */
+@Slf4j
+public class EncodedResponseCache {
+
+    private final Cache cache;
+    private final List<Encoder<?>> encoders;
+    private final List<Encoder<?>> nonNullEncoders;
+    private final LongSupplier datasetVersion;
+    private final RequestedContentTypeResolver contentTypeResolver;
+    private final Compression compression;
+
+    /**
+     * @param nonNullEncoders the same encoders, in the same order, leaving null properties out
+     * @param compression     the server's response compression settings
+     */
+    public EncodedResponseCache(Cache cache, List<Encoder<?>> encoders, List<Encoder<?>> nonNullEncoders,
+                                RequestedContentTypeResolver contentTypeResolver, LongSupplier datasetVersion,
+                                Compression compression) {
+        this.cache = cache;
+        this.encoders = encoders;
+        this.nonNullEncoders = nonNullEncoders;
+        this.contentTypeResolver = contentTypeResolver;
+        this.datasetVersion = datasetVersion;
+        this.compression = compression;
+    }
+
+    /**
+     * Respond with the result of the lookup identified by {@code key}: the stored bytes if they were
+     * encoded before, otherwise run the lookup and encode its result; 304 if the client has those bytes.
+     *
+     * @param elementType type of the listed results, which decides the formats available
+     */
+    public Mono<ResponseEntity<byte[]>> respond(ServerWebExchange exchange, String key, Class<?> elementType,
+                                                Supplier<Mono<? extends Collection<?>>> lookup) {
+        return respond(exchange, key, elementType, false, lookup);
+    }
+
+    /**
+     * Like {@link #respond(ServerWebExchange, String, Class, Supplier)}, leaving null properties out of
+     * the encoded results if {@code omitNulls} is set; the key must tell the two apart.
+     */
+    public Mono<ResponseEntity<byte[]>> respond(ServerWebExchange exchange, String key, Class<?> elementType,
+                                                boolean omitNulls, Supplier<Mono<? extends Collection<?>>> lookup) {
+        return respond(exchange, key, ResolvableType.forClassWithGenerics(List.class, elementType),
+                omitNulls ? nonNullEncoders : encoders, lookup, Collection::isEmpty);
+    }
+
+    /**
+     * Like {@link #respond(ServerWebExchange, String, Class, boolean, Supplier)} for a lookup producing
+     * a single value, which is always stored and tagged.
+     */
+    public <T> Mono<ResponseEntity<byte[]>> respondValue(ServerWebExchange exchange, String key, Class<T> type,
+                                                         boolean omitNulls, Supplier<Mono<T>> lookup) {
+        return respond(exchange, key, ResolvableType.forClass(type), omitNulls ? nonNullEncoders : encoders,
+                lookup, value -> false);
+    }
+
+    private <T> Mono<ResponseEntity<byte[]>> respond(ServerWebExchange exchange, String key, ResolvableType type,
+                                                     List<Encoder<?>> encoders,
+                                                     Supplier<? extends Mono<? extends T>> lookup,
+                                                     Predicate<? super T> empty) {
+        Representation representation = select(exchange, type, encoders);
+
+        long version = datasetVersion.getAsLong();
+        String representationKey = key + ";" + representation.mediaType();
+        String cacheKey = version + "-" + representationKey;
+        List<String> ifNoneMatch = exchange.getRequest().getHeaders().getIfNoneMatch();
+        long cacheStart = System.nanoTime();
+        Encoded stored = cache.get(cacheKey, Encoded.class);
+        long cacheNanos = System.nanoTime() - cacheStart;
+        if (stored != null) {
+            String etag = responseEtag(exchange, representation, stored);
+            if (matches(ifNoneMatch, stored.etag())) {
+                log.debug("{} not modified in dataset version {}", representationKey, version);
+                return RequestTiming.record("cache", cacheNanos, Mono.just(notModified(etag)));
+            }
+            return RequestTiming.record("cache", cacheNanos, Mono.just(ok(representation, etag, stored.body())));
+        }
+
+        return RequestTiming.record("cache", cacheNanos, lookup.get()
+                .flatMap(result -> RequestTiming.stage("serialize",
+                                Mono.fromCallable(() -> representation.encode(result, type)))
+                        .map(body -> {
+                            if (empty.test(result)) {
+                                return ok(representation, null, body);
+                            }
+                            Encoded encoded = new Encoded(body, etag(representation.mediaType(), body));
+                            cache.put(cacheKey, encoded);
+                            String etag = responseEtag(exchange, representation, encoded);
+                            if (matches(ifNoneMatch, encoded.etag())) {
+                                return notModified(etag);
+                            }
+                            return ok(representation, etag, body);
+                        })));
+    }
+
+    /**
+     * First encoder, in server order, producing a concrete media type the request accepts,
+     * trying the accepted types from most to least preferred.
+     */
+    private Representation select(ServerWebExchange exchange, ResolvableType type, List<Encoder<?>> encoders) {
+        Set<MediaType> supported = new LinkedHashSet<>();
+        for (MediaType accepted : contentTypeResolver.resolveMediaTypes(exchange)) {
+            for (Encoder<?> encoder : encoders) {
+                for (MimeType producible : encoder.getEncodableMimeTypes(type)) {
+                    if (!producible.isConcrete() || !encoder.canEncode(type, producible)) {
+                        continue;
+                    }
+                    if (accepted.isCompatibleWith(producible)) {
+                        return new Representation(encoder, MediaType.asMediaType(producible));
+                    }
+                    supported.add(MediaType.asMediaType(producible));
+                }
+            }
+        }
+        throw new NotAcceptableStatusException(new ArrayList<>(supported));
+    }
+
+    /**
+     * Tag sent with a stored response: its strong tag, or the weak one if the server may compress it.
+     */
+    private String responseEtag(ServerWebExchange exchange, Representation representation, Encoded encoded) {
+        boolean weak = mayCompress(exchange, representation.mediaType(), encoded.body());
+        return weak ? "W/" + encoded.etag() : encoded.etag();
+    }
+
+    /**
+     * Whether the server's compression settings and the request's {@code Accept-Encoding} allow the
+     * response to be compressed. Errs towards yes, which only costs a weak tag.
+     */
+    private boolean mayCompress(ServerWebExchange exchange, MediaType mediaType, byte[] body) {
+        if (!compression.getEnabled() || body.length < compression.getMinResponseSize().toBytes()
+                || Arrays.stream(compression.getMimeTypes()).map(MimeType::valueOf)
+                .noneMatch(mimeType -> mimeType.isCompatibleWith(mediaType))) {
+            return false;
+        }
+        for (String value : exchange.getRequest().getHeaders().getOrEmpty(HttpHeaders.ACCEPT_ENCODING)) {
+            for (String coding : value.split(",")) {
+                String[] parts = coding.split(";");
+                String name = parts[0].trim();
+                boolean refused = parts.length > 1 && parts[1].trim().matches("q=0(\\.0*)?");
+                if (!name.isEmpty() && !name.equalsIgnoreCase("identity") && !refused) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Strong ETag for an encoded response: the leading 128 bits of the SHA-256 of its media type
+     * and bytes. It depends on the content alone, never on which process encoded it or when.
+     */
+    static String etag(MediaType mediaType, byte[] body) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+        digest.update(mediaType.toString().getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        digest.update(body);
+        return "\"" + HexFormat.of().formatHex(digest.digest(), 0, 16) + "\"";
+    }
+
+    /**
+     * Weak comparison, as RFC 9110 specifies for {@code If-None-Match}.
+     */
+    private static boolean matches(List<String> ifNoneMatch, String etag) {
+        for (String candidate : ifNoneMatch) {
+            if (candidate.equals(etag) || candidate.equals("W/" + etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static ResponseEntity<byte[]> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(etag)
+                .varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING)
+                .build();
+    }
+
+    private static ResponseEntity<byte[]> ok(Representation representation, String etag, byte[] body) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(representation.mediaType())
+                .varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING);
+        if (etag != null) {
+            response.eTag(etag);
+        }
+        return response.body(body);
+    }
+
+    /**
+     * Stored response: the encoded bytes and their tag, computed once when they are stored.
+     */
+    private record Encoded(byte[] body, String etag) {
+    }
+
+    private record Representation(Encoder<?> encoder, MediaType mediaType) {
+
+        @SuppressWarnings("unchecked")
+        byte[] encode(Object value, ResolvableType type) {
+            DataBuffer buffer = ((Encoder<Object>) encoder).encodeValue(value, DefaultDataBufferFactory.sharedInstance,
+                    type, mediaType, Map.of());
+            try {
+                byte[] bytes = new byte[buffer.readableByteCount()];
+                buffer.read(bytes);
+                return bytes;
+            } finally {
+                DataBufferUtils.release(buffer);
+            }
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.fabrick.cache;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Space-Saving sketch of the most frequent keys in a stream, in memory bounded by {@code capacity}.
+ * When full, a new key replaces the least frequent one and inherits its count, so counts may be
+ * overestimated by at most that inherited amount, but any key more frequent than
+ * {@code total / capacity} is guaranteed to be tracked.
+ * <p>
+ * Counters are grouped in buckets of equal count, kept in a list in ascending order (Stream-Summary),
+ * so the least frequent key is always at hand and a unit increment moves a counter at most one bucket
+ * along: {@link #offer} costs O(1) for the per-request case, whatever the capacity.
+ */
+public class HeavyHitters {
+
+    private final int capacity;
+    private final Map<String, Counter> counters = new HashMap<>();
+
+    /**
+     * Bucket with the smallest count; null while empty.
+     */
+    private Bucket min;
+
+    public HeavyHitters(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.capacity = capacity;
+    }
+
+    public synchronized void offer(String key, long increment) {
+        Counter counter = counters.get(key);
+        if (counter != null) {
+            move(counter, counter.bucket.count + increment, counter.bucket);
+            return;
+        }
+        if (counters.size() < capacity) {
+            counter = new Counter(key);
+            counters.put(key, counter);
+            move(counter, increment, null);
+            return;
+        }
+
+        // Replace any key of the least frequent bucket, inheriting its count
+        counter = min.counters.iterator().next();
+        counters.remove(counter.key);
+        counter.key = key;
+        counters.put(key, counter);
+        move(counter, min.count + increment, counter.bucket);
+    }
+
+    /**
+     * Up to {@code n} keys with their estimated counts, most frequent first.
+     */
+    public synchronized Map<String, Long> top(int n) {
+        List<Bucket> ascending = new ArrayList<>();
+        for (Bucket bucket = min; bucket != null; bucket = bucket.next) {
+            ascending.add(bucket);
+        }
+        Map<String, Long> top = new LinkedHashMap<>();
+        for (int i = ascending.size() - 1; i >= 0 && top.size() < n; i--) {
+            Bucket bucket = ascending.get(i);
+            for (Counter counter : bucket.counters) {
+                if (top.size() == n) {
+                    break;
+                }
+                top.put(counter.key, bucket.count);
+            }
+        }
+        return top;
+    }
+
+    /**
+     * Move a counter from its bucket (null for a new counter) to the bucket of {@code count},
+     * creating that bucket if needed. Counts only grow, so the search starts at the current bucket.
+     */
+    private void move(Counter counter, long count, Bucket from) {
+        Bucket previous = from;
+        Bucket next = from != null ? from.next : min;
+        while (next != null && next.count < count) {
+            previous = next;
+            next = next.next;
+        }
+
+        Bucket target;
+        if (next != null && next.count == count) {
+            target = next;
+        } else {
+            target = new Bucket(count);
+            target.previous = previous;
+            target.next = next;
+            if (previous != null) {
+                previous.next = target;
+            } else {
+                min = target;
+            }
+            if (next != null) {
+                next.previous = target;
+            }
+        }
+
+        if (from != null) {
+            from.counters.remove(counter);
+            if (from.counters.isEmpty()) {
+                unlink(from);
+            }
+        }
+        target.counters.add(counter);
+        counter.bucket = target;
+    }
+
+    private void unlink(Bucket bucket) {
+        if (bucket.previous != null) {
+            bucket.previous.next = bucket.next;
+        } else {
+            min = bucket.next;
+        }
+        if (bucket.next != null) {
+            bucket.next.previous = bucket.previous;
+        }
+    }
+
+    private static final class Counter {
+        String key;
+        Bucket bucket;
+
+        Counter(String key) {
+            this.key = key;
+        }
+    }
+
+    private static final class Bucket {
+        final long count;
+        final Set<Counter> counters = new HashSet<>();
+        Bucket previous;
+        Bucket next;
+
+        Bucket(long count) {
+            this.count = count;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.fabrick.cache;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks the most requested cacheable lookups per cache and periodically writes the top keys to
+ * a file, so the next instance can warm its caches with them (see {@link CacheWarmer}).
+ * Keys are the request parameters joined with {@value #SEPARATOR}, not the cache keys,
+ * so they stay valid across dataset versions and can be replayed as requests.
+ * Nothing is recorded, read or written unless warmup is enabled and a file is configured; the file
+ * belongs to one deployment, so there is no shared default location.
+ */
+@Slf4j
+@Component
+public class HotKeyRecorder {
+
+    public static final String SEPARATOR = "|";
+
+    /**
+     * Counts carried over from the previous run are divided by this, so old favourites fade.
+     */
+    private static final long CARRY_OVER_DECAY = 2;
+
+    private final Map<String, HeavyHitters> sketches = new ConcurrentHashMap<>();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Value("${fabrick.warmup.top-keys:100}")
+    private int topKeys = 100;
+
+    @Value("${fabrick.warmup.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${fabrick.warmup.file:}")
+    private String file;
+
+    /**
+     * Whether hot keys are recorded and persisted at all.
+     */
+    public boolean isEnabled() {
+        return enabled && file != null && !file.isBlank();
+    }
+
+    public void record(String cacheName, Object... parameters) {
+        if (!isEnabled()) {
+            return;
+        }
+        StringBuilder key = new StringBuilder();
+        for (int i = 0; i < parameters.length; i++) {
+            if (i > 0) {
+                key.append(SEPARATOR);
+            }
+            key.append(parameters[i] != null ? parameters[i] : "");
+        }
+        sketch(cacheName).offer(key.toString(), 1);
+    }
+
+    /**
+     * Current top keys per cache, most frequent first.
+     */
+    public Map<String, Map<String, Long>> topKeys() {
+        Map<String, Map<String, Long>> top = new LinkedHashMap<>();
+        sketches.forEach((cacheName, sketch) -> top.put(cacheName, sketch.top(topKeys)));
+        return top;
+    }
+
+    /**
+     * Read the keys persisted by the previous run and seed the sketches with their decayed counts.
+     * Returns an empty map if recording is off, or there is no file or it cannot be read.
+     */
+    public Map<String, Map<String, Long>> load() {
+        if (!isEnabled()) {
+            return Map.of();
+        }
+        Path path = Path.of(file);
+        if (!Files.exists(path)) {
+            return Map.of();
+        }
+        try {
+            Map<String, Map<String, Long>> loaded = objectMapper.readValue(path.toFile(), new TypeReference<>() {
+            });
+            loaded.forEach((cacheName, keys) -> keys.forEach(
+                    (key, count) -> sketch(cacheName).offer(key, Math.max(1, count / CARRY_OVER_DECAY))));
+            return loaded;
+        } catch (IOException e) {
+            log.warn("Could not read hot keys from {}: {}", path, e.getMessage());
+            return Map.of();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${fabrick.warmup.persist-interval:PT5M}",
+            initialDelayString = "${fabrick.warmup.persist-interval:PT5M}")
+    @PreDestroy
+    public void persist() {
+        if (!isEnabled()) {
+            return;
+        }
+        Map<String, Map<String, Long>> top = topKeys();
+        if (top.values().stream().allMatch(Map::isEmpty)) {
+            return;
+        }
+        Path path = Path.of(file);
+        try {
+            // Write then rename, so a crash never leaves a truncated file behind
+            Path temp = Files.createTempFile(path.toAbsolutePath().getParent(), "hot-keys", ".tmp");
+            objectMapper.writeValue(temp.toFile(), top);
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.debug("Persisted hot keys for {} caches to {}", top.size(), path);
+        } catch (IOException e) {
+            log.warn("Could not persist hot keys to {}: {}", path, e.getMessage());
+        }
+    }
+
+    private HeavyHitters sketch(String cacheName) {
+        // Extra counters keep the estimates of the reported top keys accurate
+        return sketches.computeIfAbsent(cacheName, name -> new HeavyHitters(topKeys * 4));
+    }
+}
@@ -0,0 +1,47 @@
+package com.fabrick.cache;
+
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import java.time.Duration;
+import java.util.Collection;
+
+/**
+ * Write-based expiry with a separate, usually much shorter, lifetime for empty results.
+ * Empty results are what a failed upstream call or an unknown location degrades to, so they
+ * should be retried soon; real results live for the cache's normal time to live.
+ */
+public class ResultExpiry implements Expiry<Object, Object> {
+
+    private final long ttlNanos;
+    private final long emptyTtlNanos;
+
+    public ResultExpiry(Duration ttl, Duration emptyTtl) {
+        this.ttlNanos = ttl.toNanos();
+        this.emptyTtlNanos = emptyTtl.toNanos();
+    }
+
+    @Override
+    public long expireAfterCreate(Object key, Object value, long currentTime) {
+        return isEmpty(value) ? emptyTtlNanos : ttlNanos;
+    }
+
+    @Override
+    public long expireAfterUpdate(Object key, Object value, long currentTime, long currentDuration) {
+        return expireAfterCreate(key, value, currentTime);
+    }
+
+    @Override
+    public long expireAfterRead(Object key, Object value, long currentTime, long currentDuration) {
+        return currentDuration;
+    }
+
+    static boolean isEmpty(Object value) {
+        if (value instanceof Collection<?> collection) {
+            return collection.isEmpty();
+        }
+        if (value instanceof SpatialResultCache.Entry<?> entry) {
+            return entry.getItems().isEmpty();
+        }
+        return value == null;
+    }
+}
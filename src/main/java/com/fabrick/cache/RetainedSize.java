@@ -0,0 +1,109 @@
+package com.fabrick.cache;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rough retained size of cached keys and values in bytes, used to weigh cache entries.
+ * Walks collections, maps, arrays and the fields of application objects, assuming a 64-bit JVM
+ * with compressed references. Within a small factor of the real footprint, which is all a
+ * cache budget needs; JDK value types are counted shallowly.
+ */
+public final class RetainedSize {
+
+    private static final int OBJECT_HEADER = 16;
+    private static final int REFERENCE = 4;
+    private static final int FIELD = 8;
+    private static final int MAX_DEPTH = 8;
+
+    private static final ClassValue<List<Field>> FIELDS = new ClassValue<>() {
+        @Override
+        protected List<Field> computeValue(Class<?> type) {
+            List<Field> fields = new ArrayList<>();
+            for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    if (!Modifier.isStatic(field.getModifiers())) {
+                        field.setAccessible(true);
+                        fields.add(field);
+                    }
+                }
+            }
+            return fields;
+        }
+    };
+
+    private RetainedSize() {
+    }
+
+    public static long of(Object value) {
+        return of(value, 0);
+    }
+
+    private static long of(Object value, int depth) {
+        if (value == null || value instanceof Enum<?>) {
+            return 0;
+        }
+        if (value instanceof CharSequence text) {
+            // String object plus its (mostly Latin-1) byte array
+            return 24 + align(OBJECT_HEADER + text.length());
+        }
+        if (value instanceof Number || value instanceof Boolean || value instanceof Character) {
+            return 24;
+        }
+        if (depth >= MAX_DEPTH) {
+            return OBJECT_HEADER;
+        }
+        if (value instanceof Collection<?> collection) {
+            long size = OBJECT_HEADER + FIELD * 2 + align(OBJECT_HEADER + (long) REFERENCE * collection.size());
+            for (Object element : collection) {
+                size += of(element, depth + 1);
+            }
+            return size;
+        }
+        if (value instanceof Map<?, ?> map) {
+            long size = 48 + align(OBJECT_HEADER + (long) REFERENCE * map.size() * 2) + 32L * map.size();
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                size += of(entry.getKey(), depth + 1) + of(entry.getValue(), depth + 1);
+            }
+            return size;
+        }
+        Class<?> type = value.getClass();
+        if (type.isArray()) {
+            int length = Array.getLength(value);
+            if (type.getComponentType().isPrimitive()) {
+                return align(OBJECT_HEADER + (long) FIELD * length);
+            }
+            long size = align(OBJECT_HEADER + (long) REFERENCE * length);
+            for (int i = 0; i < length; i++) {
+                size += of(Array.get(value, i), depth + 1);
+            }
+            return size;
+        }
+        if (type.getName().startsWith("java.")) {
+            // Dates, times and the like: a few primitive fields, not reflectively accessible
+            return 32;
+        }
+
+        List<Field> fields = FIELDS.get(type);
+        long size = align(OBJECT_HEADER + (long) FIELD * fields.size());
+        for (Field field : fields) {
+            if (!field.getType().isPrimitive()) {
+                try {
+                    size += of(field.get(value), depth + 1);
+                } catch (IllegalAccessException e) {
+                    size += OBJECT_HEADER;
+                }
+            }
+        }
+        return size;
+    }
+
+    private static long align(long size) {
+        return (size + 7) & ~7L;
+    }
+}
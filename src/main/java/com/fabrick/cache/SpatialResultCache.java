@@ -0,0 +1,163 @@
+package com.fabrick.cache;
+
+import com.fabrick.geo.BoundingBox;
+import lombok.Value;
+import org.springframework.cache.Cache;
+import reactor.core.publisher.Mono;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Closest-location results cached once per origin instead of once per radius.
+ * A miss queries the radius rounded up to the next multiple of {@code radiusStep} and stores that;
+ * any later request for the same origin whose radius fits inside the stored one is answered by
+ * filtering it. So {@code closestBy=0.99} and {@code closestBy=1.0} share an entry, and a smaller
+ * radius after a larger one costs no query. Radii above {@code maxRadius} bypass the cache.
+ * Misses are filled by the caller; wrapping the fill in {@link #load} times it as a cache load.
+ */
+public class SpatialResultCache<T> {
+
+    private final Cache cache;
+    private final double radiusStep;
+    private final double maxRadius;
+    private final Function<T, Double> latitudeOf;
+    private final Function<T, Double> longitudeOf;
+    private final CacheLoadTimer loadTimer;
+
+    public SpatialResultCache(Cache cache, double radiusStep, double maxRadius,
+                              Function<T, Double> latitudeOf, Function<T, Double> longitudeOf,
+                              CacheLoadTimer loadTimer) {
+        if (radiusStep <= 0) {
+            throw new IllegalArgumentException("radiusStep must be positive");
+        }
+        this.cache = cache;
+        this.radiusStep = radiusStep;
+        this.maxRadius = maxRadius;
+        this.latitudeOf = latitudeOf;
+        this.longitudeOf = longitudeOf;
+        this.loadTimer = loadTimer;
+    }
+
+    public boolean isCacheable(double radius) {
+        return radius >= 0 && radius <= maxRadius;
+    }
+
+    /**
+     * Radius to query for a request: rounded up to its bucket when cacheable, unchanged otherwise.
+     */
+    public double bucket(double radius) {
+        if (!isCacheable(radius)) {
+            return radius;
+        }
+        double steps = Math.ceil(radius / radiusStep);
+        double bucket = steps * radiusStep;
+        if (bucket < radius) {
+            // steps * radiusStep can round just below the radius it was computed from
+            bucket = (steps + 1) * radiusStep;
+        }
+        return Math.min(bucket, maxRadius);
+    }
+
+    /**
+     * Result for the origin within the radius, or null if no stored entry covers it.
+     */
+    public List<T> get(String key, double radius) {
+        if (!isCacheable(radius)) {
+            return null;
+        }
+        Cache.ValueWrapper wrapper = cache.get(key);
+        return wrapper != null ? serve(wrapper.get(), radius) : null;
+    }
+
+    /**
+     * Bulk {@link #get}, keyed like {@code keys}; misses are left out.
+     * Uses one bulk read on the underlying Caffeine cache when there is one.
+     */
+    @SuppressWarnings("unchecked")
+    public <K> Map<K, List<T>> getAll(Map<K, String> keys, double radius) {
+        Map<K, List<T>> found = new HashMap<>();
+        if (!isCacheable(radius)) {
+            return found;
+        }
+
+        Map<Object, Object> hits = new HashMap<>();
+        if (cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> caffeine) {
+            hits.putAll(((com.github.benmanes.caffeine.cache.Cache<Object, Object>) caffeine)
+                    .getAllPresent(keys.values()));
+        } else {
+            for (String key : keys.values()) {
+                Cache.ValueWrapper wrapper = cache.get(key);
+                if (wrapper != null) {
+                    hits.put(key, wrapper.get());
+                }
+            }
+        }
+
+        keys.forEach((id, key) -> {
+            List<T> result = serve(hits.get(key), radius);
+            if (result != null) {
+                found.put(id, result);
+            }
+        });
+        return found;
+    }
+
+    /**
+     * Time the fill of a miss for the radius; fills that bypass the cache are not timed.
+     */
+    public <V> Mono<V> load(double radius, Mono<V> fill) {
+        return isCacheable(radius) ? loadTimer.time(fill) : fill;
+    }
+
+    /**
+     * Store a result queried for {@code fetchedRadius} (see {@link #bucket}) around the origin,
+     * unless a larger entry is already stored, and return the part within {@code radius}.
+     */
+    public List<T> put(String key, double originLatitude, double originLongitude,
+                       double fetchedRadius, List<T> items, double radius) {
+        Entry<T> entry = new Entry<>(originLatitude, originLongitude, fetchedRadius, items);
+        if (isCacheable(fetchedRadius)) {
+            Cache.ValueWrapper existing = cache.get(key);
+            if (existing == null || !(existing.get() instanceof Entry<?> stored) || stored.getRadius() < fetchedRadius) {
+                cache.put(key, entry);
+            }
+        }
+        return within(entry, radius);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<T> serve(Object value, double radius) {
+        if (value instanceof Entry<?> entry && entry.getRadius() >= radius) {
+            return within((Entry<T>) entry, radius);
+        }
+        return null;
+    }
+
+    private List<T> within(Entry<T> entry, double radius) {
+        if (entry.getRadius() == radius) {
+            return entry.getItems();
+        }
+        BoundingBox box = BoundingBox.around(entry.getOriginLatitude(), entry.getOriginLongitude(), radius);
+        return entry.getItems().stream()
+                .filter(item -> {
+                    Double latitude = latitudeOf.apply(item);
+                    Double longitude = longitudeOf.apply(item);
+                    return latitude != null && longitude != null && box.contains(latitude, longitude);
+                })
+                .toList();
+    }
+
+    /**
+     * Everything within {@code radius} of the origin, as queried.
+     */
+    @Value
+    static class Entry<T> {
+        double originLatitude;
+        double originLongitude;
+        double radius;
+        List<T> items;
+    }
+}
@@ -0,0 +1,66 @@
+package com.fabrick.codec;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.protobuf.ProtobufMapper;
+import com.fasterxml.jackson.dataformat.protobuf.schema.NativeProtobufSchema;
+import org.reactivestreams.Publisher;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.AbstractEncoder;
+import org.springframework.core.codec.EncodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.util.MimeType;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Writes lists of model objects as protobuf, following the messages of {@code proto/fabrick.proto}.
+ * A list of {@code T} is written as the message {@code TList}, whose only field {@code items} repeats
+ * {@code T}. Jackson matches the message fields to the JSON property names, so the models need no
+ * generated classes; null properties are left out.
+ */
+public class ProtobufListEncoder extends AbstractEncoder<Object> {
+
+    public static final MediaType APPLICATION_PROTOBUF = new MediaType("application", "x-protobuf");
+
+    private final Map<Class<?>, ObjectWriter> writers = new HashMap<>();
+
+    public ProtobufListEncoder(NativeProtobufSchema schema, Class<?>... elementTypes) {
+        super(APPLICATION_PROTOBUF);
+        ProtobufMapper mapper = new ProtobufMapper();
+        mapper.setSerializationInclusion(JsonInclude.Include.NON_NULL);
+        for (Class<?> elementType : elementTypes) {
+            writers.put(elementType, mapper.writer(schema.forType(elementType.getSimpleName() + "List")));
+        }
+    }
+
+    @Override
+    public boolean canEncode(ResolvableType elementType, MimeType mimeType) {
+        return super.canEncode(elementType, mimeType)
+                && Collection.class.isAssignableFrom(elementType.toClass())
+                && writers.containsKey(elementType.asCollection().getGeneric(0).toClass());
+    }
+
+    @Override
+    public Flux<DataBuffer> encode(Publisher<?> inputStream, DataBufferFactory bufferFactory,
+                                   ResolvableType elementType, MimeType mimeType, Map<String, Object> hints) {
+        return Flux.from(inputStream).map(value -> encodeValue(value, bufferFactory, elementType, mimeType, hints));
+    }
+
+    @Override
+    public DataBuffer encodeValue(Object value, DataBufferFactory bufferFactory, ResolvableType valueType,
+                                  MimeType mimeType, Map<String, Object> hints) {
+        ObjectWriter writer = writers.get(valueType.asCollection().getGeneric(0).toClass());
+        try {
+            return bufferFactory.wrap(writer.writeValueAsBytes(Map.of("items", value)));
+        } catch (IOException e) {
+            throw new EncodingException("Could not write " + valueType + " as protobuf", e);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.fabrick.config;
+
+import com.fabrick.bulkhead.Bulkhead;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Separate bulkheads for the NASA-bound asteroid workload and the database-bound geo workload,
+ * so a slow upstream in one domain cannot starve the other.
+ */
+@Configuration
+public class BulkheadConfig {
+
+    @Bean(destroyMethod = "dispose")
+    public Bulkhead asteroidBulkhead(
+            @Value("${fabrick.bulkhead.asteroid.max-concurrent-calls:50}") int maxConcurrentCalls,
+            @Value("${fabrick.bulkhead.asteroid.threads:2}") int threads,
+            MeterRegistry meterRegistry) {
+        return new Bulkhead("asteroid", maxConcurrentCalls, Schedulers.newParallel("asteroid", threads), meterRegistry);
+    }
+
+    @Bean(destroyMethod = "dispose")
+    public Bulkhead geoBulkhead(
+            @Value("${fabrick.bulkhead.geo.max-concurrent-calls:200}") int maxConcurrentCalls,
+            @Value("${fabrick.bulkhead.geo.threads:2}") int threads,
+            MeterRegistry meterRegistry) {
+        return new Bulkhead("geo", maxConcurrentCalls, Schedulers.newParallel("geo", threads), meterRegistry);
+    }
+}
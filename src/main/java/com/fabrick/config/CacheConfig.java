@@ -0,0 +1,86 @@
+package com.fabrick.config;
+
+import com.fabrick.cache.CacheLoadTimer;
+import com.fabrick.cache.MeteredStatsCounter;
+import com.fabrick.cache.ResultExpiry;
+import com.fabrick.cache.RetainedSize;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Result caches, each bounded by its share of one memory budget and weighed by approximate
+ * retained size, so a list of thousands of stations costs what it occupies rather than one slot.
+ * Caches run in async mode so {@code @Cacheable} stores the values of reactive results.
+ * Statistics are recorded for the cache metrics, with loads also timed by {@link CacheLoadTimer}.
+ */
+@Slf4j
+@Configuration
+@EnableCaching
+@EnableConfigurationProperties(CacheConfig.CacheProperties.class)
+public class CacheConfig {
+
+    @Bean
+    public CacheManager cacheManager(CacheProperties properties, MeterRegistry meterRegistry) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setAsyncCacheMode(true);
+        // Only the configured caches exist; an unknown name is a bug, not an unbounded cache
+        cacheManager.setCacheNames(List.of());
+
+        double totalShare = properties.getCaches().values().stream()
+                .mapToDouble(CacheProperties.Spec::getBudgetShare)
+                .sum();
+
+        properties.getCaches().forEach((name, spec) -> {
+            long maximumWeight = (long) (properties.getMaxWeight().toBytes() * spec.getBudgetShare() / totalShare);
+            log.info("Cache {}: {} KB, ttl {}, empty ttl {}",
+                    name, maximumWeight / 1024, spec.getExpireAfterWrite(), spec.getEmptyExpireAfterWrite());
+
+            cacheManager.registerCustomCache(name, Caffeine.newBuilder()
+                    .maximumWeight(maximumWeight)
+                    .weigher((key, value) -> (int) Math.min(Integer.MAX_VALUE,
+                            RetainedSize.of(key) + RetainedSize.of(value)))
+                    .expireAfter(new ResultExpiry(spec.getExpireAfterWrite(), spec.getEmptyExpireAfterWrite()))
+                    .recordStats(() -> new MeteredStatsCounter(new CacheLoadTimer(name, meterRegistry)))
+                    .buildAsync());
+        });
+        return cacheManager;
+    }
+
+    @Data
+    @ConfigurationProperties("fabrick.cache")
+    public static class CacheProperties {
+
+        /**
+         * Memory shared by all result caches, split by their budget shares.
+         */
+        private DataSize maxWeight = DataSize.ofMegabytes(64);
+
+        private Map<String, Spec> caches = new LinkedHashMap<>();
+
+        @Data
+        public static class Spec {
+            private double budgetShare = 1.0;
+            private Duration expireAfterWrite = Duration.ofHours(24);
+
+            /**
+             * Lifetime of empty results, which failed upstream calls also degrade to.
+             */
+            private Duration emptyExpireAfterWrite = Duration.ofMinutes(5);
+        }
+    }
+}
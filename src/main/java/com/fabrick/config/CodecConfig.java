@@ -0,0 +1,58 @@
+package com.fabrick.config;
+
+import com.fabrick.codec.ProtobufListEncoder;
+import com.fabrick.model.Airport;
+import com.fabrick.model.AsteroidPath;
+import com.fabrick.model.Station;
+import com.fasterxml.jackson.dataformat.protobuf.schema.NativeProtobufSchema;
+import com.fasterxml.jackson.dataformat.protobuf.schema.ProtobufSchemaLoader;
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.http.codec.cbor.Jackson2CborDecoder;
+import org.springframework.http.codec.cbor.Jackson2CborEncoder;
+import org.springframework.web.reactive.accept.RequestedContentTypeResolverBuilder;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+
+import java.io.IOException;
+
+/**
+ * Binary response formats next to JSON, chosen by the Accept header: CBOR ({@code application/cbor}),
+ * Smile ({@code application/x-jackson-smile}, registered by Spring once the dataformat is present) and
+ * protobuf ({@code application/x-protobuf}) for the airport, station and asteroid path lists.
+ */
+@Configuration
+public class CodecConfig implements WebFluxConfigurer {
+
+    /**
+     * Server side only: the upstream clients keep talking JSON.
+     */
+    @Bean
+    public CodecCustomizer binaryCodecCustomizer() throws IOException {
+        NativeProtobufSchema schema = ProtobufSchemaLoader.std.loadNative(
+                new ClassPathResource("proto/fabrick.proto").getURL());
+        ProtobufListEncoder protobufEncoder = new ProtobufListEncoder(schema,
+                Airport.class, Station.class, AsteroidPath.class);
+
+        return configurer -> {
+            if (configurer instanceof ServerCodecConfigurer) {
+                configurer.customCodecs().register(new Jackson2CborEncoder());
+                configurer.customCodecs().register(new Jackson2CborDecoder());
+                configurer.customCodecs().register(protobufEncoder);
+            }
+        };
+    }
+
+    /**
+     * Spring lists custom codecs ahead of its own, so a request accepting anything would get the first
+     * binary format; such requests are answered in JSON, still falling back to whatever the endpoint produces.
+     */
+    @Override
+    public void configureContentTypeResolver(RequestedContentTypeResolverBuilder builder) {
+        builder.headerResolver();
+        builder.fixedResolver(MediaType.APPLICATION_JSON, MediaType.ALL);
+    }
+}
@@ -0,0 +1,67 @@
+package com.fabrick.config;
+
+import com.fabrick.limit.AdaptiveConcurrencyLimiter;
+import com.fabrick.limit.ConcurrencyLimitWebFilter;
+import com.fabrick.limit.GradientLimit;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Data;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Adaptive concurrency limits for the REST API, one limiter per configured endpoint.
+ */
+@Configuration
+@ConditionalOnProperty(name = "fabrick.concurrency-limit.enabled", havingValue = "true", matchIfMissing = true)
+@EnableConfigurationProperties(ConcurrencyLimitConfig.ConcurrencyLimitProperties.class)
+public class ConcurrencyLimitConfig {
+
+    @Bean
+    @Order(Ordered.HIGHEST_PRECEDENCE + 10)
+    public ConcurrencyLimitWebFilter concurrencyLimitWebFilter(ConcurrencyLimitProperties properties,
+                                                               MeterRegistry meterRegistry) {
+        Map<PathPattern, AdaptiveConcurrencyLimiter> limiters = new LinkedHashMap<>();
+        properties.getEndpoints().forEach((name, endpoint) -> limiters.put(
+                PathPatternParser.defaultInstance.parse(endpoint.getPath()),
+                new AdaptiveConcurrencyLimiter(name,
+                        new GradientLimit(endpoint.getInitialLimit(), endpoint.getMinLimit(), endpoint.getMaxLimit()),
+                        meterRegistry)));
+        return new ConcurrencyLimitWebFilter(limiters, properties.getRetryAfter());
+    }
+
+    @Data
+    @ConfigurationProperties("fabrick.concurrency-limit")
+    public static class ConcurrencyLimitProperties {
+
+        private boolean enabled = true;
+
+        /**
+         * Value of the Retry-After header on shed requests.
+         */
+        private Duration retryAfter = Duration.ofSeconds(1);
+
+        /**
+         * Limited endpoints by name; the first matching path wins.
+         */
+        private Map<String, Endpoint> endpoints = new LinkedHashMap<>();
+
+        @Data
+        public static class Endpoint {
+            private String path;
+            private int initialLimit = 20;
+            private int minLimit = 4;
+            private int maxLimit = 200;
+        }
+    }
+}
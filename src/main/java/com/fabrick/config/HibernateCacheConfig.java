@@ -0,0 +1,79 @@
+package com.fabrick.config;
+
+import com.fabrick.entity.AirportCacheEntity;
+import com.fabrick.entity.StationCacheEntity;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.util.HashSet;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.Set;
+
+/**
+ * Hibernate second-level cache for the airport/station views, backed by Caffeine through JCache.
+ * Entity and natural-ID regions are created up front with statistics enabled, so hit, miss
+ * and eviction counts are published as {@code cache.*} metrics tagged {@code layer=hibernate}.
+ */
+@Configuration
+public class HibernateCacheConfig {
+
+    private static final String NATURAL_ID_SUFFIX = "##NaturalId";
+
+    static final List<String> REGIONS = List.of(
+            AirportCacheEntity.class.getName(),
+            AirportCacheEntity.class.getName() + NATURAL_ID_SUFFIX,
+            StationCacheEntity.class.getName(),
+            StationCacheEntity.class.getName() + NATURAL_ID_SUFFIX
+    );
+
+    @Value("${fabrick.hibernate-cache.maximum-size:10000}")
+    private long maximumSize;
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager() {
+        CacheManager cacheManager = Caching
+                .getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("fabrick-hibernate"), getClass().getClassLoader());
+
+        Set<String> existing = new HashSet<>();
+        cacheManager.getCacheNames().forEach(existing::add);
+
+        for (String region : REGIONS) {
+            if (!existing.contains(region)) {
+                CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+                configuration.setMaximumSize(OptionalLong.of(maximumSize));
+                // Hibernate already stores disassembled, immutable state; skip the serialization copy
+                configuration.setStoreByValue(false);
+                configuration.setStatisticsEnabled(true);
+                cacheManager.createCache(region, configuration);
+            }
+        }
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+
+    @Bean
+    public MeterBinder hibernateCacheMetrics(CacheManager hibernateCacheManager) {
+        return registry -> {
+            for (String region : REGIONS) {
+                JCacheMetrics.monitor(registry, hibernateCacheManager.getCache(region), Tags.of("layer", "hibernate"));
+            }
+        };
+    }
+}
@@ -0,0 +1,66 @@
+package com.fabrick.config;
+
+import com.fabrick.service.JpaExecutor;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Where blocking JPA lookups run, selected with {@code fabrick.persistence.jpa.execution}:
+ * {@code bounded-elastic} (default) uses a dedicated pool of platform threads, {@code virtual-threads}
+ * starts one Java 21 virtual thread per call. Either way, concurrency is capped at the Hikari
+ * pool size, so callers never queue on the connection pool: the bounded pool has that many threads,
+ * and virtual threads, which are unbounded, wait on that many connection permits.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "fabrick.persistence.mode", havingValue = "jpa", matchIfMissing = true)
+public class JpaExecutionConfig {
+
+    @Value("${fabrick.persistence.jpa.execution:bounded-elastic}")
+    private String execution;
+
+    @Value("${spring.datasource.hikari.maximum-pool-size:10}")
+    private int maximumPoolSize;
+
+    @Bean(destroyMethod = "dispose")
+    public Scheduler jpaScheduler() {
+        if ("virtual-threads".equals(execution)) {
+            log.info("JPA lookups run on virtual threads, at most {} at a time", maximumPoolSize);
+            return Schedulers.fromExecutorService(Executors.newVirtualThreadPerTaskExecutor(), "jpa-virtual");
+        }
+        log.info("JPA lookups run on a bounded elastic pool of {} threads", maximumPoolSize);
+        return Schedulers.newBoundedElastic(maximumPoolSize, Schedulers.DEFAULT_BOUNDED_ELASTIC_QUEUESIZE, "jpa");
+    }
+
+    @Bean
+    public JpaExecutor jpaExecutor(Scheduler jpaScheduler, MeterRegistry meterRegistry) {
+        Timer queueWait = Timer.builder("fabrick.jpa.queue.wait")
+                .description("Time a JPA lookup waits for a worker thread or connection permit")
+                .tag("execution", execution)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+
+        if (!"virtual-threads".equals(execution)) {
+            return new JpaExecutor(jpaScheduler, queueWait);
+        }
+
+        JpaExecutor jpaExecutor = new JpaExecutor(jpaScheduler, new Semaphore(maximumPoolSize, true), queueWait);
+        Gauge.builder("fabrick.jpa.permits.available", jpaExecutor, JpaExecutor::availablePermits)
+                .description("Connection permits not currently held by a JPA lookup")
+                .tag("execution", execution)
+                .register(meterRegistry);
+
+        return jpaExecutor;
+    }
+}
@@ -0,0 +1,32 @@
+package com.fabrick.config;
+
+import com.fabrick.service.AirportDatabaseService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Application metrics that do not belong to a single component.
+ * Cache, upstream and repository timings are registered where they are measured; see
+ * {@link CacheConfig}, {@link WebClientConfig} and the repositories.
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Size and version of the dataset currently served; both change only on a reload.
+     */
+    @Bean
+    public MeterBinder datasetMetrics(AirportDatabaseService airportDatabaseService) {
+        return registry -> {
+            Gauge.builder("fabrick.dataset.records", airportDatabaseService,
+                            service -> service.currentSnapshot().getRecordCount())
+                    .description("Airports/stations in the loaded dataset")
+                    .register(registry);
+            Gauge.builder("fabrick.dataset.version", airportDatabaseService, AirportDatabaseService::currentVersion)
+                    .description("Version of the loaded dataset, incremented by every reload that changes it")
+                    .register(registry);
+        };
+    }
+}
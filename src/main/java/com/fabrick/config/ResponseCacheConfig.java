@@ -0,0 +1,73 @@
+package com.fabrick.config;
+
+import com.fabrick.cache.EncodedResponseCache;
+import com.fabrick.service.AirportDatabaseService;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.codec.Encoder;
+import org.springframework.http.codec.EncoderHttpMessageWriter;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.http.codec.cbor.Jackson2CborEncoder;
+import org.springframework.http.codec.json.AbstractJackson2Encoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.codec.json.Jackson2SmileEncoder;
+import org.springframework.util.MimeType;
+import org.springframework.web.reactive.accept.RequestedContentTypeResolver;
+
+import java.util.List;
+
+/**
+ * Encoded closest-stations/airports responses, stored in the {@code responses} cache of the
+ * application cache manager and keyed by the version of the loaded dataset.
+ * Encoded with the server's own encoders and negotiated like any other response, so every format
+ * the API speaks is available. Projected results are encoded by copies of the Jackson encoders that
+ * leave null properties out, so the default wire format is unchanged. The server's compression settings
+ * decide which responses get weak tags.
+ */
+@Configuration
+public class ResponseCacheConfig {
+
+    @Bean
+    public EncodedResponseCache encodedResponseCache(CacheManager cacheManager, ServerCodecConfigurer codecConfigurer,
+                                                     RequestedContentTypeResolver webFluxContentTypeResolver,
+                                                     AirportDatabaseService airportDatabaseService,
+                                                     ObjectProvider<ServerProperties> serverProperties) {
+        List<Encoder<?>> encoders = codecConfigurer.getWriters().stream()
+                .filter(EncoderHttpMessageWriter.class::isInstance)
+                .<Encoder<?>>map(writer -> ((EncoderHttpMessageWriter<?>) writer).getEncoder())
+                .toList();
+        return new EncodedResponseCache(cacheManager.getCache("responses"),
+                encoders,
+                encoders.stream().map(ResponseCacheConfig::omittingNulls).toList(),
+                webFluxContentTypeResolver,
+                airportDatabaseService::currentVersion,
+                serverProperties.getIfAvailable(ServerProperties::new).getCompression());
+    }
+
+    /**
+     * Copy of a Jackson encoder whose mapper leaves null properties out; other encoders are returned
+     * as they are (the protobuf one leaves them out already).
+     */
+    private static Encoder<?> omittingNulls(Encoder<?> encoder) {
+        if (!(encoder instanceof AbstractJackson2Encoder jackson)) {
+            return encoder;
+        }
+        ObjectMapper mapper = jackson.getObjectMapper().copy().setSerializationInclusion(JsonInclude.Include.NON_NULL);
+        MimeType[] mimeTypes = jackson.getEncodableMimeTypes().toArray(MimeType[]::new);
+        if (encoder instanceof Jackson2JsonEncoder) {
+            return new Jackson2JsonEncoder(mapper, mimeTypes);
+        }
+        if (encoder instanceof Jackson2CborEncoder) {
+            return new Jackson2CborEncoder(mapper, mimeTypes);
+        }
+        if (encoder instanceof Jackson2SmileEncoder) {
+            return new Jackson2SmileEncoder(mapper, mimeTypes);
+        }
+        throw new IllegalStateException("No null-omitting copy of " + encoder.getClass().getName());
+    }
+}
@@ -0,0 +1,37 @@
+package com.fabrick.config;
+
+import com.fabrick.cache.CacheLoadTimer;
+import com.fabrick.cache.SpatialResultCache;
+import com.fabrick.model.Airport;
+import com.fabrick.model.Station;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Radius-bucketed result caches for the closest-stations/airports lookups,
+ * stored in the {@code stations} and {@code airports} caches of the application cache manager.
+ */
+@Configuration
+public class SpatialCacheConfig {
+
+    @Value("${fabrick.spatial-cache.radius-step:0.25}")
+    private double radiusStep;
+
+    @Value("${fabrick.spatial-cache.max-radius:5.0}")
+    private double maxRadius;
+
+    @Bean
+    public SpatialResultCache<Station> stationResultCache(CacheManager cacheManager, MeterRegistry meterRegistry) {
+        return new SpatialResultCache<>(cacheManager.getCache("stations"), radiusStep, maxRadius,
+                Station::getLatitude, Station::getLongitude, new CacheLoadTimer("stations", meterRegistry));
+    }
+
+    @Bean
+    public SpatialResultCache<Airport> airportResultCache(CacheManager cacheManager, MeterRegistry meterRegistry) {
+        return new SpatialResultCache<>(cacheManager.getCache("airports"), radiusStep, maxRadius,
+                Airport::getLatitude, Airport::getLongitude, new CacheLoadTimer("airports", meterRegistry));
+    }
+}
@@ -0,0 +1,52 @@
+package com.fabrick.config;
+
+import com.fabrick.timing.ServerTimingWebFilter;
+import com.fabrick.timing.TimedJackson2JsonEncoder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+
+/**
+ * Per-request stage timing: the {@code Server-Timing} header, sampled trace records and the
+ * serialization stage. Runs ahead of the concurrency limits, so shed requests are timed too.
+ */
+@Configuration
+@EnableConfigurationProperties(TimingConfig.TimingProperties.class)
+public class TimingConfig {
+
+    @Bean
+    @Order(Ordered.HIGHEST_PRECEDENCE + 5)
+    public ServerTimingWebFilter serverTimingWebFilter(TimingProperties properties, ObjectMapper objectMapper) {
+        return new ServerTimingWebFilter(properties.isServerTiming(), properties.getTraceSampleRate(), objectMapper);
+    }
+
+    /**
+     * Replaces the JSON encoder registered by Spring Boot's Jackson customizer, which runs at order 0.
+     */
+    @Bean
+    @Order(1)
+    public CodecCustomizer timedJacksonCodecCustomizer(ObjectMapper objectMapper) {
+        return configurer -> configurer.defaultCodecs().jackson2JsonEncoder(new TimedJackson2JsonEncoder(objectMapper));
+    }
+
+    @Data
+    @ConfigurationProperties("fabrick.timing")
+    public static class TimingProperties {
+
+        /**
+         * Send the stage timings of every request in a Server-Timing header.
+         */
+        private boolean serverTiming = true;
+
+        /**
+         * Share of requests, between 0 and 1, logged as structured trace records.
+         */
+        private double traceSampleRate = 0.0;
+    }
+}
@@ -1,48 +1,98 @@
 package com.fabrick.config;
 
-import com.github.benmanes.caffeine.cache.Caffeine;
-import org.springframework.cache.CacheManager;
-import org.springframework.cache.caffeine.CaffeineCacheManager;
+import io.micrometer.common.KeyValue;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.ClientRequestObservationContext;
+import org.springframework.web.reactive.function.client.DefaultClientRequestObservationConvention;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
 
 import java.time.Duration;
 
+/**
+ * One WebClient per upstream API, each with its own connection pool.
+ * Both are built from Spring Boot's instrumented builder, so every call is timed as
+ * {@code http.client.requests} with {@code client.name} set to {@code nasa} or {@code aviation}.
+ */
 @Configuration
 public class WebClientConfig {
 
+    /**
+     * Connection pool dedicated to NASA, so a slow NASA API cannot hold the aviation connections.
+     */
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider nasaConnectionProvider(
+            @Value("${fabrick.bulkhead.asteroid.max-connections:20}") int maxConnections) {
+        return ConnectionProvider.builder("nasa")
+                .maxConnections(maxConnections)
+                .pendingAcquireTimeout(Duration.ofSeconds(5))
+                .metrics(true)
+                .build();
+    }
+
+    /**
+     * Connection pool dedicated to the Aviation Weather API.
+     */
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider aviationConnectionProvider(
+            @Value("${fabrick.bulkhead.geo.max-connections:20}") int maxConnections) {
+        return ConnectionProvider.builder("aviation")
+                .maxConnections(maxConnections)
+                .pendingAcquireTimeout(Duration.ofSeconds(5))
+                .metrics(true)
+                .build();
+    }
+
     @Bean
-    public WebClient nasaWebClient() {
-        return WebClient.builder()
-                .baseUrl("https://api.nasa.gov/neo/rest/v1")
+    public WebClient nasaWebClient(
+            WebClient.Builder webClientBuilder,
+            ConnectionProvider nasaConnectionProvider,
+            @Value("${nasa.api.base-url:https://api.nasa.gov/neo/rest/v1}") String baseUrl) {
+        HttpClient httpClient = HttpClient.create(nasaConnectionProvider);
+
+        return webClientBuilder
+                .baseUrl(baseUrl)
+                .observationConvention(new NamedClientObservationConvention("nasa"))
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
                 .defaultHeader("User-Agent", "Fabrick-Interview-Exercise/1.0")
                 .build();
     }
 
     @Bean
-    public WebClient aviationWebClient() {
-        HttpClient httpClient = HttpClient.create()
+    public WebClient aviationWebClient(
+            WebClient.Builder webClientBuilder,
+            ConnectionProvider aviationConnectionProvider,
+            @Value("${aviation.api.base-url:https://aviationweather.gov}") String baseUrl) {
+        HttpClient httpClient = HttpClient.create(aviationConnectionProvider)
                 .responseTimeout(Duration.ofSeconds(10));
 
-        return WebClient.builder()
-                .baseUrl("https://aviationweather.gov")
+        return webClientBuilder
+                .baseUrl(baseUrl)
+                .observationConvention(new NamedClientObservationConvention("aviation"))
                 .clientConnector(new ReactorClientHttpConnector(httpClient))
                 .defaultHeader("User-Agent", "Fabrick-Interview-Exercise/1.0")
                 .build();
     }
 
-    @Bean
-    public CacheManager cacheManager() {
-        CaffeineCacheManager cacheManager = new CaffeineCacheManager(
-                "asteroids", "airports", "stations"
-        );
-        cacheManager.setCaffeine(Caffeine.newBuilder()
-                .expireAfterWrite(Duration.ofHours(24))
-                .maximumSize(1000)
-                .recordStats());
-        return cacheManager;
+    /**
+     * Tags client requests with a fixed client name instead of the target host,
+     * which changes when the base URL is overridden.
+     */
+    static class NamedClientObservationConvention extends DefaultClientRequestObservationConvention {
+
+        private final String clientName;
+
+        NamedClientObservationConvention(String clientName) {
+            this.clientName = clientName;
+        }
+
+        @Override
+        protected KeyValue clientName(ClientRequestObservationContext context) {
+            return KeyValue.of("client.name", clientName);
+        }
     }
-}
\ No newline at end of file
+}
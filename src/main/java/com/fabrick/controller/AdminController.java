@@ -0,0 +1,50 @@
+package com.fabrick.controller;
+
+import com.fabrick.model.DatasetReloadResult;
+import com.fabrick.model.DatasetSnapshot;
+import com.fabrick.service.AirportDatabaseService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.FileNotFoundException;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/fabrick/v1.0/admin")
+@RequiredArgsConstructor
+public class AdminController {
+
+    private final AirportDatabaseService airportDatabaseService;
+
+    /**
+     * Describe the airports/stations dataset currently being served.
+     */
+    @GetMapping("/dataset")
+    public DatasetSnapshot getDataset() {
+        return airportDatabaseService.currentSnapshot();
+    }
+
+    /**
+     * Re-read the configured airports CSV and apply the incremental diff without a restart.
+     * Returns 409 if a reload is already running and 404 if the file is missing.
+     */
+    @PostMapping("/dataset/reload")
+    public Mono<ResponseEntity<DatasetReloadResult>> reloadDataset() {
+        return Mono.fromCallable(airportDatabaseService::reloadAirportsDatabase)
+                .subscribeOn(Schedulers.boundedElastic())
+                .map(ResponseEntity::ok)
+                .onErrorResume(IllegalStateException.class, error -> {
+                    log.warn("Dataset reload rejected: {}", error.getMessage());
+                    return Mono.just(ResponseEntity.status(HttpStatus.CONFLICT).build());
+                })
+                .onErrorResume(FileNotFoundException.class, error -> {
+                    log.warn("Dataset reload failed: {}", error.getMessage());
+                    return Mono.just(ResponseEntity.notFound().build());
+                });
+    }
+}
@@ -1,14 +1,30 @@
 package com.fabrick.controller;
 
+import com.fabrick.cache.EncodedResponseCache;
+import com.fabrick.cache.HotKeyRecorder;
+import com.fabrick.geo.Route;
+import com.fabrick.geo.SpatialCursor;
 import com.fabrick.model.Airport;
 import com.fabrick.model.AsteroidPath;
+import com.fabrick.model.BatchLookupRequest;
+import com.fabrick.model.LocationPage;
+import com.fabrick.model.MapTile;
+import com.fabrick.model.Projection;
 import com.fabrick.model.Station;
 import com.fabrick.service.AirportStationService;
 import com.fabrick.service.AsteroidService;
+import com.fabrick.service.TileService;
+import com.fabrick.timing.RequestTiming;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.time.LocalDate;
@@ -24,6 +40,9 @@ public class FabrickController {
 
     private final AsteroidService asteroidService;
     private final AirportStationService airportStationService;
+    private final HotKeyRecorder hotKeyRecorder;
+    private final EncodedResponseCache encodedResponseCache;
+    private final TileService tileService;
 
     /**
      * Health check endpoint for application monitoring.
@@ -48,32 +67,238 @@ public class FabrickController {
             @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate fromDate,
             @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate toDate) {
 
+        hotKeyRecorder.record("asteroids", asteroidId, fromDate, toDate);
+
         // Apply default date range if not specified
-        LocalDate from = fromDate != null ? fromDate : LocalDate.now().minusYears(100);
-        LocalDate to = toDate != null ? toDate : LocalDate.now();
+        LocalDate from = fromDate != null ? fromDate : AsteroidService.defaultFromDate();
+        LocalDate to = toDate != null ? toDate : AsteroidService.defaultToDate();
 
-        return asteroidService.getAsteroidPaths(asteroidId, from, to);
+        // Loads are shared through the cache and start outside this request's context,
+        // so the request times its wait on the cache, which includes the NASA call on a miss
+        return RequestTiming.stage("cache", asteroidService.getAsteroidPaths(asteroidId, from, to));
     }
 
     /**
      * Find all weather stations within a bounding box around the specified airport.
+     * Served from the encoded response cache in the format the Accept header asks for
+     * (JSON, CBOR, Smile or protobuf), with an ETag for conditional requests.
+     * {@code fields} (e.g. {@code id,latitude,longitude}) limits the properties of each station.
      */
     @GetMapping("/airports/{airportId}/stations")
-    public Mono<List<Station>> getClosestStations(
+    public Mono<ResponseEntity<byte[]>> getClosestStations(
+            @PathVariable String airportId,
+            @RequestParam(defaultValue = "0.0") Double closestBy,
+            @RequestParam(required = false) String fields,
+            ServerWebExchange exchange) {
+
+        Projection projection = parseFields(fields, Station.FIELDS);
+        hotKeyRecorder.record("stations", airportId, closestBy);
+        return encodedResponseCache.respond(exchange, resultKey("stations/" + airportId + "/" + closestBy, projection),
+                Station.class, !projection.isAll(),
+                () -> airportStationService.getClosestStations(airportId, closestBy, projection));
+    }
+
+    /**
+     * Stream the weather stations around the specified airport as NDJSON or server-sent events,
+     * writing each one as soon as it is read. Selected by the Accept header.
+     */
+    @GetMapping(value = "/airports/{airportId}/stations",
+            produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<Station> streamClosestStations(
             @PathVariable String airportId,
             @RequestParam(defaultValue = "0.0") Double closestBy) {
 
-        return airportStationService.getClosestStations(airportId, closestBy);
+        return airportStationService.streamClosestStations(airportId, closestBy);
+    }
+
+    /**
+     * Page through the weather stations around the specified airport. Pass the returned
+     * {@code nextCursor} back as {@code cursor} to get the next page; it is null on the last one.
+     */
+    @GetMapping(value = "/airports/{airportId}/stations", params = "limit")
+    public Mono<LocationPage<Station>> getClosestStationsPage(
+            @PathVariable String airportId,
+            @RequestParam(defaultValue = "0.0") Double closestBy,
+            @RequestParam int limit,
+            @RequestParam(required = false) String cursor) {
+
+        return airportStationService.getClosestStationsPage(airportId, closestBy, parseCursor(cursor), checkLimit(limit));
     }
 
     /**
      * Find all airports within a bounding box around the specified weather station.
+     * Served like {@link #getClosestStations}.
      */
     @GetMapping("/stations/{stationId}/airports")
-    public Mono<List<Airport>> getClosestAirports(
+    public Mono<ResponseEntity<byte[]>> getClosestAirports(
+            @PathVariable String stationId,
+            @RequestParam(defaultValue = "0.0") Double closestBy,
+            @RequestParam(required = false) String fields,
+            ServerWebExchange exchange) {
+
+        Projection projection = parseFields(fields, Airport.FIELDS);
+        hotKeyRecorder.record("airports", stationId, closestBy);
+        return encodedResponseCache.respond(exchange, resultKey("airports/" + stationId + "/" + closestBy, projection),
+                Airport.class, !projection.isAll(),
+                () -> airportStationService.getClosestAirports(stationId, closestBy, projection));
+    }
+
+    /**
+     * Stream the airports around the specified weather station as NDJSON or server-sent events,
+     * writing each one as soon as it is read. Selected by the Accept header.
+     */
+    @GetMapping(value = "/stations/{stationId}/airports",
+            produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<Airport> streamClosestAirports(
             @PathVariable String stationId,
             @RequestParam(defaultValue = "0.0") Double closestBy) {
 
-        return airportStationService.getClosestAirports(stationId, closestBy);
+        return airportStationService.streamClosestAirports(stationId, closestBy);
+    }
+
+    /**
+     * Page through the airports around the specified weather station; see {@link #getClosestStationsPage}.
+     */
+    @GetMapping(value = "/stations/{stationId}/airports", params = "limit")
+    public Mono<LocationPage<Airport>> getClosestAirportsPage(
+            @PathVariable String stationId,
+            @RequestParam(defaultValue = "0.0") Double closestBy,
+            @RequestParam int limit,
+            @RequestParam(required = false) String cursor) {
+
+        return airportStationService.getClosestAirportsPage(stationId, closestBy, parseCursor(cursor), checkLimit(limit));
+    }
+
+    /**
+     * Find the weather stations around many airports in one request, keyed by airport ID.
+     */
+    @PostMapping("/airports/stations/batch")
+    public Mono<Map<String, List<Station>>> getClosestStationsBatch(@Valid @RequestBody BatchLookupRequest request) {
+        double closestBy = request.getClosestBy() != null ? request.getClosestBy() : 0.0;
+        request.getIds().forEach(id -> hotKeyRecorder.record("stations", id, closestBy));
+        return airportStationService.getClosestStationsBatch(request.getIds(), closestBy);
+    }
+
+    /**
+     * Find the airports around many weather stations in one request, keyed by station ID.
+     */
+    @PostMapping("/stations/airports/batch")
+    public Mono<Map<String, List<Airport>>> getClosestAirportsBatch(@Valid @RequestBody BatchLookupRequest request) {
+        double closestBy = request.getClosestBy() != null ? request.getClosestBy() : 0.0;
+        request.getIds().forEach(id -> hotKeyRecorder.record("airports", id, closestBy));
+        return airportStationService.getClosestAirportsBatch(request.getIds(), closestBy);
+    }
+
+    /**
+     * Find the weather stations within {@code widthKm} of the great-circle route from one airport to
+     * another, or through a list of waypoint airports, in the order they are passed along the route.
+     * Served like {@link #getClosestStations}.
+     */
+    @GetMapping("/routes/stations")
+    public Mono<ResponseEntity<byte[]>> getStationsAlongRoute(
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to,
+            @RequestParam(required = false) List<String> waypoints,
+            @RequestParam double widthKm,
+            ServerWebExchange exchange) {
+
+        List<String> route = routeWaypoints(from, to, waypoints);
+        checkWidth(widthKm);
+        return encodedResponseCache.respond(exchange, "routes/stations/" + String.join(",", route) + "/" + widthKm,
+                Station.class, () -> airportStationService.getStationsAlongRoute(route, widthKm));
+    }
+
+    /**
+     * Find the airports within {@code widthKm} of a great-circle route; see {@link #getStationsAlongRoute}.
+     */
+    @GetMapping("/routes/airports")
+    public Mono<ResponseEntity<byte[]>> getAirportsAlongRoute(
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to,
+            @RequestParam(required = false) List<String> waypoints,
+            @RequestParam double widthKm,
+            ServerWebExchange exchange) {
+
+        List<String> route = routeWaypoints(from, to, waypoints);
+        checkWidth(widthKm);
+        return encodedResponseCache.respond(exchange, "routes/airports/" + String.join(",", route) + "/" + widthKm,
+                Airport.class, () -> airportStationService.getAirportsAlongRoute(route, widthKm));
+    }
+
+    /**
+     * Airports of Web Mercator tile z/x/y: the airports themselves when the tile holds few enough,
+     * clusters with counts otherwise. Served like {@link #getClosestStations}, per dataset version.
+     * Points carry only the id, name and coordinates, so the properties left null are omitted.
+     */
+    @GetMapping("/tiles/{z}/{x}/{y}")
+    public Mono<ResponseEntity<byte[]>> getTile(
+            @PathVariable int z,
+            @PathVariable int x,
+            @PathVariable int y,
+            ServerWebExchange exchange) {
+
+        if (!tileService.isTile(z, x, y)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "No tile " + z + "/" + x + "/" + y);
+        }
+        return encodedResponseCache.respondValue(exchange, "tiles/" + z + "/" + x + "/" + y, MapTile.class, true,
+                () -> tileService.getTile(z, x, y));
+    }
+
+    private static int checkLimit(int limit) {
+        if (limit < 1 || limit > LocationPage.MAX_LIMIT) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "limit must be between 1 and " + LocationPage.MAX_LIMIT);
+        }
+        return limit;
+    }
+
+    /**
+     * The route's airport IDs, given either as {@code from} and {@code to} or as {@code waypoints}.
+     */
+    private static List<String> routeWaypoints(String from, String to, List<String> waypoints) {
+        if (waypoints != null && !waypoints.isEmpty()) {
+            if (from != null || to != null) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Give either from and to, or waypoints");
+            }
+            if (waypoints.size() < 2 || waypoints.size() > Route.MAX_WAYPOINTS) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "waypoints must list between 2 and " + Route.MAX_WAYPOINTS + " airports");
+            }
+            return List.copyOf(waypoints);
+        }
+        if (from == null || from.isEmpty() || to == null || to.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Give either from and to, or waypoints");
+        }
+        return List.of(from, to);
+    }
+
+    private static void checkWidth(double widthKm) {
+        if (!(widthKm > 0 && widthKm <= Route.MAX_WIDTH_KM)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "widthKm must be greater than 0 and at most " + Route.MAX_WIDTH_KM);
+        }
+    }
+
+    private static Projection parseFields(String fields, List<String> properties) {
+        try {
+            return Projection.parse(fields, properties);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    private static String resultKey(String lookup, Projection projection) {
+        return projection.isAll() ? lookup : lookup + "?fields=" + projection;
+    }
+
+    private static SpatialCursor parseCursor(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            return SpatialCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
     }
-}
\ No newline at end of file
+}
@@ -5,11 +5,27 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.Immutable;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
+import org.hibernate.annotations.Subselect;
+import org.hibernate.annotations.Synchronize;
 
 import java.time.LocalDateTime;
 
+/**
+ * Read-only airport view over the shared {@code location} table.
+ * Cached in the second-level cache by primary key and by ICAO code (natural ID).
+ */
 @Entity
-@Table(name = "airport_cache")
+@Immutable
+@Subselect("SELECT l.id, l.location_id AS airport_id, l.name, l.state, l.country, " +
+        "l.latitude, l.longitude, l.elevation, l.cell_id, l.updated_at AS cached_at FROM location l")
+@Synchronize("location")
+@Cache(usage = CacheConcurrencyStrategy.READ_ONLY)
+@NaturalIdCache
 @Data
 @Builder
 @NoArgsConstructor
@@ -17,9 +33,9 @@ import java.time.LocalDateTime;
 public class AirportCacheEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    @NaturalId
     @Column(nullable = false, unique = true)
     private String airportId;
 
@@ -29,12 +45,8 @@ public class AirportCacheEntity {
     private Double latitude;
     private Double longitude;
     private Double elevation;
+    private Long cellId;
 
     @Column(nullable = false)
     private LocalDateTime cachedAt;
-
-    @PrePersist
-    protected void onCreate() {
-        cachedAt = LocalDateTime.now();
-    }
 }
@@ -0,0 +1,62 @@
+package com.fabrick.entity;
+
+import com.fabrick.geo.GeoCell;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Single stored row per ICAO location. Airports and weather stations are read
+ * through the {@link AirportCacheEntity} and {@link StationCacheEntity} views.
+ */
+@Entity
+@Table(name = "location", indexes = {
+        // (cell, id) order: range scans and keyset pages read the index in order without sorting
+        @Index(name = "idx_location_cell_id", columnList = "cell_id, id")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LocationEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, unique = true)
+    private String locationId;
+
+    private String name;
+    private String state;
+    private String country;
+    private Double latitude;
+    private Double longitude;
+    private Double elevation;
+
+    /**
+     * Z-order key of the coordinates, kept in sync on every write; see {@link GeoCell}.
+     */
+    @Column(nullable = false)
+    private Long cellId;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        if (updatedAt == null) {
+            updatedAt = LocalDateTime.now();
+        }
+        onUpdate();
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        cellId = GeoCell.cellId(latitude, longitude);
+    }
+}
@@ -5,11 +5,29 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.Immutable;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
+import org.hibernate.annotations.Subselect;
+import org.hibernate.annotations.Synchronize;
 
 import java.time.LocalDateTime;
 
+/**
+ * Read-only weather station view over the shared {@code location} table.
+ * Elevation is truncated to whole feet, as stations report it.
+ * Cached in the second-level cache by primary key and by ICAO code (natural ID).
+ */
 @Entity
-@Table(name = "station_cache")
+@Immutable
+@Subselect("SELECT l.id, l.location_id AS station_id, l.name AS site, l.state, l.country, " +
+        "l.latitude, l.longitude, CAST(TRUNC(l.elevation) AS INTEGER) AS elevation, " +
+        "l.cell_id, l.updated_at AS cached_at FROM location l")
+@Synchronize("location")
+@Cache(usage = CacheConcurrencyStrategy.READ_ONLY)
+@NaturalIdCache
 @Data
 @Builder
 @NoArgsConstructor
@@ -17,9 +35,9 @@ import java.time.LocalDateTime;
 public class StationCacheEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    @NaturalId
     @Column(nullable = false, unique = true)
     private String stationId;
 
@@ -29,12 +47,8 @@ public class StationCacheEntity {
     private Double latitude;
     private Double longitude;
     private Integer elevation;
+    private Long cellId;
 
     @Column(nullable = false)
     private LocalDateTime cachedAt;
-
-    @PrePersist
-    protected void onCreate() {
-        cachedAt = LocalDateTime.now();
-    }
 }
@@ -0,0 +1,44 @@
+package com.fabrick.geo;
+
+import lombok.Value;
+
+import java.util.Collection;
+
+/**
+ * Inclusive latitude/longitude box.
+ */
+@Value
+public class BoundingBox {
+    double minLat;
+    double maxLat;
+    double minLon;
+    double maxLon;
+
+    /**
+     * Box extending {@code radius} degrees on every side of the point.
+     */
+    public static BoundingBox around(double latitude, double longitude, double radius) {
+        return new BoundingBox(latitude - radius, latitude + radius, longitude - radius, longitude + radius);
+    }
+
+    /**
+     * Smallest box enclosing all the given boxes, which must not be empty.
+     */
+    public static BoundingBox envelope(Collection<BoundingBox> boxes) {
+        double minLat = Double.POSITIVE_INFINITY;
+        double maxLat = Double.NEGATIVE_INFINITY;
+        double minLon = Double.POSITIVE_INFINITY;
+        double maxLon = Double.NEGATIVE_INFINITY;
+        for (BoundingBox box : boxes) {
+            minLat = Math.min(minLat, box.minLat);
+            maxLat = Math.max(maxLat, box.maxLat);
+            minLon = Math.min(minLon, box.minLon);
+            maxLon = Math.max(maxLon, box.maxLon);
+        }
+        return new BoundingBox(minLat, maxLat, minLon, maxLon);
+    }
+
+    public boolean contains(double latitude, double longitude) {
+        return latitude >= minLat && latitude <= maxLat && longitude >= minLon && longitude <= maxLon;
+    }
+}
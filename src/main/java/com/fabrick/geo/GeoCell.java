@@ -0,0 +1,218 @@
+package com.fabrick.geo;
+
+import lombok.Value;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Z-order (Morton) cell keys for latitude/longitude.
+ * Each axis is quantised to {@value #BITS} bits and the bits are interleaved, so nearby points
+ * share key prefixes and every quadtree cell maps to one contiguous key range. A bounding box is
+ * answered by scanning a handful of key ranges on an index and filtering the rows exactly.
+ */
+public final class GeoCell {
+
+    public static final int BITS = 16;
+
+    /**
+     * Upper bound on the number of cells used to cover a box; adjacent cells are merged afterwards.
+     */
+    static final int MAX_COVER_CELLS = 16;
+
+    /**
+     * Upper bound on the number of key ranges scanned for a batch of boxes.
+     */
+    public static final int MAX_BATCH_RANGES = 64;
+
+    private static final int MAX_INDEX = (1 << BITS) - 1;
+
+    private GeoCell() {
+    }
+
+    /**
+     * Cell key of a point at full resolution.
+     */
+    public static long cellId(double latitude, double longitude) {
+        return interleave(quantizeLongitude(longitude), quantizeLatitude(latitude));
+    }
+
+    /**
+     * Cover the box with at most {@link #MAX_COVER_CELLS} quadtree cells, using the finest level
+     * that fits, and return the merged key ranges in ascending order.
+     * Boxes extending beyond the valid coordinate range are clamped.
+     */
+    public static List<CellRange> cover(double minLat, double maxLat, double minLon, double maxLon) {
+        if (minLat > maxLat || minLon > maxLon) {
+            return List.of();
+        }
+
+        int x0 = quantizeLongitude(minLon);
+        int x1 = quantizeLongitude(maxLon);
+        int y0 = quantizeLatitude(minLat);
+        int y1 = quantizeLatitude(maxLat);
+
+        // Finest level whose cells cover the box within budget
+        int shift = 0;
+        while (shift < BITS && cellCount(x0, x1, y0, y1, shift) > MAX_COVER_CELLS) {
+            shift++;
+        }
+
+        List<CellRange> ranges = new ArrayList<>();
+        for (int cy = y0 >> shift; cy <= y1 >> shift; cy++) {
+            for (int cx = x0 >> shift; cx <= x1 >> shift; cx++) {
+                long prefix = interleave(cx, cy);
+                long from = prefix << (2 * shift);
+                long to = ((prefix + 1) << (2 * shift)) - 1;
+                ranges.add(new CellRange(from, to));
+            }
+        }
+
+        ranges.sort((a, b) -> Long.compare(a.getFrom(), b.getFrom()));
+
+        List<CellRange> merged = new ArrayList<>();
+        CellRange current = null;
+        for (CellRange range : ranges) {
+            if (current != null && range.getFrom() == current.getTo() + 1) {
+                current = new CellRange(current.getFrom(), range.getTo());
+            } else {
+                if (current != null) {
+                    merged.add(current);
+                }
+                current = range;
+            }
+        }
+        merged.add(current);
+
+        return merged;
+    }
+
+    /**
+     * Cover many boxes at once: the union of their covers, with overlapping ranges merged and
+     * the smallest gaps bridged until at most {@code maxRanges} remain. Bridging trades a few
+     * extra candidate rows for far fewer index scans; callers filter candidates exactly.
+     * Each range carries the envelope of only the boxes it was built from, so a range never
+     * admits rows near some other, unrelated box of the batch.
+     */
+    public static List<BatchRange> coverBatch(Collection<BoundingBox> boxes, int maxRanges) {
+        List<BatchRange> ranges = new ArrayList<>();
+        for (BoundingBox box : boxes) {
+            for (CellRange range : cover(box.getMinLat(), box.getMaxLat(), box.getMinLon(), box.getMaxLon())) {
+                ranges.add(new BatchRange(range.getFrom(), range.getTo(), box));
+            }
+        }
+        if (ranges.isEmpty()) {
+            return ranges;
+        }
+
+        ranges.sort((a, b) -> Long.compare(a.getFrom(), b.getFrom()));
+
+        List<BatchRange> merged = new ArrayList<>();
+        BatchRange current = ranges.get(0);
+        for (BatchRange range : ranges.subList(1, ranges.size())) {
+            if (range.getFrom() <= current.getTo() + 1) {
+                current = current.join(range);
+            } else {
+                merged.add(current);
+                current = range;
+            }
+        }
+        merged.add(current);
+
+        if (merged.size() <= maxRanges) {
+            return merged;
+        }
+
+        // Bridge the (size - maxRanges) smallest gaps
+        long[] gaps = new long[merged.size() - 1];
+        for (int i = 0; i < gaps.length; i++) {
+            gaps[i] = merged.get(i + 1).getFrom() - merged.get(i).getTo();
+        }
+        long[] sortedGaps = gaps.clone();
+        Arrays.sort(sortedGaps);
+        int toBridge = merged.size() - Math.max(1, maxRanges);
+        long threshold = sortedGaps[toBridge - 1];
+        int belowThreshold = 0;
+        for (long gap : gaps) {
+            if (gap < threshold) {
+                belowThreshold++;
+            }
+        }
+        int tiesToBridge = toBridge - belowThreshold;
+
+        List<BatchRange> bridged = new ArrayList<>();
+        current = merged.get(0);
+        for (int i = 0; i < gaps.length; i++) {
+            boolean bridge = gaps[i] < threshold || (gaps[i] == threshold && tiesToBridge-- > 0);
+            BatchRange next = merged.get(i + 1);
+            if (bridge) {
+                current = current.join(next);
+            } else {
+                bridged.add(current);
+                current = next;
+            }
+        }
+        bridged.add(current);
+        return bridged;
+    }
+
+    private static long cellCount(int x0, int x1, int y0, int y1, int shift) {
+        return (long) ((x1 >> shift) - (x0 >> shift) + 1) * ((y1 >> shift) - (y0 >> shift) + 1);
+    }
+
+    static int quantizeLatitude(double latitude) {
+        return quantize((latitude + 90.0) / 180.0);
+    }
+
+    static int quantizeLongitude(double longitude) {
+        return quantize((longitude + 180.0) / 360.0);
+    }
+
+    private static int quantize(double fraction) {
+        int index = (int) Math.floor(fraction * (MAX_INDEX + 1));
+        return Math.max(0, Math.min(MAX_INDEX, index));
+    }
+
+    /**
+     * Interleave x into the even bits and y into the odd bits.
+     */
+    static long interleave(int x, int y) {
+        return spread(x) | (spread(y) << 1);
+    }
+
+    private static long spread(int value) {
+        long v = value & 0xFFFFFFFFL;
+        v = (v | (v << 16)) & 0x0000FFFF0000FFFFL;
+        v = (v | (v << 8)) & 0x00FF00FF00FF00FFL;
+        v = (v | (v << 4)) & 0x0F0F0F0F0F0F0F0FL;
+        v = (v | (v << 2)) & 0x3333333333333333L;
+        v = (v | (v << 1)) & 0x5555555555555555L;
+        return v;
+    }
+
+    /**
+     * Inclusive range of cell keys.
+     */
+    @Value
+    public static class CellRange {
+        long from;
+        long to;
+    }
+
+    /**
+     * Inclusive range of cell keys scanned for a batch, with the envelope of the boxes it covers.
+     */
+    @Value
+    public static class BatchRange {
+        long from;
+        long to;
+        BoundingBox envelope;
+
+        BatchRange join(BatchRange other) {
+            return new BatchRange(Math.min(from, other.from), Math.max(to, other.to),
+                    BoundingBox.envelope(List.of(envelope, other.envelope)));
+        }
+    }
+}
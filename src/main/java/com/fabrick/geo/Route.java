@@ -0,0 +1,236 @@
+package com.fabrick.geo;
+
+import lombok.Value;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Great-circle route through two or more waypoints, for corridor searches: the boxes to query along it
+ * and where a location lies relative to it. Points are handled as unit vectors, so legs crossing the
+ * antimeridian or passing near a pole need no special cases; only the boxes, which are in degrees, do.
+ */
+public final class Route {
+
+    public static final double EARTH_RADIUS_KM = 6371.0088;
+
+    /**
+     * Most waypoints a route may have.
+     */
+    public static final int MAX_WAYPOINTS = 25;
+
+    /**
+     * Widest corridor that can be searched, in km on either side of the route.
+     */
+    public static final double MAX_WIDTH_KM = 500.0;
+
+    private static final double KM_PER_DEGREE = Math.PI * EARTH_RADIUS_KM / 180.0;
+
+    /**
+     * Spacing of the points sampled along a segment to bound it; the arc between two of them strays
+     * from their box by well under a metre.
+     */
+    private static final double SAMPLE_KM = 10.0;
+
+    private final double[][] points;
+    private final double[] legStartKm;
+    private final double lengthKm;
+
+    private Route(double[][] points) {
+        this.points = points;
+        this.legStartKm = new double[points.length];
+        double length = 0;
+        for (int i = 1; i < points.length; i++) {
+            legStartKm[i] = length += angle(points[i - 1], points[i]) * EARTH_RADIUS_KM;
+        }
+        this.lengthKm = length;
+    }
+
+    /**
+     * Route through the waypoints, in order; there must be at least two.
+     */
+    public static <T> Route through(List<T> waypoints, ToDoubleFunction<T> latitude, ToDoubleFunction<T> longitude) {
+        if (waypoints.size() < 2) {
+            throw new IllegalArgumentException("A route needs at least two waypoints");
+        }
+        double[][] points = new double[waypoints.size()][];
+        for (int i = 0; i < points.length; i++) {
+            points[i] = vector(latitude.applyAsDouble(waypoints.get(i)), longitude.applyAsDouble(waypoints.get(i)));
+        }
+        return new Route(points);
+    }
+
+    public double getLengthKm() {
+        return lengthKm;
+    }
+
+    /**
+     * Boxes covering everything within {@code widthKm} of the route: each leg is cut into segments of at
+     * most {@code segmentKm} and each segment is bounded on its own, so the boxes follow the route instead
+     * of enclosing it. A segment crossing the antimeridian gets one box on each side.
+     */
+    public List<BoundingBox> corridor(double widthKm, double segmentKm) {
+        List<BoundingBox> boxes = new ArrayList<>();
+        for (int leg = 1; leg < points.length; leg++) {
+            double[] from = points[leg - 1];
+            double[] to = points[leg];
+            double legKm = legStartKm[leg] - legStartKm[leg - 1];
+            int segments = Math.max(1, (int) Math.ceil(legKm / segmentKm));
+            for (int segment = 0; segment < segments; segment++) {
+                bound(from, to, (double) segment / segments, (double) (segment + 1) / segments,
+                        legKm / segments, widthKm, boxes);
+            }
+        }
+        return boxes;
+    }
+
+    /**
+     * Where a point lies relative to the route: how far along it the closest point of the route is,
+     * and how far away that point is.
+     */
+    public Position locate(double latitude, double longitude) {
+        double[] p = vector(latitude, longitude);
+        Position best = null;
+        for (int leg = 1; leg < points.length; leg++) {
+            Position position = locate(p, points[leg - 1], points[leg], legStartKm[leg - 1]);
+            if (best == null || position.getDistanceKm() < best.getDistanceKm()) {
+                best = position;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Position of p against the leg a → b, which starts {@code startKm} along the route.
+     */
+    private static Position locate(double[] p, double[] a, double[] b, double startKm) {
+        double legAngle = angle(a, b);
+        double[] normal = cross(a, b);
+        double normalLength = norm(normal);
+        if (normalLength < 1e-12) {
+            // Repeated (or antipodal) waypoints: measure from the leg start
+            return new Position(startKm, angle(p, a) * EARTH_RADIUS_KM);
+        }
+        scale(normal, 1 / normalLength);
+
+        // Foot of p on the leg's great circle, then its angle from a in the direction of b
+        double offset = dot(p, normal);
+        double[] foot = {p[0] - offset * normal[0], p[1] - offset * normal[1], p[2] - offset * normal[2]};
+        double along = Math.atan2(dot(cross(a, foot), normal), dot(a, foot));
+        if (along < 0) {
+            return new Position(startKm, angle(p, a) * EARTH_RADIUS_KM);
+        }
+        if (along > legAngle) {
+            return new Position(startKm + legAngle * EARTH_RADIUS_KM, angle(p, b) * EARTH_RADIUS_KM);
+        }
+        return new Position(startKm + along * EARTH_RADIUS_KM,
+                Math.abs(Math.asin(Math.max(-1, Math.min(1, offset)))) * EARTH_RADIUS_KM);
+    }
+
+    /**
+     * Add the box(es) within {@code widthKm} of the stretch of a → b between two fractions of the leg.
+     */
+    private static void bound(double[] a, double[] b, double fromFraction, double toFraction,
+                              double segmentKm, double widthKm, List<BoundingBox> boxes) {
+        int samples = Math.max(2, (int) Math.ceil(segmentKm / SAMPLE_KM) + 1);
+        double minLat = Double.POSITIVE_INFINITY;
+        double maxLat = Double.NEGATIVE_INFINITY;
+        double minLon = Double.POSITIVE_INFINITY;
+        double maxLon = Double.NEGATIVE_INFINITY;
+        double previousLon = Double.NaN;
+        for (int i = 0; i < samples; i++) {
+            double[] point = interpolate(a, b, fromFraction + (toFraction - fromFraction) * i / (samples - 1));
+            double lat = Math.toDegrees(Math.asin(Math.max(-1, Math.min(1, point[2]))));
+            double lon = Math.toDegrees(Math.atan2(point[1], point[0]));
+            // Unwrapped, so a segment crossing the antimeridian has a contiguous range past ±180
+            if (!Double.isNaN(previousLon)) {
+                lon += 360 * Math.round((previousLon - lon) / 360);
+            }
+            previousLon = lon;
+            minLat = Math.min(minLat, lat);
+            maxLat = Math.max(maxLat, lat);
+            minLon = Math.min(minLon, lon);
+            maxLon = Math.max(maxLon, lon);
+        }
+
+        double latMargin = widthKm / KM_PER_DEGREE;
+        minLat = Math.max(-90, minLat - latMargin);
+        maxLat = Math.min(90, maxLat + latMargin);
+        double cosine = Math.cos(Math.toRadians(Math.max(Math.abs(minLat), Math.abs(maxLat))));
+        double lonMargin = cosine > 1e-9 ? widthKm / (KM_PER_DEGREE * cosine) : 360;
+        minLon -= lonMargin;
+        maxLon += lonMargin;
+
+        if (maxLon - minLon >= 360) {
+            boxes.add(new BoundingBox(minLat, maxLat, -180, 180));
+            return;
+        }
+        double shift = 360 * Math.floor((minLon + 180) / 360);
+        minLon -= shift;
+        maxLon -= shift;
+        if (maxLon <= 180) {
+            boxes.add(new BoundingBox(minLat, maxLat, minLon, maxLon));
+        } else {
+            boxes.add(new BoundingBox(minLat, maxLat, minLon, 180));
+            boxes.add(new BoundingBox(minLat, maxLat, -180, maxLon - 360));
+        }
+    }
+
+    /**
+     * Point a given fraction of the way along the great circle from a to b.
+     */
+    private static double[] interpolate(double[] a, double[] b, double fraction) {
+        double angle = angle(a, b);
+        if (angle < 1e-12) {
+            return a;
+        }
+        double sin = Math.sin(angle);
+        double wa = Math.sin((1 - fraction) * angle) / sin;
+        double wb = Math.sin(fraction * angle) / sin;
+        return new double[]{wa * a[0] + wb * b[0], wa * a[1] + wb * b[1], wa * a[2] + wb * b[2]};
+    }
+
+    private static double[] vector(double latitude, double longitude) {
+        double lat = Math.toRadians(latitude);
+        double lon = Math.toRadians(longitude);
+        return new double[]{Math.cos(lat) * Math.cos(lon), Math.cos(lat) * Math.sin(lon), Math.sin(lat)};
+    }
+
+    private static double angle(double[] a, double[] b) {
+        return Math.atan2(norm(cross(a, b)), dot(a, b));
+    }
+
+    private static double[] cross(double[] a, double[] b) {
+        return new double[]{a[1] * b[2] - a[2] * b[1], a[2] * b[0] - a[0] * b[2], a[0] * b[1] - a[1] * b[0]};
+    }
+
+    private static double dot(double[] a, double[] b) {
+        return a[0] * b[0] + a[1] * b[1] + a[2] * b[2];
+    }
+
+    private static double norm(double[] v) {
+        return Math.sqrt(dot(v, v));
+    }
+
+    private static void scale(double[] v, double factor) {
+        v[0] *= factor;
+        v[1] *= factor;
+        v[2] *= factor;
+    }
+
+    /**
+     * Location of a point relative to the route.
+     */
+    @Value
+    public static class Position {
+        /**
+         * Distance from the first waypoint to the closest point of the route, measured along the route.
+         */
+        double alongTrackKm;
+        /**
+         * Distance from the point to the closest point of the route.
+         */
+        double distanceKm;
+    }
+}
@@ -0,0 +1,53 @@
+package com.fabrick.geo;
+
+import com.fabrick.geo.GeoCell.CellRange;
+import lombok.Value;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position in (cell, id) order, the order in which bounding-box results are paged.
+ * Clients only see it as an opaque token.
+ */
+@Value
+public class SpatialCursor {
+
+    private static final String PREFIX = "c1:";
+
+    long cellId;
+    long id;
+
+    /**
+     * Where to start reading the given cell range: right after this position if it falls
+     * inside the range, before its first row if the range lies entirely after it,
+     * or null if the range lies entirely before it.
+     */
+    public static SpatialCursor startOf(CellRange range, SpatialCursor after) {
+        if (after == null || after.cellId < range.getFrom()) {
+            return new SpatialCursor(range.getFrom() - 1, 0L);
+        }
+        return after.cellId <= range.getTo() ? after : null;
+    }
+
+    public String encode() {
+        String raw = PREFIX + cellId + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException if the token was not produced by {@link #encode()}
+     */
+    public static SpatialCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            if (!raw.startsWith(PREFIX)) {
+                throw new IllegalArgumentException("Unknown cursor format");
+            }
+            String[] parts = raw.substring(PREFIX.length()).split(":");
+            return new SpatialCursor(Long.parseLong(parts[0]), Long.parseLong(parts[1]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + token, e);
+        }
+    }
+}
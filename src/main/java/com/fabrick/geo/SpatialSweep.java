@@ -0,0 +1,59 @@
+package com.fabrick.geo;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Distributes one candidate set over many bounding boxes.
+ * Candidates are sorted by latitude once; each box then binary-searches its latitude band
+ * and checks longitude only for the rows inside it.
+ */
+public final class SpatialSweep {
+
+    private SpatialSweep() {
+    }
+
+    /**
+     * @return for each box, in the same order, the items that fall inside it
+     */
+    public static <T> List<List<T>> assign(List<BoundingBox> boxes, List<T> items,
+                                           ToDoubleFunction<T> latitude, ToDoubleFunction<T> longitude) {
+        List<T> sorted = new ArrayList<>(items);
+        sorted.sort(Comparator.comparingDouble(latitude));
+
+        double[] latitudes = new double[sorted.size()];
+        for (int i = 0; i < latitudes.length; i++) {
+            latitudes[i] = latitude.applyAsDouble(sorted.get(i));
+        }
+
+        List<List<T>> result = new ArrayList<>(boxes.size());
+        for (BoundingBox box : boxes) {
+            List<T> inside = new ArrayList<>();
+            for (int i = firstAtOrAbove(latitudes, box.getMinLat());
+                 i < latitudes.length && latitudes[i] <= box.getMaxLat(); i++) {
+                T item = sorted.get(i);
+                if (box.contains(latitudes[i], longitude.applyAsDouble(item))) {
+                    inside.add(item);
+                }
+            }
+            result.add(inside);
+        }
+        return result;
+    }
+
+    private static int firstAtOrAbove(double[] values, double key) {
+        int low = 0;
+        int high = values.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (values[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
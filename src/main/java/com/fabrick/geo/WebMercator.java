@@ -0,0 +1,64 @@
+package com.fabrick.geo;
+
+/**
+ * Web Mercator ("slippy map") tiles, as map UIs request them: zoom {@code z} splits the world into
+ * 2^z × 2^z tiles, x growing east from the antimeridian and y growing south from
+ * {@value #MAX_LATITUDE}°. Tiles are keyed in Z-order like {@link GeoCell}, so a tile and every
+ * cell inside it at a deeper zoom form one contiguous key range.
+ */
+public final class WebMercator {
+
+    /**
+     * Deepest zoom keys are computed at; each axis of a key takes this many bits.
+     */
+    public static final int MAX_LEVEL = 30;
+
+    /**
+     * Latitude at which the projection becomes square; points beyond it fall in the edge tiles.
+     */
+    public static final double MAX_LATITUDE = 85.05112878;
+
+    private WebMercator() {
+    }
+
+    public static boolean isTile(int z, int x, int y) {
+        return z >= 0 && z <= MAX_LEVEL && x >= 0 && y >= 0 && x < (1L << z) && y < (1L << z);
+    }
+
+    /**
+     * Key of the tile at zoom {@code z} containing the point.
+     */
+    public static long key(double latitude, double longitude, int z) {
+        return key(tileX(longitude, z), tileY(latitude, z));
+    }
+
+    /**
+     * Key of tile x/y; the key of a tile at zoom z + k is the key of its ancestor at z shifted left by 2k.
+     */
+    public static long key(int x, int y) {
+        return GeoCell.interleave(x, y);
+    }
+
+    /**
+     * Column of the tile at zoom {@code z} containing the longitude.
+     */
+    public static int tileX(double longitude, int z) {
+        return clamp((longitude + 180.0) / 360.0, z);
+    }
+
+    /**
+     * Row of the tile at zoom {@code z} containing the latitude.
+     */
+    public static int tileY(double latitude, int z) {
+        double clamped = Math.max(-MAX_LATITUDE, Math.min(MAX_LATITUDE, latitude));
+        double radians = Math.toRadians(clamped);
+        double y = (1.0 - Math.log(Math.tan(radians) + 1.0 / Math.cos(radians)) / Math.PI) / 2.0;
+        return clamp(y, z);
+    }
+
+    private static int clamp(double fraction, int z) {
+        long tiles = 1L << z;
+        long index = (long) Math.floor(fraction * tiles);
+        return (int) Math.max(0, Math.min(tiles - 1, index));
+    }
+}
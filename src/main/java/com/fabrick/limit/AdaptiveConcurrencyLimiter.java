@@ -0,0 +1,78 @@
+package com.fabrick.limit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Admits requests while fewer than the adaptive limit are in flight.
+ * Publishes {@code fabrick.concurrency.limit}, {@code fabrick.concurrency.in.flight} and
+ * {@code fabrick.concurrency.rejected}, tagged with the endpoint name.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    @Getter
+    private final String name;
+
+    private final GradientLimit limit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Counter rejected;
+
+    public AdaptiveConcurrencyLimiter(String name, GradientLimit limit, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.limit = limit;
+
+        Gauge.builder("fabrick.concurrency.limit", limit, GradientLimit::getLimit)
+                .description("Current adaptive concurrency limit")
+                .tag("endpoint", name)
+                .register(meterRegistry);
+        Gauge.builder("fabrick.concurrency.in.flight", inFlight, AtomicInteger::get)
+                .description("Requests currently admitted")
+                .tag("endpoint", name)
+                .register(meterRegistry);
+        this.rejected = Counter.builder("fabrick.concurrency.rejected")
+                .description("Requests shed because the concurrency limit was reached")
+                .tag("endpoint", name)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Try to admit a request.
+     *
+     * @return the number of requests in flight including this one, or -1 if it was rejected
+     */
+    public int tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit.getLimit()) {
+                rejected.increment();
+                return -1;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return current + 1;
+            }
+        }
+    }
+
+    /**
+     * Release an admitted request and feed its latency back into the limit.
+     * Cancelled requests release their slot without a sample, since their latency is unknown.
+     */
+    public void release(long rttNanos, int inFlightAtStart, boolean sample) {
+        inFlight.decrementAndGet();
+        if (sample) {
+            limit.onSample(rttNanos, inFlightAtStart);
+        }
+    }
+
+    public int getLimit() {
+        return limit.getLimit();
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
@@ -0,0 +1,75 @@
+package com.fabrick.limit;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import org.springframework.web.util.pattern.PathPattern;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Sheds load per endpoint once its adaptive concurrency limit is reached.
+ * Rejected requests get 503 with a {@code Retry-After} header straight away, so admitted
+ * requests keep their latency instead of everyone queueing behind an overloaded backend.
+ * Requests matching no configured pattern pass through untouched.
+ * Streamed responses (server-sent events, NDJSON) hold a slot while they run but feed no latency back:
+ * they last as long as the client keeps reading, which says nothing about the endpoint's capacity.
+ */
+@Slf4j
+public class ConcurrencyLimitWebFilter implements WebFilter {
+
+    private final Map<PathPattern, AdaptiveConcurrencyLimiter> limiters;
+    private final String retryAfterSeconds;
+
+    public ConcurrencyLimitWebFilter(Map<PathPattern, AdaptiveConcurrencyLimiter> limiters, Duration retryAfter) {
+        this.limiters = limiters;
+        this.retryAfterSeconds = String.valueOf(Math.max(1, retryAfter.toSeconds()));
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        AdaptiveConcurrencyLimiter limiter = limiterFor(exchange.getRequest().getPath().pathWithinApplication());
+        if (limiter == null) {
+            return chain.filter(exchange);
+        }
+
+        int inFlight = limiter.tryAcquire();
+        if (inFlight < 0) {
+            log.debug("Shedding {} {}: limit {} reached for {}", exchange.getRequest().getMethod(),
+                    exchange.getRequest().getPath(), limiter.getLimit(), limiter.getName());
+            exchange.getResponse().setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+            exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+            return exchange.getResponse().setComplete();
+        }
+
+        long start = System.nanoTime();
+        return chain.filter(exchange)
+                .doFinally(signal -> {
+                    boolean sample = signal != SignalType.CANCEL
+                            && !isStream(exchange.getResponse().getHeaders().getContentType());
+                    limiter.release(System.nanoTime() - start, inFlight, sample);
+                });
+    }
+
+    private static boolean isStream(MediaType contentType) {
+        return contentType != null && (MediaType.TEXT_EVENT_STREAM.isCompatibleWith(contentType)
+                || MediaType.APPLICATION_NDJSON.isCompatibleWith(contentType));
+    }
+
+    private AdaptiveConcurrencyLimiter limiterFor(PathContainer path) {
+        for (Map.Entry<PathPattern, AdaptiveConcurrencyLimiter> entry : limiters.entrySet()) {
+            if (entry.getKey().matches(path)) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,72 @@
+package com.fabrick.limit;
+
+/**
+ * Gradient-style adaptive concurrency limit.
+ * Compares the latest round-trip time with a slowly moving baseline: while latency stays near
+ * the baseline the limit grows by roughly its square root, and as queueing pushes latency up the
+ * limit shrinks in proportion, down to half per sample. Samples taken while the endpoint is
+ * far below its limit say nothing about capacity and leave it unchanged.
+ */
+public class GradientLimit {
+
+    /**
+     * How much slower than the baseline a request may be before the limit starts shrinking.
+     */
+    private static final double TOLERANCE = 1.5;
+
+    private static final double SMOOTHING = 0.2;
+
+    /**
+     * Number of samples the baseline averages over.
+     */
+    private static final int BASELINE_WINDOW = 600;
+
+    private final int minLimit;
+    private final int maxLimit;
+
+    private double limit;
+    private double baselineRtt;
+
+    public GradientLimit(int initialLimit, int minLimit, int maxLimit) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = initialLimit;
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    /**
+     * Record the round-trip time of a completed request.
+     *
+     * @param rttNanos latency of the request
+     * @param inFlight requests in flight when it started, including itself
+     */
+    public synchronized void onSample(long rttNanos, int inFlight) {
+        if (rttNanos <= 0) {
+            return;
+        }
+
+        if (baselineRtt == 0) {
+            baselineRtt = rttNanos;
+        } else {
+            baselineRtt += (rttNanos - baselineRtt) / BASELINE_WINDOW;
+            // Let the baseline recover quickly after a long period of high latency
+            if (baselineRtt / rttNanos > 2) {
+                baselineRtt *= 0.95;
+            }
+        }
+
+        if (inFlight < limit / 2) {
+            return;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * baselineRtt / rttNanos));
+        double queueSize = Math.sqrt(limit);
+        double target = limit * gradient + queueSize;
+        double smoothed = limit * (1 - SMOOTHING) + target * SMOOTHING;
+
+        limit = Math.max(minLimit, Math.min(maxLimit, smoothed));
+    }
+}
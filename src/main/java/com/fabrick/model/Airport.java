@@ -6,12 +6,19 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.List;
+
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 public class Airport {
 
+    /**
+     * Property names, in declaration order; what {@code fields=} can select.
+     */
+    public static final List<String> FIELDS = List.of("id", "name", "state", "country", "latitude", "longitude", "elevation");
+
     @JsonProperty("id")
     private String id;
 
@@ -32,4 +39,22 @@ public class Airport {
 
     @JsonProperty("elevation")
     private Double elevation;
+
+    /**
+     * Copy with only the projected properties set.
+     */
+    public Airport project(Projection projection) {
+        if (projection.isAll()) {
+            return this;
+        }
+        return Airport.builder()
+                .id(projection.includes("id") ? id : null)
+                .name(projection.includes("name") ? name : null)
+                .state(projection.includes("state") ? state : null)
+                .country(projection.includes("country") ? country : null)
+                .latitude(projection.includes("latitude") ? latitude : null)
+                .longitude(projection.includes("longitude") ? longitude : null)
+                .elevation(projection.includes("elevation") ? elevation : null)
+                .build();
+    }
 }
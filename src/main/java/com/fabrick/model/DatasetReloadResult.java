@@ -0,0 +1,32 @@
+package com.fabrick.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DatasetReloadResult {
+
+    @JsonProperty("version")
+    private long version;
+
+    @JsonProperty("inserted")
+    private int inserted;
+
+    @JsonProperty("updated")
+    private int updated;
+
+    @JsonProperty("deleted")
+    private int deleted;
+
+    @JsonProperty("unchanged")
+    private int unchanged;
+
+    @JsonProperty("durationMillis")
+    private long durationMillis;
+}
@@ -0,0 +1,37 @@
+package com.fabrick.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.Instant;
+
+/**
+ * Immutable description of the airports/stations dataset currently served.
+ * A new instance is swapped in atomically after every reload that changed data,
+ * so readers always observe a consistent version.
+ */
+@Value
+@Builder
+public class DatasetSnapshot {
+
+    @JsonProperty("version")
+    long version;
+
+    @JsonProperty("source")
+    String source;
+
+    @JsonProperty("recordCount")
+    int recordCount;
+
+    @JsonProperty("loadedAt")
+    Instant loadedAt;
+
+    public static DatasetSnapshot empty() {
+        return DatasetSnapshot.builder()
+                .version(0L)
+                .recordCount(0)
+                .loadedAt(Instant.now())
+                .build();
+    }
+}
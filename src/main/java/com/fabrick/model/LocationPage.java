@@ -0,0 +1,43 @@
+package com.fabrick.model;
+
+import com.fabrick.geo.SpatialCursor;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a bounding-box result. {@code nextCursor} is null on the last page.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LocationPage<T> {
+
+    public static final int MAX_LIMIT = 1000;
+
+    @JsonProperty("items")
+    private List<T> items;
+
+    @JsonProperty("nextCursor")
+    private String nextCursor;
+
+    /**
+     * Build a page from up to {@code limit + 1} rows read in cursor order;
+     * the extra row only signals that another page follows.
+     */
+    public static <R, T> LocationPage<T> of(List<R> rows, int limit,
+                                            Function<R, SpatialCursor> positionOf, Function<R, T> mapper) {
+        boolean hasMore = rows.size() > limit;
+        List<R> kept = hasMore ? rows.subList(0, limit) : rows;
+        return LocationPage.<T>builder()
+                .items(kept.stream().map(mapper).toList())
+                .nextCursor(hasMore ? positionOf.apply(kept.get(kept.size() - 1)).encode() : null)
+                .build();
+    }
+}
@@ -0,0 +1,39 @@
+package com.fabrick.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * The locations of map tile z/x/y in one dataset version. Carries the locations themselves when
+ * there are few enough, otherwise clusters of them; {@code count} is the total either way.
+ */
+@Value
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class MapTile {
+
+    @JsonProperty("z")
+    int z;
+
+    @JsonProperty("x")
+    int x;
+
+    @JsonProperty("y")
+    int y;
+
+    @JsonProperty("version")
+    long version;
+
+    @JsonProperty("count")
+    int count;
+
+    @JsonProperty("clusters")
+    List<TileCluster> clusters;
+
+    @JsonProperty("points")
+    List<Airport> points;
+}
@@ -0,0 +1,84 @@
+package com.fabrick.model;
+
+import lombok.EqualsAndHashCode;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The properties of a model a caller asked for with {@code fields=}; {@link #ALL} keeps every one.
+ * Stores read only the columns behind the selected properties and build only those, so the others
+ * stay null and are left out of the response.
+ */
+@EqualsAndHashCode
+public final class Projection {
+
+    public static final Projection ALL = new Projection(null);
+
+    private final Set<String> fields;
+
+    private Projection(Set<String> fields) {
+        this.fields = fields;
+    }
+
+    /**
+     * Projection for a comma-separated list of property names; blank selects every property.
+     *
+     * @param properties the model's property names, in declaration order
+     * @throws IllegalArgumentException naming the first field the model does not have
+     */
+    public static Projection parse(String fields, List<String> properties) {
+        if (fields == null || fields.isBlank()) {
+            return ALL;
+        }
+        Set<String> requested = new HashSet<>();
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (!properties.contains(name)) {
+                throw new IllegalArgumentException("Unknown field: " + name);
+            }
+            requested.add(name);
+        }
+        if (requested.isEmpty() || requested.size() == properties.size()) {
+            return ALL;
+        }
+
+        // Model order, so the same selection always has the same key
+        Set<String> selected = new LinkedHashSet<>();
+        for (String property : properties) {
+            if (requested.contains(property)) {
+                selected.add(property);
+            }
+        }
+        return new Projection(Collections.unmodifiableSet(selected));
+    }
+
+    public boolean isAll() {
+        return fields == null;
+    }
+
+    public boolean includes(String field) {
+        return fields == null || fields.contains(field);
+    }
+
+    /**
+     * The selected properties out of {@code properties}, in their order.
+     */
+    public List<String> select(List<String> properties) {
+        return properties.stream().filter(this::includes).toList();
+    }
+
+    /**
+     * The selected properties as a {@code fields=} value, or {@code *} for all of them.
+     */
+    @Override
+    public String toString() {
+        return fields == null ? "*" : String.join(",", fields);
+    }
+}
@@ -6,12 +6,19 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.List;
+
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 public class Station {
 
+    /**
+     * Property names, in declaration order; what {@code fields=} can select.
+     */
+    public static final List<String> FIELDS = List.of("id", "site", "state", "country", "latitude", "longitude", "elevation");
+
     @JsonProperty("id")
     private String id;
 
@@ -32,4 +39,22 @@ public class Station {
 
     @JsonProperty("elevation")
     private Integer elevation;
-}
\ No newline at end of file
+
+    /**
+     * Copy with only the projected properties set.
+     */
+    public Station project(Projection projection) {
+        if (projection.isAll()) {
+            return this;
+        }
+        return Station.builder()
+                .id(projection.includes("id") ? id : null)
+                .site(projection.includes("site") ? site : null)
+                .state(projection.includes("state") ? state : null)
+                .country(projection.includes("country") ? country : null)
+                .latitude(projection.includes("latitude") ? latitude : null)
+                .longitude(projection.includes("longitude") ? longitude : null)
+                .elevation(projection.includes("elevation") ? elevation : null)
+                .build();
+    }
+}
@@ -0,0 +1,22 @@
+package com.fabrick.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Locations of one cell of a map tile, drawn as a single marker at their mean position.
+ */
+@Value
+@Builder
+public class TileCluster {
+
+    @JsonProperty("latitude")
+    double latitude;
+
+    @JsonProperty("longitude")
+    double longitude;
+
+    @JsonProperty("count")
+    int count;
+}
@@ -1,25 +1,114 @@
 package com.fabrick.repository;
 
 import com.fabrick.entity.AirportCacheEntity;
-import org.springframework.data.jpa.repository.JpaRepository;
+import com.fabrick.geo.BoundingBox;
+import com.fabrick.geo.GeoCell;
+import com.fabrick.geo.GeoCell.BatchRange;
+import com.fabrick.geo.GeoCell.CellRange;
+import com.fabrick.geo.SpatialSweep;
+import com.fabrick.model.Airport;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.Repository;
 import org.springframework.data.repository.query.Param;
-import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
-import java.util.Optional;
 
-@Repository
-public interface AirportCacheRepository  extends JpaRepository<AirportCacheEntity, Long> {
+/**
+ * Read-only access to the airport view of the shared location table.
+ */
+public interface AirportCacheRepository extends Repository<AirportCacheEntity, Long>, AirportCacheRepositoryCustom {
 
-    Optional<AirportCacheEntity> findByAirportId(String airportId);
-
-    @Query("SELECT a FROM AirportCacheEntity a WHERE " +
+    /**
+     * Index range scan on the cell key followed by the exact bounding-box filter.
+     * Rows are projected straight into {@link Airport} without going through the persistence context.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "512"))
+    @Query("SELECT new com.fabrick.model.Airport(a.airportId, a.name, a.state, a.country, a.latitude, a.longitude, a.elevation) " +
+            "FROM AirportCacheEntity a WHERE " +
+            "a.cellId BETWEEN :fromCell AND :toCell AND " +
             "a.latitude BETWEEN :minLat AND :maxLat AND " +
             "a.longitude BETWEEN :minLon AND :maxLon")
-    List<AirportCacheEntity> findInBoundingBox(
+    List<Airport> findInCellRange(
+            @Param("fromCell") Long fromCell,
+            @Param("toCell") Long toCell,
             @Param("minLat") Double minLat,
             @Param("maxLat") Double maxLat,
             @Param("minLon") Double minLon,
             @Param("maxLon") Double maxLon);
+
+    /**
+     * One page of a cell range in (cell, id) order, starting strictly after the given position.
+     * Keyset paging keeps every page an index seek, however deep into the range it starts.
+     * Rows bypass the second-level cache so large scans do not evict the hot lookups.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "512"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_MODE, value = "IGNORE")
+    })
+    @Query("SELECT a FROM AirportCacheEntity a WHERE " +
+            "a.cellId BETWEEN :fromCell AND :toCell AND " +
+            "a.latitude BETWEEN :minLat AND :maxLat AND " +
+            "a.longitude BETWEEN :minLon AND :maxLon AND " +
+            "(a.cellId > :afterCell OR (a.cellId = :afterCell AND a.id > :afterId)) " +
+            "ORDER BY a.cellId, a.id")
+    List<AirportCacheEntity> findPageInCellRange(
+            @Param("fromCell") Long fromCell,
+            @Param("toCell") Long toCell,
+            @Param("minLat") Double minLat,
+            @Param("maxLat") Double maxLat,
+            @Param("minLon") Double minLon,
+            @Param("maxLon") Double maxLon,
+            @Param("afterCell") Long afterCell,
+            @Param("afterId") Long afterId,
+            Limit limit);
+
+    /**
+     * Resolve many airports by ICAO code in one query; unknown codes are simply absent.
+     */
+    @Query("SELECT new com.fabrick.model.Airport(a.airportId, a.name, a.state, a.country, a.latitude, a.longitude, a.elevation) " +
+            "FROM AirportCacheEntity a WHERE a.airportId IN :airportIds")
+    List<Airport> findByAirportIdIn(@Param("airportIds") Collection<String> airportIds);
+
+    /**
+     * Find airports inside the bounding box with a few cell-range scans instead of a full table scan,
+     * so the cost follows the size of the result rather than the size of the table.
+     * All scans share one read-only transaction, so no dirty-checking snapshots are kept.
+     */
+    @Transactional(readOnly = true)
+    default List<Airport> findInBoundingBox(Double minLat, Double maxLat, Double minLon, Double maxLon) {
+        List<Airport> result = new ArrayList<>();
+        for (CellRange range : GeoCell.cover(minLat, maxLat, minLon, maxLon)) {
+            result.addAll(findInCellRange(range.getFrom(), range.getTo(), minLat, maxLat, minLon, maxLon));
+        }
+        return result;
+    }
+
+    /**
+     * Answer many bounding boxes with one sweep: scan the union of their cell ranges once, each
+     * range restricted to the envelope of the boxes it covers, then hand every candidate to the
+     * boxes containing it.
+     *
+     * @return the airports inside each box, in the order of {@code boxes}
+     */
+    @Transactional(readOnly = true)
+    default List<List<Airport>> findInBoundingBoxes(List<BoundingBox> boxes) {
+        if (boxes.isEmpty()) {
+            return List.of();
+        }
+        List<Airport> candidates = new ArrayList<>();
+        for (BatchRange range : GeoCell.coverBatch(boxes, GeoCell.MAX_BATCH_RANGES)) {
+            BoundingBox envelope = range.getEnvelope();
+            candidates.addAll(findInCellRange(range.getFrom(), range.getTo(),
+                    envelope.getMinLat(), envelope.getMaxLat(), envelope.getMinLon(), envelope.getMaxLon()));
+        }
+        return SpatialSweep.assign(boxes, candidates, Airport::getLatitude, Airport::getLongitude);
+    }
 }
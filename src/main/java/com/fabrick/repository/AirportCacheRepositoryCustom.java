@@ -0,0 +1,22 @@
+package com.fabrick.repository;
+
+import com.fabrick.entity.AirportCacheEntity;
+import com.fabrick.model.Airport;
+import com.fabrick.model.Projection;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface AirportCacheRepositoryCustom {
+
+    /**
+     * Look up an airport by ICAO code through Hibernate's natural-ID API,
+     * so repeated lookups are served from the second-level cache without a query.
+     */
+    Optional<AirportCacheEntity> findByAirportId(String airportId);
+
+    /**
+     * Airports inside the bounding box with only the projected properties set, selecting just their columns.
+     */
+    List<Airport> findInBoundingBox(Double minLat, Double maxLat, Double minLon, Double maxLon, Projection projection);
+}
@@ -0,0 +1,72 @@
+package com.fabrick.repository;
+
+import com.fabrick.entity.AirportCacheEntity;
+import com.fabrick.model.Airport;
+import com.fabrick.model.Projection;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@RequiredArgsConstructor
+class AirportCacheRepositoryImpl implements AirportCacheRepositoryCustom {
+
+    private static final Map<String, String> ATTRIBUTES = Map.of(
+            "id", "airportId",
+            "name", "name",
+            "state", "state",
+            "country", "country",
+            "latitude", "latitude",
+            "longitude", "longitude",
+            "elevation", "elevation");
+
+    private final SecondLevelCacheInvalidation cacheInvalidation;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<AirportCacheEntity> findByAirportId(String airportId) {
+        long generation = cacheInvalidation.generation();
+        Optional<AirportCacheEntity> airport = entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(AirportCacheEntity.class)
+                .loadOptional(airportId);
+        cacheInvalidation.afterLoad(generation, AirportCacheEntity.class);
+        return airport;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Airport> findInBoundingBox(Double minLat, Double maxLat, Double minLon, Double maxLon,
+                                           Projection projection) {
+        List<String> fields = projection.select(Airport.FIELDS);
+        return ProjectedQuery.inBoundingBox(entityManager, AirportCacheEntity.class, fields, ATTRIBUTES,
+                        minLat, maxLat, minLon, maxLon).stream()
+                .map(row -> toAirport(row, fields))
+                .toList();
+    }
+
+    private static Airport toAirport(Tuple row, List<String> fields) {
+        Airport.AirportBuilder airport = Airport.builder();
+        for (int i = 0; i < fields.size(); i++) {
+            switch (fields.get(i)) {
+                case "id" -> airport.id(row.get(i, String.class));
+                case "name" -> airport.name(row.get(i, String.class));
+                case "state" -> airport.state(row.get(i, String.class));
+                case "country" -> airport.country(row.get(i, String.class));
+                case "latitude" -> airport.latitude(row.get(i, Double.class));
+                case "longitude" -> airport.longitude(row.get(i, Double.class));
+                case "elevation" -> airport.elevation(row.get(i, Double.class));
+                default -> throw new IllegalArgumentException("Unknown airport field: " + fields.get(i));
+            }
+        }
+        return airport.build();
+    }
+}
@@ -0,0 +1,10 @@
+package com.fabrick.repository;
+
+import com.fabrick.entity.LocationEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface LocationRepository extends JpaRepository<LocationEntity, Long> {
+
+}
@@ -0,0 +1,56 @@
+package com.fabrick.repository;
+
+import com.fabrick.geo.GeoCell;
+import com.fabrick.geo.GeoCell.CellRange;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.jpa.HibernateHints;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Cell-range scans of a location view that select only the attributes behind the requested
+ * model properties, instead of whole rows. Values come back as tuples in the order of the properties.
+ */
+final class ProjectedQuery {
+
+    private ProjectedQuery() {
+    }
+
+    /**
+     * Rows inside the bounding box, one cell-range scan per range of its cover, like
+     * {@link AirportCacheRepository#findInBoundingBox(Double, Double, Double, Double)}.
+     *
+     * @param fields     model properties to read, at least one
+     * @param attributes entity attribute behind each model property
+     */
+    static List<Tuple> inBoundingBox(EntityManager entityManager, Class<?> entity,
+                                     List<String> fields, Map<String, String> attributes,
+                                     double minLat, double maxLat, double minLon, double maxLon) {
+        String select = fields.stream()
+                .map(field -> "e." + attributes.get(field))
+                .collect(Collectors.joining(", "));
+        TypedQuery<Tuple> query = entityManager.createQuery("SELECT " + select +
+                        " FROM " + entity.getSimpleName() + " e WHERE " +
+                        "e.cellId BETWEEN :fromCell AND :toCell AND " +
+                        "e.latitude BETWEEN :minLat AND :maxLat AND " +
+                        "e.longitude BETWEEN :minLon AND :maxLon", Tuple.class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, 512)
+                .setParameter("minLat", minLat)
+                .setParameter("maxLat", maxLat)
+                .setParameter("minLon", minLon)
+                .setParameter("maxLon", maxLon);
+
+        List<Tuple> rows = new ArrayList<>();
+        for (CellRange range : GeoCell.cover(minLat, maxLat, minLon, maxLon)) {
+            rows.addAll(query.setParameter("fromCell", range.getFrom())
+                    .setParameter("toCell", range.getTo())
+                    .getResultList());
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,341 @@
+package com.fabrick.repository;
+
+import com.fabrick.geo.BoundingBox;
+import com.fabrick.geo.GeoCell;
+import com.fabrick.geo.SpatialCursor;
+import com.fabrick.model.Airport;
+import com.fabrick.model.Projection;
+import com.fabrick.model.Station;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Readable;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Non-blocking reads of the shared location table through R2DBC.
+ * Mirrors the airport/station views and the cell-range scans of the JPA repositories.
+ * Each query is timed as {@code spring.data.repository.invocations}, with the tags Spring Boot
+ * uses for the JPA repositories, so both persistence modes report the same metric.
+ */
+@Repository
+@ConditionalOnProperty(name = "fabrick.persistence.mode", havingValue = "r2dbc")
+public class R2dbcLocationRepository {
+
+    private static final String AIRPORT_COLUMNS =
+            "SELECT location_id, name, state, country, latitude, longitude, elevation FROM location";
+
+    private static final String STATION_COLUMNS =
+            "SELECT location_id, name, state, country, latitude, longitude, " +
+                    "CAST(TRUNC(elevation) AS INTEGER) AS elevation FROM location";
+
+    /**
+     * Select expression of each model property, aliased to the property name, for projected reads.
+     */
+    private static final Map<String, String> AIRPORT_FIELD_COLUMNS = Map.of(
+            "id", "location_id AS id",
+            "name", "name",
+            "state", "state",
+            "country", "country",
+            "latitude", "latitude",
+            "longitude", "longitude",
+            "elevation", "elevation");
+
+    private static final Map<String, String> STATION_FIELD_COLUMNS = Map.of(
+            "id", "location_id AS id",
+            "site", "name AS site",
+            "state", "state",
+            "country", "country",
+            "latitude", "latitude",
+            "longitude", "longitude",
+            "elevation", "CAST(TRUNC(elevation) AS INTEGER) AS elevation");
+
+    private static final String BY_ID = " WHERE location_id = :id";
+
+    private static final String BY_IDS = " WHERE location_id IN (:ids)";
+
+    private static final String IN_CELL_RANGE = " WHERE cell_id BETWEEN :fromCell AND :toCell " +
+            "AND latitude BETWEEN :minLat AND :maxLat " +
+            "AND longitude BETWEEN :minLon AND :maxLon";
+
+    private static final String AFTER_POSITION_PAGE =
+            " AND (cell_id > :afterCell OR (cell_id = :afterCell AND id > :afterId))" +
+                    " ORDER BY cell_id, id LIMIT :limit";
+
+    private static final String POSITION_COLUMNS = "SELECT id, cell_id, ";
+
+    private static final String INVOCATIONS = "spring.data.repository.invocations";
+
+    private final DatabaseClient databaseClient;
+    private final MeterRegistry meterRegistry;
+
+    public R2dbcLocationRepository(ConnectionFactory connectionFactory, MeterRegistry meterRegistry) {
+        this.databaseClient = DatabaseClient.create(connectionFactory);
+        this.meterRegistry = meterRegistry;
+    }
+
+    public Mono<Airport> findAirportById(String airportId) {
+        return timed("findAirportById", databaseClient.sql(AIRPORT_COLUMNS + BY_ID)
+                .bind("id", airportId)
+                .map(this::toAirport)
+                .one());
+    }
+
+    public Mono<Station> findStationById(String stationId) {
+        return timed("findStationById", databaseClient.sql(STATION_COLUMNS + BY_ID)
+                .bind("id", stationId)
+                .map(this::toStation)
+                .one());
+    }
+
+    public Flux<Airport> findAirportsByIds(Collection<String> airportIds) {
+        if (airportIds.isEmpty()) {
+            return Flux.empty();
+        }
+        return timed("findAirportsByIds", databaseClient.sql(AIRPORT_COLUMNS + BY_IDS)
+                .bind("ids", airportIds)
+                .map(this::toAirport)
+                .all());
+    }
+
+    public Flux<Station> findStationsByIds(Collection<String> stationIds) {
+        if (stationIds.isEmpty()) {
+            return Flux.empty();
+        }
+        return timed("findStationsByIds", databaseClient.sql(STATION_COLUMNS + BY_IDS)
+                .bind("ids", stationIds)
+                .map(this::toStation)
+                .all());
+    }
+
+    public Flux<Airport> findAirportsInBoundingBox(double minLat, double maxLat, double minLon, double maxLon) {
+        return timed("findAirportsInBoundingBox",
+                findInBoundingBox(AIRPORT_COLUMNS, this::toAirport, minLat, maxLat, minLon, maxLon));
+    }
+
+    public Flux<Station> findStationsInBoundingBox(double minLat, double maxLat, double minLon, double maxLon) {
+        return timed("findStationsInBoundingBox",
+                findInBoundingBox(STATION_COLUMNS, this::toStation, minLat, maxLat, minLon, maxLon));
+    }
+
+    /**
+     * Airports inside the box with only the projected properties set, selecting just their columns.
+     */
+    public Flux<Airport> findAirportsInBoundingBox(double minLat, double maxLat, double minLon, double maxLon,
+                                                   Projection projection) {
+        List<String> fields = projection.select(Airport.FIELDS);
+        return timed("findAirportsInBoundingBox", findInBoundingBox(select(fields, AIRPORT_FIELD_COLUMNS),
+                row -> toProjectedAirport(row, fields), minLat, maxLat, minLon, maxLon));
+    }
+
+    /**
+     * Stations inside the box with only the projected properties set, selecting just their columns.
+     */
+    public Flux<Station> findStationsInBoundingBox(double minLat, double maxLat, double minLon, double maxLon,
+                                                   Projection projection) {
+        List<String> fields = projection.select(Station.FIELDS);
+        return timed("findStationsInBoundingBox", findInBoundingBox(select(fields, STATION_FIELD_COLUMNS),
+                row -> toProjectedStation(row, fields), minLat, maxLat, minLon, maxLon));
+    }
+
+    private <T> Flux<T> findInBoundingBox(String columns, Function<Readable, T> mapper,
+                                          double minLat, double maxLat, double minLon, double maxLon) {
+        return Flux.fromIterable(GeoCell.cover(minLat, maxLat, minLon, maxLon))
+                .concatMap(range -> databaseClient.sql(columns + IN_CELL_RANGE)
+                        .bind("fromCell", range.getFrom())
+                        .bind("toCell", range.getTo())
+                        .bind("minLat", minLat)
+                        .bind("maxLat", maxLat)
+                        .bind("minLon", minLon)
+                        .bind("maxLon", maxLon)
+                        .map(mapper::apply)
+                        .all());
+    }
+
+    private static String select(List<String> fields, Map<String, String> columns) {
+        return fields.stream()
+                .map(columns::get)
+                .collect(Collectors.joining(", ", "SELECT ", " FROM location"));
+    }
+
+    /**
+     * Up to {@code limit + 1} airports of the box after the cursor in (cell, id) order, each with its position.
+     */
+    public Flux<Map.Entry<SpatialCursor, Airport>> findAirportsPage(BoundingBox box, SpatialCursor after, int limit) {
+        return timed("findAirportsPage", findPage(AIRPORT_COLUMNS, box, after, limit, this::toAirport));
+    }
+
+    /**
+     * Up to {@code limit + 1} stations of the box after the cursor in (cell, id) order, each with its position.
+     */
+    public Flux<Map.Entry<SpatialCursor, Station>> findStationsPage(BoundingBox box, SpatialCursor after, int limit) {
+        return timed("findStationsPage", findPage(STATION_COLUMNS, box, after, limit, this::toStation));
+    }
+
+    private <T> Flux<Map.Entry<SpatialCursor, T>> findPage(String columns, BoundingBox box, SpatialCursor after,
+                                                          int limit, Function<Readable, T> mapper) {
+        String sql = POSITION_COLUMNS + columns.substring("SELECT ".length()) + IN_CELL_RANGE + AFTER_POSITION_PAGE;
+        return Flux.fromIterable(GeoCell.cover(box.getMinLat(), box.getMaxLat(), box.getMinLon(), box.getMaxLon()))
+                .concatMap(range -> {
+                    SpatialCursor start = SpatialCursor.startOf(range, after);
+                    if (start == null) {
+                        return Flux.empty();
+                    }
+                    return databaseClient.sql(sql)
+                            .bind("fromCell", range.getFrom())
+                            .bind("toCell", range.getTo())
+                            .bind("minLat", box.getMinLat())
+                            .bind("maxLat", box.getMaxLat())
+                            .bind("minLon", box.getMinLon())
+                            .bind("maxLon", box.getMaxLon())
+                            .bind("afterCell", start.getCellId())
+                            .bind("afterId", start.getId())
+                            .bind("limit", limit + 1)
+                            .map(row -> Map.entry(
+                                    new SpatialCursor(row.get("cell_id", Long.class), row.get("id", Long.class)),
+                                    mapper.apply(row)))
+                            .all();
+                }, 1)
+                .take(limit + 1);
+    }
+
+    /**
+     * Candidate airports for a batch of boxes: the union of their cell ranges, each within
+     * the envelope of the boxes it covers.
+     * Callers still need to assign the candidates to the individual boxes.
+     */
+    public Flux<Airport> findAirportsInCover(List<BoundingBox> boxes) {
+        if (boxes.isEmpty()) {
+            return Flux.empty();
+        }
+        return timed("findAirportsInCover", Flux.fromIterable(GeoCell.coverBatch(boxes, GeoCell.MAX_BATCH_RANGES))
+                .concatMap(range -> databaseClient.sql(AIRPORT_COLUMNS + IN_CELL_RANGE)
+                        .bind("fromCell", range.getFrom())
+                        .bind("toCell", range.getTo())
+                        .bind("minLat", range.getEnvelope().getMinLat())
+                        .bind("maxLat", range.getEnvelope().getMaxLat())
+                        .bind("minLon", range.getEnvelope().getMinLon())
+                        .bind("maxLon", range.getEnvelope().getMaxLon())
+                        .map(this::toAirport)
+                        .all()));
+    }
+
+    /**
+     * Candidate stations for a batch of boxes: the union of their cell ranges, each within
+     * the envelope of the boxes it covers.
+     * Callers still need to assign the candidates to the individual boxes.
+     */
+    public Flux<Station> findStationsInCover(List<BoundingBox> boxes) {
+        if (boxes.isEmpty()) {
+            return Flux.empty();
+        }
+        return timed("findStationsInCover", Flux.fromIterable(GeoCell.coverBatch(boxes, GeoCell.MAX_BATCH_RANGES))
+                .concatMap(range -> databaseClient.sql(STATION_COLUMNS + IN_CELL_RANGE)
+                        .bind("fromCell", range.getFrom())
+                        .bind("toCell", range.getTo())
+                        .bind("minLat", range.getEnvelope().getMinLat())
+                        .bind("maxLat", range.getEnvelope().getMaxLat())
+                        .bind("minLon", range.getEnvelope().getMinLon())
+                        .bind("maxLon", range.getEnvelope().getMaxLon())
+                        .map(this::toStation)
+                        .all()));
+    }
+
+    private <T> Mono<T> timed(String method, Mono<T> query) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            return query
+                    .doOnSuccess(value -> stop(sample, method, "SUCCESS", null))
+                    .doOnError(error -> stop(sample, method, "ERROR", error))
+                    .doOnCancel(() -> stop(sample, method, "CANCELED", null));
+        });
+    }
+
+    private <T> Flux<T> timed(String method, Flux<T> query) {
+        return Flux.defer(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            return query
+                    .doOnComplete(() -> stop(sample, method, "SUCCESS", null))
+                    .doOnError(error -> stop(sample, method, "ERROR", error))
+                    .doOnCancel(() -> stop(sample, method, "CANCELED", null));
+        });
+    }
+
+    private void stop(Timer.Sample sample, String method, String state, Throwable error) {
+        sample.stop(Timer.builder(INVOCATIONS)
+                .description("Duration of repository invocations")
+                .tag("repository", getClass().getSimpleName())
+                .tag("method", method)
+                .tag("state", state)
+                .tag("exception", error != null ? error.getClass().getSimpleName() : "None")
+                .register(meterRegistry));
+    }
+
+    private Airport toAirport(Readable row) {
+        return Airport.builder()
+                .id(row.get("location_id", String.class))
+                .name(row.get("name", String.class))
+                .state(row.get("state", String.class))
+                .country(row.get("country", String.class))
+                .latitude(row.get("latitude", Double.class))
+                .longitude(row.get("longitude", Double.class))
+                .elevation(row.get("elevation", Double.class))
+                .build();
+    }
+
+    private Station toStation(Readable row) {
+        return Station.builder()
+                .id(row.get("location_id", String.class))
+                .site(row.get("name", String.class))
+                .state(row.get("state", String.class))
+                .country(row.get("country", String.class))
+                .latitude(row.get("latitude", Double.class))
+                .longitude(row.get("longitude", Double.class))
+                .elevation(row.get("elevation", Integer.class))
+                .build();
+    }
+
+    private Airport toProjectedAirport(Readable row, List<String> fields) {
+        Airport.AirportBuilder airport = Airport.builder();
+        for (String field : fields) {
+            switch (field) {
+                case "id" -> airport.id(row.get(field, String.class));
+                case "name" -> airport.name(row.get(field, String.class));
+                case "state" -> airport.state(row.get(field, String.class));
+                case "country" -> airport.country(row.get(field, String.class));
+                case "latitude" -> airport.latitude(row.get(field, Double.class));
+                case "longitude" -> airport.longitude(row.get(field, Double.class));
+                case "elevation" -> airport.elevation(row.get(field, Double.class));
+                default -> throw new IllegalArgumentException("Unknown airport field: " + field);
+            }
+        }
+        return airport.build();
+    }
+
+    private Station toProjectedStation(Readable row, List<String> fields) {
+        Station.StationBuilder station = Station.builder();
+        for (String field : fields) {
+            switch (field) {
+                case "id" -> station.id(row.get(field, String.class));
+                case "site" -> station.site(row.get(field, String.class));
+                case "state" -> station.state(row.get(field, String.class));
+                case "country" -> station.country(row.get(field, String.class));
+                case "latitude" -> station.latitude(row.get(field, Double.class));
+                case "longitude" -> station.longitude(row.get(field, Double.class));
+                case "elevation" -> station.elevation(row.get(field, Integer.class));
+                default -> throw new IllegalArgumentException("Unknown station field: " + field);
+            }
+        }
+        return station.build();
+    }
+}
@@ -0,0 +1,49 @@
+package com.fabrick.repository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Eviction of the airport/station second-level regions on dataset reloads. The views do not see writes
+ * to the location table, and a lookup that read a row before a reload committed can still put it into a
+ * READ_ONLY region after the reload evicted it. Every eviction therefore advances a generation first;
+ * a lookup that sees the generation change while it ran evicts its entity's regions again.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SecondLevelCacheInvalidation {
+
+    private final SessionFactory sessionFactory;
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * Evict every region. Call once the reload has committed.
+     */
+    public void evictAll() {
+        generation.incrementAndGet();
+        sessionFactory.getCache().evictAllRegions();
+    }
+
+    /**
+     * Generation to hand to {@link #afterLoad} once a cached lookup is done; read before it starts.
+     */
+    long generation() {
+        return generation.get();
+    }
+
+    /**
+     * Evict what a lookup of {@code entity} may have put into the cache from before a reload.
+     */
+    void afterLoad(long startGeneration, Class<?> entity) {
+        if (generation.get() != startGeneration) {
+            log.debug("{} lookup overlapped a reload, evicting its regions", entity.getSimpleName());
+            sessionFactory.getCache().evictEntityData(entity);
+            sessionFactory.getCache().evictNaturalIdData(entity);
+        }
+    }
+}
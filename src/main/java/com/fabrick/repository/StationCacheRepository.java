@@ -1,23 +1,114 @@
 package com.fabrick.repository;
 
 import com.fabrick.entity.StationCacheEntity;
-import org.springframework.data.jpa.repository.JpaRepository;
+import com.fabrick.geo.BoundingBox;
+import com.fabrick.geo.GeoCell;
+import com.fabrick.geo.GeoCell.BatchRange;
+import com.fabrick.geo.GeoCell.CellRange;
+import com.fabrick.geo.SpatialSweep;
+import com.fabrick.model.Station;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.Repository;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
-import java.util.Optional;
 
-public interface StationCacheRepository  extends JpaRepository<StationCacheEntity, Long> {
+/**
+ * Read-only access to the station view of the shared location table.
+ */
+public interface StationCacheRepository extends Repository<StationCacheEntity, Long>, StationCacheRepositoryCustom {
 
-    Optional<StationCacheEntity> findByStationId(String stationId);
-
-    @Query("SELECT s FROM StationCacheEntity s WHERE " +
+    /**
+     * Index range scan on the cell key followed by the exact bounding-box filter.
+     * Rows are projected straight into {@link Station} without going through the persistence context.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "512"))
+    @Query("SELECT new com.fabrick.model.Station(s.stationId, s.site, s.state, s.country, s.latitude, s.longitude, s.elevation) " +
+            "FROM StationCacheEntity s WHERE " +
+            "s.cellId BETWEEN :fromCell AND :toCell AND " +
             "s.latitude BETWEEN :minLat AND :maxLat AND " +
             "s.longitude BETWEEN :minLon AND :maxLon")
-    List<StationCacheEntity> findInBoundingBox(
+    List<Station> findInCellRange(
+            @Param("fromCell") Long fromCell,
+            @Param("toCell") Long toCell,
             @Param("minLat") Double minLat,
             @Param("maxLat") Double maxLat,
             @Param("minLon") Double minLon,
             @Param("maxLon") Double maxLon);
+
+    /**
+     * One page of a cell range in (cell, id) order, starting strictly after the given position.
+     * Keyset paging keeps every page an index seek, however deep into the range it starts.
+     * Rows bypass the second-level cache so large scans do not evict the hot lookups.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "512"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_MODE, value = "IGNORE")
+    })
+    @Query("SELECT s FROM StationCacheEntity s WHERE " +
+            "s.cellId BETWEEN :fromCell AND :toCell AND " +
+            "s.latitude BETWEEN :minLat AND :maxLat AND " +
+            "s.longitude BETWEEN :minLon AND :maxLon AND " +
+            "(s.cellId > :afterCell OR (s.cellId = :afterCell AND s.id > :afterId)) " +
+            "ORDER BY s.cellId, s.id")
+    List<StationCacheEntity> findPageInCellRange(
+            @Param("fromCell") Long fromCell,
+            @Param("toCell") Long toCell,
+            @Param("minLat") Double minLat,
+            @Param("maxLat") Double maxLat,
+            @Param("minLon") Double minLon,
+            @Param("maxLon") Double maxLon,
+            @Param("afterCell") Long afterCell,
+            @Param("afterId") Long afterId,
+            Limit limit);
+
+    /**
+     * Resolve many stations by ICAO code in one query; unknown codes are simply absent.
+     */
+    @Query("SELECT new com.fabrick.model.Station(s.stationId, s.site, s.state, s.country, s.latitude, s.longitude, s.elevation) " +
+            "FROM StationCacheEntity s WHERE s.stationId IN :stationIds")
+    List<Station> findByStationIdIn(@Param("stationIds") Collection<String> stationIds);
+
+    /**
+     * Find stations inside the bounding box with a few cell-range scans instead of a full table scan,
+     * so the cost follows the size of the result rather than the size of the table.
+     * All scans share one read-only transaction, so no dirty-checking snapshots are kept.
+     */
+    @Transactional(readOnly = true)
+    default List<Station> findInBoundingBox(Double minLat, Double maxLat, Double minLon, Double maxLon) {
+        List<Station> result = new ArrayList<>();
+        for (CellRange range : GeoCell.cover(minLat, maxLat, minLon, maxLon)) {
+            result.addAll(findInCellRange(range.getFrom(), range.getTo(), minLat, maxLat, minLon, maxLon));
+        }
+        return result;
+    }
+
+    /**
+     * Answer many bounding boxes with one sweep: scan the union of their cell ranges once, each
+     * range restricted to the envelope of the boxes it covers, then hand every candidate to the
+     * boxes containing it.
+     *
+     * @return the stations inside each box, in the order of {@code boxes}
+     */
+    @Transactional(readOnly = true)
+    default List<List<Station>> findInBoundingBoxes(List<BoundingBox> boxes) {
+        if (boxes.isEmpty()) {
+            return List.of();
+        }
+        List<Station> candidates = new ArrayList<>();
+        for (BatchRange range : GeoCell.coverBatch(boxes, GeoCell.MAX_BATCH_RANGES)) {
+            BoundingBox envelope = range.getEnvelope();
+            candidates.addAll(findInCellRange(range.getFrom(), range.getTo(),
+                    envelope.getMinLat(), envelope.getMaxLat(), envelope.getMinLon(), envelope.getMaxLon()));
+        }
+        return SpatialSweep.assign(boxes, candidates, Station::getLatitude, Station::getLongitude);
+    }
 }
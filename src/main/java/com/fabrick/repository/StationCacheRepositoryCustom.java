@@ -0,0 +1,22 @@
+package com.fabrick.repository;
+
+import com.fabrick.entity.StationCacheEntity;
+import com.fabrick.model.Station;
+import com.fabrick.model.Projection;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface StationCacheRepositoryCustom {
+
+    /**
+     * Look up a station by ICAO code through Hibernate's natural-ID API,
+     * so repeated lookups are served from the second-level cache without a query.
+     */
+    Optional<StationCacheEntity> findByStationId(String stationId);
+
+    /**
+     * Stations inside the bounding box with only the projected properties set, selecting just their columns.
+     */
+    List<Station> findInBoundingBox(Double minLat, Double maxLat, Double minLon, Double maxLon, Projection projection);
+}
@@ -0,0 +1,72 @@
+package com.fabrick.repository;
+
+import com.fabrick.entity.StationCacheEntity;
+import com.fabrick.model.Projection;
+import com.fabrick.model.Station;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@RequiredArgsConstructor
+class StationCacheRepositoryImpl implements StationCacheRepositoryCustom {
+
+    private static final Map<String, String> ATTRIBUTES = Map.of(
+            "id", "stationId",
+            "site", "site",
+            "state", "state",
+            "country", "country",
+            "latitude", "latitude",
+            "longitude", "longitude",
+            "elevation", "elevation");
+
+    private final SecondLevelCacheInvalidation cacheInvalidation;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<StationCacheEntity> findByStationId(String stationId) {
+        long generation = cacheInvalidation.generation();
+        Optional<StationCacheEntity> station = entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(StationCacheEntity.class)
+                .loadOptional(stationId);
+        cacheInvalidation.afterLoad(generation, StationCacheEntity.class);
+        return station;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Station> findInBoundingBox(Double minLat, Double maxLat, Double minLon, Double maxLon,
+                                           Projection projection) {
+        List<String> fields = projection.select(Station.FIELDS);
+        return ProjectedQuery.inBoundingBox(entityManager, StationCacheEntity.class, fields, ATTRIBUTES,
+                        minLat, maxLat, minLon, maxLon).stream()
+                .map(row -> toStation(row, fields))
+                .toList();
+    }
+
+    private static Station toStation(Tuple row, List<String> fields) {
+        Station.StationBuilder station = Station.builder();
+        for (int i = 0; i < fields.size(); i++) {
+            switch (fields.get(i)) {
+                case "id" -> station.id(row.get(i, String.class));
+                case "site" -> station.site(row.get(i, String.class));
+                case "state" -> station.state(row.get(i, String.class));
+                case "country" -> station.country(row.get(i, String.class));
+                case "latitude" -> station.latitude(row.get(i, Double.class));
+                case "longitude" -> station.longitude(row.get(i, Double.class));
+                case "elevation" -> station.elevation(row.get(i, Integer.class));
+                default -> throw new IllegalArgumentException("Unknown station field: " + fields.get(i));
+            }
+        }
+        return station.build();
+    }
+}
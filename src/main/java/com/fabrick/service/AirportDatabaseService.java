@@ -1,28 +1,65 @@
 package com.fabrick.service;
 
-import com.fabrick.entity.AirportCacheEntity;
-import com.fabrick.entity.StationCacheEntity;
-import com.fabrick.repository.AirportCacheRepository;
-import com.fabrick.repository.StationCacheRepository;
+import com.fabrick.entity.LocationEntity;
+import com.fabrick.model.DatasetReloadResult;
+import com.fabrick.model.DatasetSnapshot;
+import com.fabrick.repository.LocationRepository;
+import com.fabrick.repository.SecondLevelCacheInvalidation;
 import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.core.io.ClassPathResource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.io.BufferedReader;
+import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class AirportDatabaseService {
 
-    private final AirportCacheRepository airportCacheRepository;
-    private final StationCacheRepository stationCacheRepository;
+    /**
+     * Rows deleted per statement, so a dataset dropping thousands of rows does not become one statement
+     * with thousands of bind parameters.
+     */
+    static final int DELETE_CHUNK_SIZE = 500;
+
+    private final LocationRepository locationRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ResourceLoader resourceLoader;
+    private final CacheManager cacheManager;
+    private final SecondLevelCacheInvalidation secondLevelCacheInvalidation;
+    private final List<DatasetListener> datasetListeners;
+
+    @Value("${fabrick.dataset.location:classpath:data/airports.csv}")
+    private String datasetLocation;
+
+    private final AtomicReference<DatasetSnapshot> snapshot = new AtomicReference<>(DatasetSnapshot.empty());
+    private final ReentrantLock reloadLock = new ReentrantLock();
+
+    /**
+     * Set while a committed diff has not been swapped in, so the next reload retries the swap even if
+     * the CSV has not changed since. Guarded by the reload lock.
+     */
+    private boolean swapPending;
 
     /**
      * Load airports database from CSV file on application startup.
@@ -33,113 +70,228 @@ public class AirportDatabaseService {
         try {
             log.info("Loading airports database from CSV...");
 
-            ClassPathResource resource = new ClassPathResource("data/airports.csv");
+            Resource resource = resourceLoader.getResource(datasetLocation);
             if (!resource.exists()) {
                 log.warn("airports.csv not found, skipping database load");
                 log.info("Download from: https://davidmegginson.github.io/ourairports-data/airports.csv");
                 return;
             }
 
-            List<AirportCacheEntity> airports = new ArrayList<>();
-            List<StationCacheEntity> stations = new ArrayList<>();
-
-            try (BufferedReader reader = new BufferedReader(
-                    new InputStreamReader(resource.getInputStream()))) {
-
-                // Skip header line
-                String line = reader.readLine();
-                int count = 0;
-
-                // Process each data line
-                while ((line = reader.readLine()) != null) {
-                    String[] fields = parseCsvLine(line);
-
-                    if (fields.length < 13) continue;
-
-                    // Extract relevant fields from CSV
-                    String type = fields[2];        // type (e.g., "large_airport")
-                    String name = fields[3];        // name
-                    String latitude = fields[4];    // latitude_deg
-                    String longitude = fields[5];   // longitude_deg
-                    String elevation = fields[6];   // elevation_ft
-                    String isoCountry = fields[8];  // iso_country (e.g., "US")
-                    String isoRegion = fields[9];   // iso_region (e.g., "US-CO")
-                    String gpsCode = fields[12];    // gps_code
-                    String icaoCode = fields[1];    // ident (ICAO code)
-
-                    // Filter: only valid ICAO codes (4 chars) and airport/heliport types
-                    if (!icaoCode.isEmpty() && icaoCode.length() == 4 &&
-                            (type.contains("airport") || type.contains("heliport"))) {
-
-                        try {
-                            Double lat = parseDouble(latitude);
-                            Double lon = parseDouble(longitude);
-                            Double elev = parseDouble(elevation);
-
-                            // Require valid coordinates
-                            if (lat != null && lon != null) {
-                                // Extract state from iso_region (format: "US-CO" -> "CO")
-                                String state = "";
-                                if (isoRegion.contains("-")) {
-                                    state = isoRegion.split("-")[1];
-                                }
-
-                                // Create airport entity
-                                AirportCacheEntity airport = AirportCacheEntity.builder()
-                                        .airportId(icaoCode)
-                                        .name(name)
-                                        .state(state)
-                                        .country(isoCountry)
-                                        .latitude(lat)
-                                        .longitude(lon)
-                                        .elevation(elev)
-                                        .cachedAt(LocalDateTime.now())
-                                        .build();
-
-                                airports.add(airport);
-
-                                // Create station entity (same data, different table)
-                                StationCacheEntity station = StationCacheEntity.builder()
-                                        .stationId(icaoCode)
-                                        .site(name)
-                                        .state(state)
-                                        .country(isoCountry)
-                                        .latitude(lat)
-                                        .longitude(lon)
-                                        .elevation(elev != null ? elev.intValue() : null)
-                                        .cachedAt(LocalDateTime.now())
-                                        .build();
-
-                                stations.add(station);
-
-                                count++;
-                            }
-                        } catch (Exception e) {
-                            // Silently skip invalid records
-                        }
-                    }
+            reloadAirportsDatabase();
+        } catch (Exception e) {
+            log.error("Error loading airports database", e);
+        }
+    }
+
+    /**
+     * Current dataset snapshot. Never null; version 0 means nothing has been loaded yet.
+     */
+    public DatasetSnapshot currentSnapshot() {
+        return snapshot.get();
+    }
+
+    /**
+     * Version of the dataset currently served, used to scope cached query results.
+     */
+    public long currentVersion() {
+        return snapshot.get().getVersion();
+    }
+
+    /**
+     * Re-read the configured CSV and apply only the differences to the stored locations.
+     * Upserts and deletes are committed in a single transaction, so concurrent queries see either
+     * the previous or the new dataset. Once committed, a new snapshot is swapped in and the result
+     * caches are dropped; entries computed against the old version are keyed by that version and
+     * can never be served again. {@link DatasetListener}s rebuild their derived state before the swap;
+     * if one fails, so does the reload, the previous version stays current and the next reload retries.
+     * The Hibernate second-level cache is evicted as well, after the commit and under the reload lock,
+     * since the cached airport/station views do not see writes to the underlying location table;
+     * see {@link SecondLevelCacheInvalidation} for lookups overlapping the reload.
+     *
+     * @throws IllegalStateException if another reload is already running
+     * @throws FileNotFoundException if the configured CSV does not exist
+     */
+    public DatasetReloadResult reloadAirportsDatabase() throws IOException {
+        if (!reloadLock.tryLock()) {
+            throw new IllegalStateException("A dataset reload is already in progress");
+        }
+        try {
+            long start = System.nanoTime();
+
+            Resource resource = resourceLoader.getResource(datasetLocation);
+            if (!resource.exists()) {
+                throw new FileNotFoundException("Dataset not found at " + datasetLocation);
+            }
+
+            Map<String, LocationEntity> incoming = parseLocations(resource);
+            log.info("Parsed {} airports/stations from {}", incoming.size(), datasetLocation);
+
+            DatasetDiff<LocationEntity> diff = transactionTemplate.execute(status -> applyDiff(incoming));
+
+            DatasetSnapshot current = snapshot.get();
+            if (!diff.isEmpty() || current.getVersion() == 0L || swapPending) {
+                DatasetSnapshot next = DatasetSnapshot.builder()
+                        .version(current.getVersion() + 1)
+                        .source(datasetLocation)
+                        .recordCount(incoming.size())
+                        .loadedAt(Instant.now())
+                        .build();
+                swapPending = true;
+                secondLevelCacheInvalidation.evictAll();
+                for (DatasetListener listener : datasetListeners) {
+                    listener.datasetLoaded(next, incoming.values());
                 }
+                snapshot.set(next);
+                swapPending = false;
+                clearResultCaches();
+            }
 
-                // Batch save to database for performance
-                log.info("Saving {} airports to database...", airports.size());
-                airportCacheRepository.saveAll(airports);
+            DatasetReloadResult result = DatasetReloadResult.builder()
+                    .version(snapshot.get().getVersion())
+                    .inserted(diff.getInserted())
+                    .updated(diff.getUpdated())
+                    .deleted(diff.getDeleted())
+                    .unchanged(diff.getUnchanged())
+                    .durationMillis((System.nanoTime() - start) / 1_000_000)
+                    .build();
 
-                log.info("Saving {} stations to database...", stations.size());
-                stationCacheRepository.saveAll(stations);
+            log.info("Dataset version {}: {} inserted, {} updated, {} deleted, {} unchanged in {} ms",
+                    result.getVersion(), result.getInserted(), result.getUpdated(),
+                    result.getDeleted(), result.getUnchanged(), result.getDurationMillis());
 
-                log.info("Successfully loaded {} airports/stations from CSV", count);
+            return result;
+        } finally {
+            reloadLock.unlock();
+        }
+    }
 
+    /**
+     * Diff the parsed locations against the stored ones and write only what changed, deleting by ID
+     * in chunks of {@link #DELETE_CHUNK_SIZE}. Must run inside a transaction.
+     */
+    private DatasetDiff<LocationEntity> applyDiff(Map<String, LocationEntity> incoming) {
+        Map<String, LocationEntity> current = new LinkedHashMap<>();
+        for (LocationEntity location : locationRepository.findAll()) {
+            current.put(location.getLocationId(), location);
+        }
+
+        DatasetDiff<LocationEntity> diff = DatasetDiff.compute(
+                current, incoming, this::sameLocation, this::copyLocation);
+
+        log.info("Applying dataset diff: {} upserts, {} deletes",
+                diff.getUpserts().size(), diff.getDeleted());
+
+        List<Long> deletedIds = diff.getDeletes().stream().map(LocationEntity::getId).toList();
+        for (int from = 0; from < deletedIds.size(); from += DELETE_CHUNK_SIZE) {
+            locationRepository.deleteAllByIdInBatch(
+                    deletedIds.subList(from, Math.min(from + DELETE_CHUNK_SIZE, deletedIds.size())));
+        }
+        locationRepository.saveAll(diff.getUpserts());
+
+        return diff;
+    }
+
+    private void clearResultCaches() {
+        for (String name : List.of("airports", "stations")) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache != null) {
+                cache.clear();
+            }
+        }
+    }
+
+    /**
+     * Stream the CSV line by line and keep the rows we serve, keyed by ICAO code.
+     * Each location is stored once and exposed both as an airport and as a station.
+     */
+    Map<String, LocationEntity> parseLocations(Resource resource) throws IOException {
+        Map<String, LocationEntity> locations = new LinkedHashMap<>();
+        LocalDateTime loadedAt = LocalDateTime.now();
+
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+
+            // Skip header line
+            String line = reader.readLine();
+
+            // Process each data line
+            while ((line = reader.readLine()) != null) {
+                String[] fields = parseCsvLine(line);
+
+                if (fields.length < 13) continue;
+
+                // Extract relevant fields from CSV
+                String type = fields[2];        // type (e.g., "large_airport")
+                String name = fields[3];        // name
+                String latitude = fields[4];    // latitude_deg
+                String longitude = fields[5];   // longitude_deg
+                String elevation = fields[6];   // elevation_ft
+                String isoCountry = fields[8];  // iso_country (e.g., "US")
+                String isoRegion = fields[9];   // iso_region (e.g., "US-CO")
+                String icaoCode = fields[1];    // ident (ICAO code)
+
+                // Filter: only valid ICAO codes (4 chars) and airport/heliport types
+                if (!icaoCode.isEmpty() && icaoCode.length() == 4 &&
+                        (type.contains("airport") || type.contains("heliport"))) {
+
+                    try {
+                        Double lat = parseDouble(latitude);
+                        Double lon = parseDouble(longitude);
+                        Double elev = parseDouble(elevation);
+
+                        // Require valid coordinates
+                        if (lat != null && lon != null) {
+                            // Extract state from iso_region (format: "US-CO" -> "CO")
+                            String state = "";
+                            if (isoRegion.contains("-")) {
+                                state = isoRegion.split("-")[1];
+                            }
+
+                            locations.put(icaoCode, LocationEntity.builder()
+                                    .locationId(icaoCode)
+                                    .name(name)
+                                    .state(state)
+                                    .country(isoCountry)
+                                    .latitude(lat)
+                                    .longitude(lon)
+                                    .elevation(elev)
+                                    .updatedAt(loadedAt)
+                                    .build());
+                        }
+                    } catch (Exception e) {
+                        // Silently skip invalid records
+                    }
+                }
             }
-        } catch (Exception e) {
-            log.error("Error loading airports database", e);
         }
+
+        return locations;
+    }
+
+    private boolean sameLocation(LocationEntity a, LocationEntity b) {
+        return Objects.equals(a.getName(), b.getName())
+                && Objects.equals(a.getState(), b.getState())
+                && Objects.equals(a.getCountry(), b.getCountry())
+                && Objects.equals(a.getLatitude(), b.getLatitude())
+                && Objects.equals(a.getLongitude(), b.getLongitude())
+                && Objects.equals(a.getElevation(), b.getElevation());
+    }
+
+    private void copyLocation(LocationEntity target, LocationEntity source) {
+        target.setName(source.getName());
+        target.setState(source.getState());
+        target.setCountry(source.getCountry());
+        target.setLatitude(source.getLatitude());
+        target.setLongitude(source.getLongitude());
+        target.setElevation(source.getElevation());
+        target.setUpdatedAt(source.getUpdatedAt());
     }
 
     /**
      * Parse CSV line handling quoted fields correctly.
      * Handles cases like: field1,"field with, comma",field3
      */
-    private String[] parseCsvLine(String line) {
+    String[] parseCsvLine(String line) {
         List<String> fields = new ArrayList<>();
         boolean inQuotes = false;
         StringBuilder current = new StringBuilder();
@@ -172,4 +324,4 @@ public class AirportDatabaseService {
             return null;
         }
     }
-}
\ No newline at end of file
+}
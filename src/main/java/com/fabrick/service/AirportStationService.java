@@ -1,23 +1,34 @@
 package com.fabrick.service;
 
-import com.fabrick.entity.AirportCacheEntity;
-import com.fabrick.entity.StationCacheEntity;
+import com.fabrick.bulkhead.Bulkhead;
+import com.fabrick.cache.SpatialResultCache;
+import com.fabrick.geo.BoundingBox;
+import com.fabrick.geo.Route;
+import com.fabrick.geo.SpatialCursor;
 import com.fabrick.model.Airport;
+import com.fabrick.model.LocationPage;
+import com.fabrick.model.Projection;
 import com.fabrick.model.Station;
-import com.fabrick.repository.AirportCacheRepository;
-import com.fabrick.repository.StationCacheRepository;
+import com.fabrick.timing.RequestTiming;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 
 @Slf4j
 @Service
@@ -25,116 +36,532 @@ import java.util.List;
 public class AirportStationService {
 
     private final WebClient aviationWebClient;
-    private final AirportCacheRepository airportCacheRepository;
-    private final StationCacheRepository stationCacheRepository;
+    private final LocationLookup locationLookup;
+    private final Bulkhead geoBulkhead;
+    private final SpatialResultCache<Station> stationResultCache;
+    private final SpatialResultCache<Airport> airportResultCache;
+    private final AirportDatabaseService airportDatabaseService;
     private final ObjectMapper objectMapper = new ObjectMapper();
 
+    @Value("${fabrick.corridor.segment-km:200}")
+    private double corridorSegmentKm;
+
+    @Value("${fabrick.corridor.concurrency:4}")
+    private int corridorConcurrency;
+
+    @Value("${fabrick.corridor.max-boxes:64}")
+    private int corridorMaxBoxes;
+
     /**
      * Find all stations within a bounding box around the specified airport.
      * Uses local database for airport lookup with external API fallback.
+     * Cached per dataset version and airport for a bucketed radius, so nearby radii share an entry and
+     * results never outlive a reload; misses run inside the geo bulkhead and are timed as cache loads.
+     * The cache read, origin lookup, external fallback and bounding box query are timed as request stages.
      */
-    @Cacheable(value = "stations", key = "#airportId + '-' + #closestBy")
     public Mono<List<Station>> getClosestStations(String airportId, Double closestBy) {
         log.info("Fetching closest stations for airport: {}, closestBy: {}", airportId, closestBy);
 
+        String key = cacheKey(airportId);
+        long cacheStart = System.nanoTime();
+        List<Station> cached = stationResultCache.get(key, closestBy);
+        long cacheNanos = System.nanoTime() - cacheStart;
+        if (cached != null) {
+            log.debug("Stations around {} within {} served from cache", airportId, closestBy);
+            return RequestTiming.record("cache", cacheNanos, Mono.just(cached));
+        }
+        double radius = stationResultCache.bucket(closestBy);
+
         // Try local database first, then fall back to external API
-        return Mono.fromCallable(() -> airportCacheRepository.findByAirportId(airportId))
-                .flatMap(optionalAirport -> {
-                    if (optionalAirport.isPresent()) {
-                        AirportCacheEntity airportEntity = optionalAirport.get();
-                        log.info("Found airport {} in local database at lat={}, lon={}",
-                                airportId, airportEntity.getLatitude(), airportEntity.getLongitude());
-
-                        Airport airport = Airport.builder()
-                                .id(airportEntity.getAirportId())
-                                .name(airportEntity.getName())
-                                .state(airportEntity.getState())
-                                .country(airportEntity.getCountry())
-                                .latitude(airportEntity.getLatitude())
-                                .longitude(airportEntity.getLongitude())
-                                .elevation(airportEntity.getElevation())
-                                .build();
-
-                        return Mono.just(airport);
-                    } else {
-                        log.info("Airport {} not found in local database, trying external API", airportId);
-                        return getAirportInfo(airportId);
-                    }
-                })
+        return RequestTiming.record("cache", cacheNanos, geoBulkhead.execute(stationResultCache.load(closestBy,
+                RequestTiming.stage("lookup", locationLookup.findAirport(airportId))
+                .doOnNext(airport -> log.info("Found airport {} in local database at lat={}, lon={}",
+                        airportId, airport.getLatitude(), airport.getLongitude()))
+                .switchIfEmpty(Mono.defer(() -> {
+                    log.info("Airport {} not found in local database, trying external API", airportId);
+                    return getAirportInfo(airportId);
+                }))
                 .flatMap(airport -> {
                     if (airport == null || airport.getLatitude() == null || airport.getLongitude() == null) {
                         log.warn("Airport {} not found or has invalid coordinates", airportId);
                         return Mono.just(new ArrayList<Station>());
                     }
 
-                    // Calculate bounding box coordinates
-                    double minLat = airport.getLatitude() - closestBy;
-                    double minLon = airport.getLongitude() - closestBy;
-                    double maxLat = airport.getLatitude() + closestBy;
-                    double maxLon = airport.getLongitude() + closestBy;
+                    // Calculate bounding box coordinates for the cached radius bucket
+                    double minLat = airport.getLatitude() - radius;
+                    double minLon = airport.getLongitude() - radius;
+                    double maxLat = airport.getLatitude() + radius;
+                    double maxLon = airport.getLongitude() + radius;
 
                     log.debug("Bounding box for {}: lat[{},{}] lon[{},{}]",
                             airportId, minLat, maxLat, minLon, maxLon);
 
-                    return getStationsInBoundingBox(minLat, maxLat, minLon, maxLon);
+                    return getStationsInBoundingBox(minLat, maxLat, minLon, maxLon)
+                            .map(stations -> stationResultCache.put(key, airport.getLatitude(), airport.getLongitude(),
+                                    radius, stations, closestBy));
                 })
-                .switchIfEmpty(Mono.just(new ArrayList<Station>()))
+                .switchIfEmpty(Mono.just(new ArrayList<Station>())))
                 .doOnError(error -> log.error("Error fetching stations for airport {}", airportId, error))
-                .onErrorResume(error -> Mono.just(new ArrayList<Station>()));
+                .onErrorResume(error -> Mono.just(new ArrayList<Station>()))));
     }
 
     /**
      * Find all airports within a bounding box around the specified station.
      * Uses local database for station lookup with external API fallback.
+     * Cached like {@link #getClosestStations}.
      */
-    @Cacheable(value = "airports", key = "#stationId + '-' + #closestBy")
     public Mono<List<Airport>> getClosestAirports(String stationId, Double closestBy) {
         log.info("Fetching closest airports for station: {}, closestBy: {}", stationId, closestBy);
 
+        String key = cacheKey(stationId);
+        long cacheStart = System.nanoTime();
+        List<Airport> cached = airportResultCache.get(key, closestBy);
+        long cacheNanos = System.nanoTime() - cacheStart;
+        if (cached != null) {
+            log.debug("Airports around {} within {} served from cache", stationId, closestBy);
+            return RequestTiming.record("cache", cacheNanos, Mono.just(cached));
+        }
+        double radius = airportResultCache.bucket(closestBy);
+
         // Try local database first, then fall back to external API
-        return Mono.fromCallable(() -> stationCacheRepository.findByStationId(stationId))
-                .flatMap(optionalStation -> {
-                    if (optionalStation.isPresent()) {
-                        StationCacheEntity stationEntity = optionalStation.get();
-                        log.info("Found station {} in local database at lat={}, lon={}",
-                                stationId, stationEntity.getLatitude(), stationEntity.getLongitude());
-
-                        Station station = Station.builder()
-                                .id(stationEntity.getStationId())
-                                .site(stationEntity.getSite())
-                                .state(stationEntity.getState())
-                                .country(stationEntity.getCountry())
-                                .latitude(stationEntity.getLatitude())
-                                .longitude(stationEntity.getLongitude())
-                                .elevation(stationEntity.getElevation())
-                                .build();
-
-                        return Mono.just(station);
-                    } else {
-                        log.info("Station {} not found in local database, trying external API", stationId);
-                        return getStationInfo(stationId);
-                    }
-                })
+        return RequestTiming.record("cache", cacheNanos, geoBulkhead.execute(airportResultCache.load(closestBy,
+                RequestTiming.stage("lookup", locationLookup.findStation(stationId))
+                .doOnNext(station -> log.info("Found station {} in local database at lat={}, lon={}",
+                        stationId, station.getLatitude(), station.getLongitude()))
+                .switchIfEmpty(Mono.defer(() -> {
+                    log.info("Station {} not found in local database, trying external API", stationId);
+                    return getStationInfo(stationId);
+                }))
                 .flatMap(station -> {
                     if (station == null || station.getLatitude() == null || station.getLongitude() == null) {
                         log.warn("Station {} not found or has invalid coordinates", stationId);
                         return Mono.just(new ArrayList<Airport>());
                     }
 
-                    // Calculate bounding box coordinates
-                    double minLat = station.getLatitude() - closestBy;
-                    double minLon = station.getLongitude() - closestBy;
-                    double maxLat = station.getLatitude() + closestBy;
-                    double maxLon = station.getLongitude() + closestBy;
+                    // Calculate bounding box coordinates for the cached radius bucket
+                    double minLat = station.getLatitude() - radius;
+                    double minLon = station.getLongitude() - radius;
+                    double maxLat = station.getLatitude() + radius;
+                    double maxLon = station.getLongitude() + radius;
 
                     log.debug("Bounding box for {}: lat[{},{}] lon[{},{}]",
                             stationId, minLat, maxLat, minLon, maxLon);
 
-                    return getAirportsInBoundingBox(minLat, maxLat, minLon, maxLon);
+                    return getAirportsInBoundingBox(minLat, maxLat, minLon, maxLon)
+                            .map(airports -> airportResultCache.put(key, station.getLatitude(), station.getLongitude(),
+                                    radius, airports, closestBy));
                 })
-                .switchIfEmpty(Mono.just(Collections.emptyList()))
+                .switchIfEmpty(Mono.just(Collections.<Airport>emptyList())))
                 .doOnError(error -> log.error("Error fetching airports for station {}", stationId, error))
-                .onErrorReturn(new ArrayList<>());
+                .onErrorReturn(new ArrayList<>())));
+    }
+
+    /**
+     * {@link #getClosestStations} with only the projected properties of each station.
+     * A cached result is projected in memory; a miss reads just the projected columns for the exact
+     * radius and is not cached, since the result cache holds whole stations.
+     */
+    public Mono<List<Station>> getClosestStations(String airportId, Double closestBy, Projection projection) {
+        if (projection.isAll()) {
+            return getClosestStations(airportId, closestBy);
+        }
+        log.info("Fetching closest stations for airport: {}, closestBy: {}, fields: {}", airportId, closestBy, projection);
+
+        long cacheStart = System.nanoTime();
+        List<Station> cached = stationResultCache.get(cacheKey(airportId), closestBy);
+        long cacheNanos = System.nanoTime() - cacheStart;
+        if (cached != null) {
+            log.debug("Stations around {} within {} projected from cache", airportId, closestBy);
+            return RequestTiming.record("cache", cacheNanos,
+                    Mono.just(cached.stream().map(station -> station.project(projection)).toList()));
+        }
+
+        return RequestTiming.record("cache", cacheNanos, geoBulkhead.execute(
+                RequestTiming.stage("lookup", locationLookup.findAirport(airportId))
+                .switchIfEmpty(Mono.defer(() -> {
+                    log.info("Airport {} not found in local database, trying external API", airportId);
+                    return getAirportInfo(airportId);
+                }))
+                .filter(airport -> airport.getLatitude() != null && airport.getLongitude() != null)
+                .flatMap(airport -> RequestTiming.stage("bbox", locationLookup.findStationsInBoundingBox(
+                        airport.getLatitude() - closestBy, airport.getLatitude() + closestBy,
+                        airport.getLongitude() - closestBy, airport.getLongitude() + closestBy, projection)))
+                .defaultIfEmpty(List.of())
+                .doOnError(error -> log.error("Error fetching stations for airport {}", airportId, error))
+                .onErrorReturn(List.of())));
+    }
+
+    /**
+     * {@link #getClosestAirports} with only the projected properties of each airport;
+     * see {@link #getClosestStations(String, Double, Projection)}.
+     */
+    public Mono<List<Airport>> getClosestAirports(String stationId, Double closestBy, Projection projection) {
+        if (projection.isAll()) {
+            return getClosestAirports(stationId, closestBy);
+        }
+        log.info("Fetching closest airports for station: {}, closestBy: {}, fields: {}", stationId, closestBy, projection);
+
+        long cacheStart = System.nanoTime();
+        List<Airport> cached = airportResultCache.get(cacheKey(stationId), closestBy);
+        long cacheNanos = System.nanoTime() - cacheStart;
+        if (cached != null) {
+            log.debug("Airports around {} within {} projected from cache", stationId, closestBy);
+            return RequestTiming.record("cache", cacheNanos,
+                    Mono.just(cached.stream().map(airport -> airport.project(projection)).toList()));
+        }
+
+        return RequestTiming.record("cache", cacheNanos, geoBulkhead.execute(
+                RequestTiming.stage("lookup", locationLookup.findStation(stationId))
+                .switchIfEmpty(Mono.defer(() -> {
+                    log.info("Station {} not found in local database, trying external API", stationId);
+                    return getStationInfo(stationId);
+                }))
+                .filter(station -> station.getLatitude() != null && station.getLongitude() != null)
+                .flatMap(station -> RequestTiming.stage("bbox", locationLookup.findAirportsInBoundingBox(
+                        station.getLatitude() - closestBy, station.getLatitude() + closestBy,
+                        station.getLongitude() - closestBy, station.getLongitude() + closestBy, projection)))
+                .defaultIfEmpty(List.of())
+                .doOnError(error -> log.error("Error fetching airports for station {}", stationId, error))
+                .onErrorReturn(List.of())));
+    }
+
+    /**
+     * Streaming variant of {@link #getClosestStations}: stations are emitted as they are read,
+     * so time to first byte and memory use do not depend on the size of the result.
+     * Streams are not cached.
+     */
+    public Flux<Station> streamClosestStations(String airportId, Double closestBy) {
+        log.info("Streaming closest stations for airport: {}, closestBy: {}", airportId, closestBy);
+
+        return geoBulkhead.executeMany(RequestTiming.stage("lookup", locationLookup.findAirport(airportId))
+                .switchIfEmpty(Mono.defer(() -> {
+                    log.info("Airport {} not found in local database, trying external API", airportId);
+                    return getAirportInfo(airportId);
+                }))
+                .filter(airport -> airport.getLatitude() != null && airport.getLongitude() != null)
+                .flatMapMany(airport -> RequestTiming.stage("bbox", locationLookup.streamStationsInBoundingBox(
+                        airport.getLatitude() - closestBy, airport.getLatitude() + closestBy,
+                        airport.getLongitude() - closestBy, airport.getLongitude() + closestBy)))
+                .doOnError(error -> log.error("Error streaming stations for airport {}", airportId, error))
+                .onErrorResume(error -> Flux.empty()));
+    }
+
+    /**
+     * Streaming variant of {@link #getClosestAirports}; see {@link #streamClosestStations}.
+     */
+    public Flux<Airport> streamClosestAirports(String stationId, Double closestBy) {
+        log.info("Streaming closest airports for station: {}, closestBy: {}", stationId, closestBy);
+
+        return geoBulkhead.executeMany(RequestTiming.stage("lookup", locationLookup.findStation(stationId))
+                .switchIfEmpty(Mono.defer(() -> {
+                    log.info("Station {} not found in local database, trying external API", stationId);
+                    return getStationInfo(stationId);
+                }))
+                .filter(station -> station.getLatitude() != null && station.getLongitude() != null)
+                .flatMapMany(station -> RequestTiming.stage("bbox", locationLookup.streamAirportsInBoundingBox(
+                        station.getLatitude() - closestBy, station.getLatitude() + closestBy,
+                        station.getLongitude() - closestBy, station.getLongitude() + closestBy)))
+                .doOnError(error -> log.error("Error streaming airports for station {}", stationId, error))
+                .onErrorResume(error -> Flux.empty()));
+    }
+
+    /**
+     * One page of the stations around the airport, after the given cursor (from the start if null).
+     * Pages are read by keyset, so deep pages cost the same as the first. Pages are not cached.
+     */
+    public Mono<LocationPage<Station>> getClosestStationsPage(String airportId, Double closestBy,
+                                                              SpatialCursor after, int limit) {
+        log.info("Fetching page of closest stations for airport: {}, closestBy: {}, limit: {}", airportId, closestBy, limit);
+
+        return geoBulkhead.execute(RequestTiming.stage("lookup", locationLookup.findAirport(airportId))
+                .switchIfEmpty(Mono.defer(() -> {
+                    log.info("Airport {} not found in local database, trying external API", airportId);
+                    return getAirportInfo(airportId);
+                }))
+                .filter(airport -> airport.getLatitude() != null && airport.getLongitude() != null)
+                .flatMap(airport -> RequestTiming.stage("bbox", locationLookup.findStationsPage(
+                        BoundingBox.around(airport.getLatitude(), airport.getLongitude(), closestBy), after, limit)))
+                .defaultIfEmpty(LocationPage.<Station>builder().items(List.of()).build())
+                .doOnError(error -> log.error("Error fetching page of stations for airport {}", airportId, error))
+                .onErrorReturn(LocationPage.<Station>builder().items(List.of()).build()));
+    }
+
+    /**
+     * One page of the airports around the station; see {@link #getClosestStationsPage}.
+     */
+    public Mono<LocationPage<Airport>> getClosestAirportsPage(String stationId, Double closestBy,
+                                                              SpatialCursor after, int limit) {
+        log.info("Fetching page of closest airports for station: {}, closestBy: {}, limit: {}", stationId, closestBy, limit);
+
+        return geoBulkhead.execute(RequestTiming.stage("lookup", locationLookup.findStation(stationId))
+                .switchIfEmpty(Mono.defer(() -> {
+                    log.info("Station {} not found in local database, trying external API", stationId);
+                    return getStationInfo(stationId);
+                }))
+                .filter(station -> station.getLatitude() != null && station.getLongitude() != null)
+                .flatMap(station -> RequestTiming.stage("bbox", locationLookup.findAirportsPage(
+                        BoundingBox.around(station.getLatitude(), station.getLongitude(), closestBy), after, limit)))
+                .defaultIfEmpty(LocationPage.<Airport>builder().items(List.of()).build())
+                .doOnError(error -> log.error("Error fetching page of airports for station {}", stationId, error))
+                .onErrorReturn(LocationPage.<Airport>builder().items(List.of()).build()));
+    }
+
+    /**
+     * Find the stations around many airports at once, keyed by airport ID in request order.
+     * Entries already cached by {@link #getClosestStations} are read in bulk; the remaining airports
+     * are resolved with one query (plus one external call for those unknown locally) and their
+     * stations found with a single sweep. The new results are cached per airport as well.
+     */
+    public Mono<Map<String, List<Station>>> getClosestStationsBatch(List<String> airportIds, Double closestBy) {
+        log.info("Fetching closest stations for {} airports, closestBy: {}", airportIds.size(), closestBy);
+
+        return batchLookup(stationResultCache, airportIds, closestBy,
+                locationLookup::findAirports, this::getAirportInfos,
+                Airport::getId, Airport::getLatitude, Airport::getLongitude,
+                locationLookup::findStationsInBoundingBoxes);
+    }
+
+    /**
+     * Find the airports around many stations at once, keyed by station ID in request order.
+     * Shares the per-station cache entries of {@link #getClosestAirports}.
+     */
+    public Mono<Map<String, List<Airport>>> getClosestAirportsBatch(List<String> stationIds, Double closestBy) {
+        log.info("Fetching closest airports for {} stations, closestBy: {}", stationIds.size(), closestBy);
+
+        return batchLookup(airportResultCache, stationIds, closestBy,
+                locationLookup::findStations, this::getStationInfos,
+                Station::getId, Station::getLatitude, Station::getLongitude,
+                locationLookup::findAirportsInBoundingBoxes);
+    }
+
+    /**
+     * Shared batch pipeline: bulk cache read, bulk origin resolution, one spatial sweep, bulk cache write.
+     *
+     * @param <O> origin type whose coordinates define the boxes
+     * @param <R> result type found inside the boxes
+     */
+    private <O, R> Mono<Map<String, List<R>>> batchLookup(
+            SpatialResultCache<R> resultCache, List<String> ids, Double closestBy,
+            Function<Collection<String>, Mono<List<O>>> findLocal,
+            Function<Collection<String>, Mono<List<O>>> findExternal,
+            Function<O, String> idOf, Function<O, Double> latitudeOf, Function<O, Double> longitudeOf,
+            Function<List<BoundingBox>, Mono<List<List<R>>>> findInBoxes) {
+
+        Map<String, String> keys = new LinkedHashMap<>();
+        for (String id : ids) {
+            keys.put(id, cacheKey(id));
+        }
+
+        long cacheStart = System.nanoTime();
+        Map<String, List<R>> cached = resultCache.getAll(keys, closestBy);
+        List<String> missing = keys.keySet().stream()
+                .filter(id -> !cached.containsKey(id))
+                .toList();
+        log.debug("Batch: {} cached, {} to resolve", cached.size(), missing.size());
+
+        long cacheNanos = System.nanoTime() - cacheStart;
+        if (missing.isEmpty()) {
+            return RequestTiming.record("cache", cacheNanos, Mono.just(inRequestOrder(keys, cached, Map.of())));
+        }
+
+        return RequestTiming.record("cache", cacheNanos, geoBulkhead.execute(resultCache.load(closestBy,
+                RequestTiming.stage("lookup", findLocal.apply(missing))
+                .flatMap(local -> {
+                    Map<String, O> origins = new HashMap<>();
+                    local.forEach(origin -> origins.put(idOf.apply(origin), origin));
+
+                    List<String> unknown = missing.stream()
+                            .filter(id -> !origins.containsKey(id))
+                            .toList();
+                    if (unknown.isEmpty()) {
+                        return Mono.just(origins);
+                    }
+
+                    log.info("{} of {} IDs not found in local database, trying external API",
+                            unknown.size(), missing.size());
+                    return findExternal.apply(unknown).map(external -> {
+                        external.forEach(origin -> origins.putIfAbsent(idOf.apply(origin), origin));
+                        return origins;
+                    });
+                })
+                .flatMap(origins -> {
+                    double radius = resultCache.bucket(closestBy);
+                    List<O> located = new ArrayList<>();
+                    List<BoundingBox> boxes = new ArrayList<>();
+                    for (String id : missing) {
+                        O origin = origins.get(id);
+                        if (origin != null && latitudeOf.apply(origin) != null && longitudeOf.apply(origin) != null) {
+                            located.add(origin);
+                            boxes.add(BoundingBox.around(latitudeOf.apply(origin), longitudeOf.apply(origin), radius));
+                        } else {
+                            log.warn("{} not found or has invalid coordinates", id);
+                        }
+                    }
+
+                    return RequestTiming.stage("bbox", findInBoxes.apply(boxes)).map(results -> {
+                        Map<String, List<R>> fresh = new HashMap<>();
+                        for (String id : missing) {
+                            fresh.put(id, new ArrayList<>());
+                        }
+                        for (int i = 0; i < located.size(); i++) {
+                            O origin = located.get(i);
+                            String id = idOf.apply(origin);
+                            fresh.put(id, resultCache.put(keys.get(id), latitudeOf.apply(origin),
+                                    longitudeOf.apply(origin), radius, results.get(i), closestBy));
+                        }
+                        return inRequestOrder(keys, cached, fresh);
+                    });
+                }))
+                .doOnError(error -> log.error("Error in batch lookup for {} IDs", ids.size(), error))
+                .onErrorResume(error -> Mono.just(inRequestOrder(keys, cached, Map.of())))));
+    }
+
+    /**
+     * Find the stations within {@code widthKm} of the great-circle route through the given airports,
+     * ordered by how far along the route they are. The route is cut into segments and each segment's
+     * box queried on its own, a few at a time, so the scanned area follows the route. Segments are at
+     * least as long as the width, so neighbouring boxes overlap by a bounded share, and lengthened further
+     * on long routes to keep within the maximum number of boxes. Stations found by overlapping boxes are
+     * kept once. Empty if a waypoint cannot be located.
+     */
+    public Mono<List<Station>> getStationsAlongRoute(List<String> waypointIds, double widthKm) {
+        log.info("Fetching stations along route {}, widthKm: {}", waypointIds, widthKm);
+
+        return alongRoute(waypointIds, widthKm,
+                box -> locationLookup.findStationsInBoundingBox(
+                        box.getMinLat(), box.getMaxLat(), box.getMinLon(), box.getMaxLon()),
+                Station::getId, Station::getLatitude, Station::getLongitude);
+    }
+
+    /**
+     * Find the airports within {@code widthKm} of the great-circle route through the given airports;
+     * see {@link #getStationsAlongRoute}.
+     */
+    public Mono<List<Airport>> getAirportsAlongRoute(List<String> waypointIds, double widthKm) {
+        log.info("Fetching airports along route {}, widthKm: {}", waypointIds, widthKm);
+
+        return alongRoute(waypointIds, widthKm,
+                box -> locationLookup.findAirportsInBoundingBox(
+                        box.getMinLat(), box.getMaxLat(), box.getMinLon(), box.getMaxLon()),
+                Airport::getId, Airport::getLatitude, Airport::getLongitude);
+    }
+
+    /**
+     * Shared corridor pipeline: resolve the waypoints at once, query the segment boxes, keep each location
+     * once as its box comes back if it is within the width, then order by along-track distance.
+     *
+     * @param <R> result type found inside the boxes
+     */
+    private <R> Mono<List<R>> alongRoute(
+            List<String> waypointIds, double widthKm,
+            Function<BoundingBox, Mono<List<R>>> findInBox,
+            Function<R, String> idOf, Function<R, Double> latitudeOf, Function<R, Double> longitudeOf) {
+
+        return geoBulkhead.execute(resolveWaypoints(waypointIds)
+                .flatMap(waypoints -> {
+                    if (waypoints.size() < waypointIds.size()) {
+                        log.warn("Route {} has waypoints not found or without coordinates", waypointIds);
+                        return Mono.just(new ArrayList<R>());
+                    }
+
+                    Route route = Route.through(waypoints, Airport::getLatitude, Airport::getLongitude);
+                    List<BoundingBox> boxes = corridor(route, widthKm);
+                    log.debug("Route {} is {} km long, searched in {} boxes",
+                            waypointIds, Math.round(route.getLengthKm()), boxes.size());
+
+                    return RequestTiming.stage("bbox", Flux.fromIterable(boxes)
+                                    .flatMap(findInBox, corridorConcurrency)
+                                    .collect(() -> new CorridorMatches<R>(), (matches, box) -> {
+                                        for (R location : box) {
+                                            String id = idOf.apply(location);
+                                            if (matches.positions.containsKey(id)
+                                                    || latitudeOf.apply(location) == null
+                                                    || longitudeOf.apply(location) == null) {
+                                                continue;
+                                            }
+                                            Route.Position position = route.locate(
+                                                    latitudeOf.apply(location), longitudeOf.apply(location));
+                                            matches.positions.put(id, position);
+                                            if (position.getDistanceKm() <= widthKm) {
+                                                matches.inside.add(location);
+                                            }
+                                        }
+                                    }))
+                            .map(matches -> {
+                                Map<String, Route.Position> positions = matches.positions;
+                                List<R> inside = matches.inside;
+                                inside.sort(Comparator
+                                        .comparingDouble((R location) -> positions.get(idOf.apply(location)).getAlongTrackKm())
+                                        .thenComparingDouble(location -> positions.get(idOf.apply(location)).getDistanceKm())
+                                        .thenComparing(idOf));
+                                log.info("Found {} locations along route {}", inside.size(), waypointIds);
+                                return inside;
+                            });
+                })
+                .doOnError(error -> log.error("Error in route lookup for {}", waypointIds, error))
+                .onErrorResume(error -> Mono.just(new ArrayList<>())));
+    }
+
+    /**
+     * The boxes to search a corridor in: segments of the configured length, but no shorter than the
+     * width, doubled while there would be more than the maximum number of boxes. Doubling stops at
+     * one segment per leg, where only a route with many legs can still go over the maximum.
+     */
+    private List<BoundingBox> corridor(Route route, double widthKm) {
+        double segmentKm = Math.max(Math.max(corridorSegmentKm, widthKm), route.getLengthKm() / corridorMaxBoxes);
+        List<BoundingBox> boxes = route.corridor(widthKm, segmentKm);
+        while (boxes.size() > corridorMaxBoxes && segmentKm < route.getLengthKm()) {
+            segmentKm *= 2;
+            boxes = route.corridor(widthKm, segmentKm);
+        }
+        return boxes;
+    }
+
+    /**
+     * The waypoint airports in route order, resolved with one query plus one external call for those
+     * unknown locally; waypoints that cannot be located are left out.
+     */
+    private Mono<List<Airport>> resolveWaypoints(List<String> waypointIds) {
+        List<String> distinct = waypointIds.stream().distinct().toList();
+        return RequestTiming.stage("lookup", locationLookup.findAirports(distinct))
+                .flatMap(local -> {
+                    Map<String, Airport> airports = new HashMap<>();
+                    local.forEach(airport -> airports.put(airport.getId(), airport));
+
+                    List<String> unknown = distinct.stream()
+                            .filter(id -> !airports.containsKey(id))
+                            .toList();
+                    if (unknown.isEmpty()) {
+                        return Mono.just(airports);
+                    }
+
+                    log.info("{} of {} waypoints not found in local database, trying external API",
+                            unknown.size(), distinct.size());
+                    return getAirportInfos(unknown).map(external -> {
+                        external.forEach(airport -> airports.putIfAbsent(airport.getId(), airport));
+                        return airports;
+                    });
+                })
+                .map(airports -> waypointIds.stream()
+                        .map(airports::get)
+                        .filter(airport -> airport != null
+                                && airport.getLatitude() != null && airport.getLongitude() != null)
+                        .toList());
+    }
+
+    private static <R> Map<String, List<R>> inRequestOrder(Map<String, String> keys,
+                                                           Map<String, List<R>> cached,
+                                                           Map<String, List<R>> fresh) {
+        Map<String, List<R>> result = new LinkedHashMap<>();
+        for (String id : keys.keySet()) {
+            List<R> value = cached.containsKey(id) ? cached.get(id) : fresh.get(id);
+            result.put(id, value != null ? value : new ArrayList<>());
+        }
+        return result;
+    }
+
+    private String cacheKey(String id) {
+        return airportDatabaseService.currentVersion() + "-" + id;
     }
 
     /**
@@ -144,14 +571,15 @@ public class AirportStationService {
     private Mono<Airport> getAirportInfo(String airportId) {
         log.debug("Fetching airport info from external API for: {}", airportId);
 
-        return aviationWebClient.get()
+        return RequestTiming.stage("external", aviationWebClient.get()
                 .uri(uriBuilder -> uriBuilder
                         .path("/api/data/metar")
                         .queryParam("ids", airportId)
                         .queryParam("format", "json")
                         .build())
                 .retrieve()
-                .bodyToMono(String.class)
+                .bodyToMono(String.class))
+                .publishOn(geoBulkhead.getScheduler())
                 .map(json -> parseAirportFromMetarJson(json, airportId))
                 .filter(airport -> airport != null)
                 .doOnNext(airport -> log.debug("Found airport from external API: {}", airport))
@@ -168,14 +596,15 @@ public class AirportStationService {
     private Mono<Station> getStationInfo(String stationId) {
         log.debug("Fetching station info from external API for: {}", stationId);
 
-        return aviationWebClient.get()
+        return RequestTiming.stage("external", aviationWebClient.get()
                 .uri(uriBuilder -> uriBuilder
                         .path("/api/data/metar")
                         .queryParam("ids", stationId)
                         .queryParam("format", "json")
                         .build())
                 .retrieve()
-                .bodyToMono(String.class)
+                .bodyToMono(String.class))
+                .publishOn(geoBulkhead.getScheduler())
                 .map(json -> parseStationFromMetarJson(json, stationId))
                 .doOnNext(station -> log.debug("Found station from external API: {}", station))
                 .onErrorResume(error -> {
@@ -184,6 +613,52 @@ public class AirportStationService {
                 });
     }
 
+    /**
+     * Fetch several airports from the external Aviation Weather API in one call.
+     */
+    private Mono<List<Airport>> getAirportInfos(Collection<String> airportIds) {
+        log.debug("Fetching {} airports from external API", airportIds.size());
+
+        return RequestTiming.stage("external", aviationWebClient.get()
+                .uri(uriBuilder -> uriBuilder
+                        .path("/api/data/metar")
+                        .queryParam("ids", String.join(",", airportIds))
+                        .queryParam("format", "json")
+                        .build())
+                .retrieve()
+                .bodyToMono(String.class))
+                .publishOn(geoBulkhead.getScheduler())
+                .map(this::parseAirportsFromMetarJson)
+                .defaultIfEmpty(new ArrayList<>())
+                .onErrorResume(error -> {
+                    log.warn("Error retrieving airports from external API for: {}", airportIds, error);
+                    return Mono.just(new ArrayList<>());
+                });
+    }
+
+    /**
+     * Fetch several stations from the external Aviation Weather API in one call.
+     */
+    private Mono<List<Station>> getStationInfos(Collection<String> stationIds) {
+        log.debug("Fetching {} stations from external API", stationIds.size());
+
+        return RequestTiming.stage("external", aviationWebClient.get()
+                .uri(uriBuilder -> uriBuilder
+                        .path("/api/data/metar")
+                        .queryParam("ids", String.join(",", stationIds))
+                        .queryParam("format", "json")
+                        .build())
+                .retrieve()
+                .bodyToMono(String.class))
+                .publishOn(geoBulkhead.getScheduler())
+                .map(this::parseStationsFromMetarJson)
+                .defaultIfEmpty(new ArrayList<>())
+                .onErrorResume(error -> {
+                    log.warn("Error retrieving stations from external API for: {}", stationIds, error);
+                    return Mono.just(new ArrayList<>());
+                });
+    }
+
     /**
      * Query local database for airports within specified geographic bounding box.
      */
@@ -191,23 +666,7 @@ public class AirportStationService {
                                                          double minLon, double maxLon) {
         log.debug("Searching airports in DB: lat[{},{}] lon[{},{}]", minLat, maxLat, minLon, maxLon);
 
-        return Mono.fromCallable(() ->
-                        airportCacheRepository.findInBoundingBox(minLat, maxLat, minLon, maxLon))
-                .map(entities -> {
-                    List<Airport> airports = new ArrayList<>();
-                    for (AirportCacheEntity entity : entities) {
-                        airports.add(Airport.builder()
-                                .id(entity.getAirportId())
-                                .name(entity.getName())
-                                .state(entity.getState())
-                                .country(entity.getCountry())
-                                .latitude(entity.getLatitude())
-                                .longitude(entity.getLongitude())
-                                .elevation(entity.getElevation())
-                                .build());
-                    }
-                    return airports;
-                })
+        return RequestTiming.stage("bbox", locationLookup.findAirportsInBoundingBox(minLat, maxLat, minLon, maxLon))
                 .doOnNext(airports -> log.info("Found {} airports in bounding box", airports.size()))
                 .defaultIfEmpty(new ArrayList<Airport>())
                 .onErrorResume(error -> {
@@ -223,25 +682,7 @@ public class AirportStationService {
                                                          double minLon, double maxLon) {
         log.debug("Searching stations in DB: lat[{},{}] lon[{},{}]", minLat, maxLat, minLon, maxLon);
 
-        return Mono.fromCallable(() -> {
-                    List<StationCacheEntity> entities = stationCacheRepository.findInBoundingBox(minLat, maxLat, minLon, maxLon);
-                    List<Station> stations = new ArrayList<>();
-
-                    for (StationCacheEntity entity : entities) {
-                        Station station = Station.builder()
-                                .id(entity.getStationId())
-                                .site(entity.getSite())
-                                .state(entity.getState())
-                                .country(entity.getCountry())
-                                .latitude(entity.getLatitude())
-                                .longitude(entity.getLongitude())
-                                .elevation(entity.getElevation())
-                                .build();
-                        stations.add(station);
-                    }
-
-                    return stations;
-                })
+        return RequestTiming.stage("bbox", locationLookup.findStationsInBoundingBox(minLat, maxLat, minLon, maxLon))
                 .doOnNext(stations -> log.info("Found {} stations in bounding box", stations.size()))
                 .defaultIfEmpty(new ArrayList<Station>())
                 .onErrorResume(error -> {
@@ -258,17 +699,7 @@ public class AirportStationService {
             JsonNode root = objectMapper.readTree(json);
 
             if (root.isArray() && root.size() > 0) {
-                JsonNode first = root.get(0);
-
-                return Airport.builder()
-                        .id(first.path("icaoId").asText(airportId))
-                        .name(first.path("name").asText(first.path("site").asText()))
-                        .state(first.path("state").asText())
-                        .country(first.path("country").asText())
-                        .latitude(first.path("lat").asDouble())
-                        .longitude(first.path("lon").asDouble())
-                        .elevation(first.path("elev").asDouble())
-                        .build();
+                return airportFromMetar(root.get(0), airportId);
             }
 
             log.warn("No data found for airport: {}", airportId);
@@ -288,17 +719,7 @@ public class AirportStationService {
             JsonNode root = objectMapper.readTree(json);
 
             if (root.isArray() && root.size() > 0) {
-                JsonNode first = root.get(0);
-
-                return Station.builder()
-                        .id(first.path("icaoId").asText(stationId))
-                        .site(first.path("name").asText(first.path("site").asText()))
-                        .state(first.path("state").asText())
-                        .country(first.path("country").asText())
-                        .latitude(first.path("lat").asDouble())
-                        .longitude(first.path("lon").asDouble())
-                        .elevation(first.path("elev").asInt())
-                        .build();
+                return stationFromMetar(root.get(0), stationId);
             }
 
             log.warn("No data found for station: {}", stationId);
@@ -309,4 +730,67 @@ public class AirportStationService {
             return null;
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Parse every airport in a multi-ID METAR JSON response.
+     */
+    private List<Airport> parseAirportsFromMetarJson(String json) {
+        List<Airport> airports = new ArrayList<>();
+        try {
+            for (JsonNode node : objectMapper.readTree(json)) {
+                airports.add(airportFromMetar(node, null));
+            }
+        } catch (Exception e) {
+            log.error("Error parsing airports JSON", e);
+        }
+        return airports;
+    }
+
+    /**
+     * Parse every station in a multi-ID METAR JSON response.
+     */
+    private List<Station> parseStationsFromMetarJson(String json) {
+        List<Station> stations = new ArrayList<>();
+        try {
+            for (JsonNode node : objectMapper.readTree(json)) {
+                stations.add(stationFromMetar(node, null));
+            }
+        } catch (Exception e) {
+            log.error("Error parsing stations JSON", e);
+        }
+        return stations;
+    }
+
+    private Airport airportFromMetar(JsonNode node, String airportId) {
+        return Airport.builder()
+                .id(node.path("icaoId").asText(airportId))
+                .name(node.path("name").asText(node.path("site").asText()))
+                .state(node.path("state").asText())
+                .country(node.path("country").asText())
+                .latitude(node.path("lat").asDouble())
+                .longitude(node.path("lon").asDouble())
+                .elevation(node.path("elev").asDouble())
+                .build();
+    }
+
+    private Station stationFromMetar(JsonNode node, String stationId) {
+        return Station.builder()
+                .id(node.path("icaoId").asText(stationId))
+                .site(node.path("name").asText(node.path("site").asText()))
+                .state(node.path("state").asText())
+                .country(node.path("country").asText())
+                .latitude(node.path("lat").asDouble())
+                .longitude(node.path("lon").asDouble())
+                .elevation(node.path("elev").asInt())
+                .build();
+    }
+
+    /**
+     * Locations met so far by a corridor search, fed box by box: where each lies relative to the route,
+     * and those within the width in the order they were met.
+     */
+    private static final class CorridorMatches<R> {
+        final Map<String, Route.Position> positions = new HashMap<>();
+        final List<R> inside = new ArrayList<>();
+    }
+}
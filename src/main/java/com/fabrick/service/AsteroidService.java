@@ -1,8 +1,10 @@
 package com.fabrick.service;
 
+import com.fabrick.bulkhead.Bulkhead;
 import com.fabrick.model.AsteroidPath;
 import com.fabrick.dto.NasaAsteroidResponse;
 import com.fabrick.dto.NasaAsteroidResponse.CloseApproachData;
+import com.fabrick.timing.RequestTiming;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -23,31 +25,52 @@ import java.util.Collections;
 public class AsteroidService {
 
     private final WebClient nasaWebClient;
+    private final Bulkhead asteroidBulkhead;
 
     @Value("${nasa.api.key:DEMO_KEY}")
     private String apiKey;
 
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
 
+    /**
+     * Start of the query window when the caller gives none: 100 years back.
+     */
+    public static LocalDate defaultFromDate() {
+        return LocalDate.now().minusYears(100);
+    }
+
+    /**
+     * End of the query window when the caller gives none: today.
+     */
+    public static LocalDate defaultToDate() {
+        return LocalDate.now();
+    }
+
     /**
      * Retrieve asteroid path data showing transitions between orbiting bodies.
      * The method fetches close approach data from NASA API, filters by date range,
      * and identifies when the asteroid transitions from one planet to another.
+     * Runs inside the asteroid bulkhead; processing happens on its scheduler, not the event loop.
+     * Misses are loaded through the cache, so concurrent requests for the same key share one call.
+     * The NASA call and processing are timed as request stages when run in a request's context,
+     * which a load started by the cache is not.
      */
-    @Cacheable(value = "asteroids", key = "#asteroidId + '-' + #fromDate + '-' + #toDate")
+    @Cacheable(value = "asteroids", key = "#asteroidId + '-' + #fromDate + '-' + #toDate", sync = true)
     public Mono<List<AsteroidPath>> getAsteroidPaths(String asteroidId, LocalDate fromDate, LocalDate toDate) {
         log.info("Fetching asteroid paths for ID: {}, from: {}, to: {}", asteroidId, fromDate, toDate);
 
-        return nasaWebClient.get()
+        return asteroidBulkhead.execute(RequestTiming.stage("external", nasaWebClient.get()
                 .uri(uriBuilder -> uriBuilder
                         .path("/neo/{asteroidId}")
                         .queryParam("api_key", apiKey)
                         .build(asteroidId))
                 .retrieve()
-                .bodyToMono(NasaAsteroidResponse.class)
-                .map(response -> this.processAsteroidData(response, fromDate, toDate))
+                .bodyToMono(NasaAsteroidResponse.class))
+                .publishOn(asteroidBulkhead.getScheduler())
+                .flatMap(response -> RequestTiming.stage("process",
+                        Mono.fromSupplier(() -> this.processAsteroidData(response, fromDate, toDate))))
                 .doOnError(error -> log.error("Error fetching asteroid data", error))
-                .onErrorReturn(Collections.emptyList());
+                .onErrorReturn(Collections.emptyList()));
     }
 
     /**
@@ -58,9 +81,9 @@ public class AsteroidService {
      * 3. Detect planet changes (e.g., from Jupiter to Earth)
      * 4. Create path objects for each transition with from/to dates
      */
-    private List<AsteroidPath> processAsteroidData(NasaAsteroidResponse response,
-                                                   LocalDate fromDate,
-                                                   LocalDate toDate) {
+    List<AsteroidPath> processAsteroidData(NasaAsteroidResponse response,
+                                           LocalDate fromDate,
+                                           LocalDate toDate) {
         List<AsteroidPath> paths = new ArrayList<>();
         List<CloseApproachData> approaches = response.getCloseApproachData();
 
@@ -0,0 +1,67 @@
+package com.fabrick.service;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.BiPredicate;
+
+/**
+ * Incremental difference between the rows currently stored and a freshly parsed dataset,
+ * both keyed by ICAO code. Changed rows are updated in place on the existing (managed)
+ * instance so their primary key is preserved.
+ */
+@Getter
+public class DatasetDiff<E> {
+
+    private final List<E> upserts = new ArrayList<>();
+    private final List<E> deletes = new ArrayList<>();
+    private int inserted;
+    private int updated;
+    private int unchanged;
+
+    /**
+     * Compare current and incoming rows.
+     *
+     * @param sameContent returns true when the two rows carry the same business data
+     * @param copyInto    copies business data from the incoming row (second) into the current one (first)
+     */
+    public static <E> DatasetDiff<E> compute(Map<String, E> current,
+                                             Map<String, E> incoming,
+                                             BiPredicate<E, E> sameContent,
+                                             BiConsumer<E, E> copyInto) {
+        DatasetDiff<E> diff = new DatasetDiff<>();
+
+        for (Map.Entry<String, E> entry : incoming.entrySet()) {
+            E existing = current.get(entry.getKey());
+            if (existing == null) {
+                diff.upserts.add(entry.getValue());
+                diff.inserted++;
+            } else if (sameContent.test(existing, entry.getValue())) {
+                diff.unchanged++;
+            } else {
+                copyInto.accept(existing, entry.getValue());
+                diff.upserts.add(existing);
+                diff.updated++;
+            }
+        }
+
+        for (Map.Entry<String, E> entry : current.entrySet()) {
+            if (!incoming.containsKey(entry.getKey())) {
+                diff.deletes.add(entry.getValue());
+            }
+        }
+
+        return diff;
+    }
+
+    public int getDeleted() {
+        return deletes.size();
+    }
+
+    public boolean isEmpty() {
+        return upserts.isEmpty() && deletes.isEmpty();
+    }
+}
@@ -0,0 +1,21 @@
+package com.fabrick.service;
+
+import com.fabrick.entity.LocationEntity;
+import com.fabrick.model.DatasetSnapshot;
+
+import java.util.Collection;
+
+/**
+ * Told about every new dataset version, to rebuild state derived from the whole dataset.
+ */
+public interface DatasetListener {
+
+    /**
+     * Called once the version's locations are committed and before the version is served,
+     * so nothing derived from it can be looked up under the previous version. Throwing fails the reload
+     * and keeps the previous version current; the next reload offers the version again.
+     *
+     * @param locations every location of the version
+     */
+    void datasetLoaded(DatasetSnapshot snapshot, Collection<LocationEntity> locations);
+}
@@ -0,0 +1,69 @@
+package com.fabrick.service;
+
+import io.micrometer.core.instrument.Timer;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs blocking JPA calls off the event loop.
+ * A bounded scheduler, with as many threads as connections, limits concurrency by itself. A scheduler
+ * starting a thread per call, such as one of virtual threads, does not, so it is paired with connection
+ * permits: the calls beyond them wait for a permit on their own (cheap) thread. Either way the time from
+ * submission to the call starting is recorded, so pool starvation is visible.
+ */
+public class JpaExecutor {
+
+    private final Scheduler scheduler;
+    private final Semaphore permits;
+    private final Timer queueWait;
+
+    /**
+     * Executor for a scheduler that bounds concurrency itself.
+     */
+    public JpaExecutor(Scheduler scheduler, Timer queueWait) {
+        this(scheduler, null, queueWait);
+    }
+
+    /**
+     * Executor for an unbounded scheduler, running at most as many calls as there are permits.
+     */
+    public JpaExecutor(Scheduler scheduler, Semaphore permits, Timer queueWait) {
+        this.scheduler = scheduler;
+        this.permits = permits;
+        this.queueWait = queueWait;
+    }
+
+    /**
+     * Execute the call on the configured scheduler, once a permit is available if there are permits.
+     * A null result completes empty.
+     */
+    public <T> Mono<T> execute(Callable<T> call) {
+        return Mono.defer(() -> {
+            long enqueuedAt = System.nanoTime();
+            return Mono.fromCallable(() -> {
+                if (permits == null) {
+                    queueWait.record(System.nanoTime() - enqueuedAt, TimeUnit.NANOSECONDS);
+                    return call.call();
+                }
+                permits.acquire();
+                queueWait.record(System.nanoTime() - enqueuedAt, TimeUnit.NANOSECONDS);
+                try {
+                    return call.call();
+                } finally {
+                    permits.release();
+                }
+            }).subscribeOn(scheduler);
+        });
+    }
+
+    /**
+     * Permits not currently held; 0 without permits.
+     */
+    public int availablePermits() {
+        return permits != null ? permits.availablePermits() : 0;
+    }
+}
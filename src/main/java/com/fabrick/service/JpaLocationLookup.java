@@ -0,0 +1,218 @@
+package com.fabrick.service;
+
+import com.fabrick.entity.AirportCacheEntity;
+import com.fabrick.entity.StationCacheEntity;
+import com.fabrick.geo.BoundingBox;
+import com.fabrick.geo.GeoCell;
+import com.fabrick.geo.GeoCell.CellRange;
+import com.fabrick.geo.SpatialCursor;
+import com.fabrick.model.Airport;
+import com.fabrick.model.LocationPage;
+import com.fabrick.model.Projection;
+import com.fabrick.model.Station;
+import com.fabrick.repository.AirportCacheRepository;
+import com.fabrick.repository.StationCacheRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * JPA-backed lookup. Repository calls block on JDBC, so they are handed to the
+ * {@link JpaExecutor} and never run on the Netty event loop.
+ */
+@Component
+@ConditionalOnProperty(name = "fabrick.persistence.mode", havingValue = "jpa", matchIfMissing = true)
+@RequiredArgsConstructor
+public class JpaLocationLookup implements LocationLookup {
+
+    /**
+     * Rows per query when streaming; bounds memory per request regardless of the result size.
+     */
+    static final int STREAM_PAGE_SIZE = 500;
+
+    private final AirportCacheRepository airportCacheRepository;
+    private final StationCacheRepository stationCacheRepository;
+    private final JpaExecutor jpaExecutor;
+
+    @Override
+    public Mono<Airport> findAirport(String airportId) {
+        return jpaExecutor.execute(() -> airportCacheRepository.findByAirportId(airportId))
+                .flatMap(optionalAirport -> Mono.justOrEmpty(optionalAirport.map(this::toAirport)));
+    }
+
+    @Override
+    public Mono<Station> findStation(String stationId) {
+        return jpaExecutor.execute(() -> stationCacheRepository.findByStationId(stationId))
+                .flatMap(optionalStation -> Mono.justOrEmpty(optionalStation.map(this::toStation)));
+    }
+
+    @Override
+    public Mono<List<Airport>> findAirportsInBoundingBox(double minLat, double maxLat, double minLon, double maxLon) {
+        return jpaExecutor.execute(() -> airportCacheRepository.findInBoundingBox(minLat, maxLat, minLon, maxLon));
+    }
+
+    @Override
+    public Mono<List<Station>> findStationsInBoundingBox(double minLat, double maxLat, double minLon, double maxLon) {
+        return jpaExecutor.execute(() -> stationCacheRepository.findInBoundingBox(minLat, maxLat, minLon, maxLon));
+    }
+
+    @Override
+    public Mono<List<Airport>> findAirportsInBoundingBox(double minLat, double maxLat, double minLon, double maxLon,
+                                                         Projection projection) {
+        return jpaExecutor.execute(() -> airportCacheRepository.findInBoundingBox(
+                minLat, maxLat, minLon, maxLon, projection));
+    }
+
+    @Override
+    public Mono<List<Station>> findStationsInBoundingBox(double minLat, double maxLat, double minLon, double maxLon,
+                                                         Projection projection) {
+        return jpaExecutor.execute(() -> stationCacheRepository.findInBoundingBox(
+                minLat, maxLat, minLon, maxLon, projection));
+    }
+
+    @Override
+    public Flux<Airport> streamAirportsInBoundingBox(double minLat, double maxLat, double minLon, double maxLon) {
+        return Flux.fromIterable(GeoCell.cover(minLat, maxLat, minLon, maxLon))
+                .concatMap(range -> airportPages(range, minLat, maxLat, minLon, maxLon, range.getFrom() - 1, 0L), 1)
+                .map(this::toAirport);
+    }
+
+    @Override
+    public Flux<Station> streamStationsInBoundingBox(double minLat, double maxLat, double minLon, double maxLon) {
+        return Flux.fromIterable(GeoCell.cover(minLat, maxLat, minLon, maxLon))
+                .concatMap(range -> stationPages(range, minLat, maxLat, minLon, maxLon, range.getFrom() - 1, 0L), 1)
+                .map(this::toStation);
+    }
+
+    @Override
+    public Mono<LocationPage<Airport>> findAirportsPage(BoundingBox box, SpatialCursor after, int limit) {
+        return jpaExecutor.execute(() -> LocationPage.of(
+                readPage(box, after, limit, (range, start, rows) -> airportCacheRepository.findPageInCellRange(
+                        range.getFrom(), range.getTo(),
+                        box.getMinLat(), box.getMaxLat(), box.getMinLon(), box.getMaxLon(),
+                        start.getCellId(), start.getId(), Limit.of(rows))),
+                limit,
+                airport -> new SpatialCursor(airport.getCellId(), airport.getId()),
+                this::toAirport));
+    }
+
+    @Override
+    public Mono<LocationPage<Station>> findStationsPage(BoundingBox box, SpatialCursor after, int limit) {
+        return jpaExecutor.execute(() -> LocationPage.of(
+                readPage(box, after, limit, (range, start, rows) -> stationCacheRepository.findPageInCellRange(
+                        range.getFrom(), range.getTo(),
+                        box.getMinLat(), box.getMaxLat(), box.getMinLon(), box.getMaxLon(),
+                        start.getCellId(), start.getId(), Limit.of(rows))),
+                limit,
+                station -> new SpatialCursor(station.getCellId(), station.getId()),
+                this::toStation));
+    }
+
+    @Override
+    public Mono<List<Airport>> findAirports(Collection<String> airportIds) {
+        return jpaExecutor.execute(() -> airportCacheRepository.findByAirportIdIn(airportIds));
+    }
+
+    @Override
+    public Mono<List<Station>> findStations(Collection<String> stationIds) {
+        return jpaExecutor.execute(() -> stationCacheRepository.findByStationIdIn(stationIds));
+    }
+
+    @Override
+    public Mono<List<List<Airport>>> findAirportsInBoundingBoxes(List<BoundingBox> boxes) {
+        return jpaExecutor.execute(() -> airportCacheRepository.findInBoundingBoxes(boxes));
+    }
+
+    @Override
+    public Mono<List<List<Station>>> findStationsInBoundingBoxes(List<BoundingBox> boxes) {
+        return jpaExecutor.execute(() -> stationCacheRepository.findInBoundingBoxes(boxes));
+    }
+
+    /**
+     * Read up to {@code limit + 1} rows after the cursor, walking the box's cell ranges in key order
+     * and skipping the ranges that lie entirely before it.
+     */
+    private <E> List<E> readPage(BoundingBox box, SpatialCursor after, int limit, RangeQuery<E> query) {
+        List<E> rows = new ArrayList<>();
+        for (CellRange range : GeoCell.cover(box.getMinLat(), box.getMaxLat(), box.getMinLon(), box.getMaxLon())) {
+            SpatialCursor start = SpatialCursor.startOf(range, after);
+            if (start != null) {
+                rows.addAll(query.read(range, start, limit + 1 - rows.size()));
+            }
+            if (rows.size() > limit) {
+                break;
+            }
+        }
+        return rows;
+    }
+
+    @FunctionalInterface
+    private interface RangeQuery<E> {
+        List<E> read(CellRange range, SpatialCursor start, int maxRows);
+    }
+
+    /**
+     * Keyset pages of one cell range; the next page is only queried once the previous one
+     * has been consumed downstream.
+     */
+    private Flux<AirportCacheEntity> airportPages(CellRange range, double minLat, double maxLat,
+                                                  double minLon, double maxLon, long afterCell, long afterId) {
+        return jpaExecutor.execute(() -> airportCacheRepository.findPageInCellRange(range.getFrom(), range.getTo(),
+                        minLat, maxLat, minLon, maxLon, afterCell, afterId, Limit.of(STREAM_PAGE_SIZE)))
+                .flatMapMany(page -> {
+                    Flux<AirportCacheEntity> rows = Flux.fromIterable(page);
+                    if (page.size() < STREAM_PAGE_SIZE) {
+                        return rows;
+                    }
+                    AirportCacheEntity last = page.get(page.size() - 1);
+                    return rows.concatWith(Flux.defer(() -> airportPages(
+                            range, minLat, maxLat, minLon, maxLon, last.getCellId(), last.getId())));
+                });
+    }
+
+    private Flux<StationCacheEntity> stationPages(CellRange range, double minLat, double maxLat,
+                                                  double minLon, double maxLon, long afterCell, long afterId) {
+        return jpaExecutor.execute(() -> stationCacheRepository.findPageInCellRange(range.getFrom(), range.getTo(),
+                        minLat, maxLat, minLon, maxLon, afterCell, afterId, Limit.of(STREAM_PAGE_SIZE)))
+                .flatMapMany(page -> {
+                    Flux<StationCacheEntity> rows = Flux.fromIterable(page);
+                    if (page.size() < STREAM_PAGE_SIZE) {
+                        return rows;
+                    }
+                    StationCacheEntity last = page.get(page.size() - 1);
+                    return rows.concatWith(Flux.defer(() -> stationPages(
+                            range, minLat, maxLat, minLon, maxLon, last.getCellId(), last.getId())));
+                });
+    }
+
+    Airport toAirport(AirportCacheEntity entity) {
+        return Airport.builder()
+                .id(entity.getAirportId())
+                .name(entity.getName())
+                .state(entity.getState())
+                .country(entity.getCountry())
+                .latitude(entity.getLatitude())
+                .longitude(entity.getLongitude())
+                .elevation(entity.getElevation())
+                .build();
+    }
+
+    Station toStation(StationCacheEntity entity) {
+        return Station.builder()
+                .id(entity.getStationId())
+                .site(entity.getSite())
+                .state(entity.getState())
+                .country(entity.getCountry())
+                .latitude(entity.getLatitude())
+                .longitude(entity.getLongitude())
+                .elevation(entity.getElevation())
+                .build();
+    }
+}
@@ -0,0 +1,90 @@
+package com.fabrick.service;
+
+import com.fabrick.geo.BoundingBox;
+import com.fabrick.geo.SpatialCursor;
+import com.fabrick.model.Airport;
+import com.fabrick.model.LocationPage;
+import com.fabrick.model.Projection;
+import com.fabrick.model.Station;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Reactive access to the locally stored airports and stations.
+ * The implementation is selected with {@code fabrick.persistence.mode}:
+ * {@code jpa} (default) or {@code r2dbc}.
+ */
+public interface LocationLookup {
+
+    /**
+     * Airport by ICAO code, or empty if it is not in the local database.
+     */
+    Mono<Airport> findAirport(String airportId);
+
+    /**
+     * Station by ICAO code, or empty if it is not in the local database.
+     */
+    Mono<Station> findStation(String stationId);
+
+    Mono<List<Airport>> findAirportsInBoundingBox(double minLat, double maxLat, double minLon, double maxLon);
+
+    Mono<List<Station>> findStationsInBoundingBox(double minLat, double maxLat, double minLon, double maxLon);
+
+    /**
+     * Airports inside the box with only the projected properties set, reading just their columns.
+     */
+    Mono<List<Airport>> findAirportsInBoundingBox(double minLat, double maxLat, double minLon, double maxLon,
+                                                  Projection projection);
+
+    /**
+     * Stations inside the box with only the projected properties set, reading just their columns.
+     */
+    Mono<List<Station>> findStationsInBoundingBox(double minLat, double maxLat, double minLon, double maxLon,
+                                                  Projection projection);
+
+    /**
+     * Airports inside the box, emitted as they are read so memory does not grow with the result.
+     * Rows are fetched only as fast as the subscriber requests them.
+     */
+    Flux<Airport> streamAirportsInBoundingBox(double minLat, double maxLat, double minLon, double maxLon);
+
+    /**
+     * Stations inside the box, emitted as they are read so memory does not grow with the result.
+     * Rows are fetched only as fast as the subscriber requests them.
+     */
+    Flux<Station> streamStationsInBoundingBox(double minLat, double maxLat, double minLon, double maxLon);
+
+    /**
+     * One page of the airports inside the box, in (cell, id) order after the cursor
+     * (from the start if null). Each page is an index seek, so page N costs the same as page 1.
+     */
+    Mono<LocationPage<Airport>> findAirportsPage(BoundingBox box, SpatialCursor after, int limit);
+
+    /**
+     * One page of the stations inside the box; see {@link #findAirportsPage}.
+     */
+    Mono<LocationPage<Station>> findStationsPage(BoundingBox box, SpatialCursor after, int limit);
+
+    /**
+     * Airports for the given ICAO codes, resolved together; unknown codes are left out.
+     */
+    Mono<List<Airport>> findAirports(Collection<String> airportIds);
+
+    /**
+     * Stations for the given ICAO codes, resolved together; unknown codes are left out.
+     */
+    Mono<List<Station>> findStations(Collection<String> stationIds);
+
+    /**
+     * Airports inside each box, in the order of the boxes, answered with a single sweep.
+     */
+    Mono<List<List<Airport>>> findAirportsInBoundingBoxes(List<BoundingBox> boxes);
+
+    /**
+     * Stations inside each box, in the order of the boxes, answered with a single sweep.
+     */
+    Mono<List<List<Station>>> findStationsInBoundingBoxes(List<BoundingBox> boxes);
+}
@@ -0,0 +1,113 @@
+package com.fabrick.service;
+
+import com.fabrick.geo.BoundingBox;
+import com.fabrick.geo.SpatialCursor;
+import com.fabrick.geo.SpatialSweep;
+import com.fabrick.model.Airport;
+import com.fabrick.model.LocationPage;
+import com.fabrick.model.Projection;
+import com.fabrick.model.Station;
+import com.fabrick.repository.R2dbcLocationRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * R2DBC-backed lookup: the whole path from controller to database stays non-blocking
+ * and never leaves the event loop.
+ */
+@Component
+@ConditionalOnProperty(name = "fabrick.persistence.mode", havingValue = "r2dbc")
+@RequiredArgsConstructor
+public class R2dbcLocationLookup implements LocationLookup {
+
+    private final R2dbcLocationRepository r2dbcLocationRepository;
+
+    @Override
+    public Mono<Airport> findAirport(String airportId) {
+        return r2dbcLocationRepository.findAirportById(airportId);
+    }
+
+    @Override
+    public Mono<Station> findStation(String stationId) {
+        return r2dbcLocationRepository.findStationById(stationId);
+    }
+
+    @Override
+    public Mono<List<Airport>> findAirportsInBoundingBox(double minLat, double maxLat, double minLon, double maxLon) {
+        return r2dbcLocationRepository.findAirportsInBoundingBox(minLat, maxLat, minLon, maxLon).collectList();
+    }
+
+    @Override
+    public Mono<List<Station>> findStationsInBoundingBox(double minLat, double maxLat, double minLon, double maxLon) {
+        return r2dbcLocationRepository.findStationsInBoundingBox(minLat, maxLat, minLon, maxLon).collectList();
+    }
+
+    @Override
+    public Mono<List<Airport>> findAirportsInBoundingBox(double minLat, double maxLat, double minLon, double maxLon,
+                                                         Projection projection) {
+        return r2dbcLocationRepository.findAirportsInBoundingBox(minLat, maxLat, minLon, maxLon, projection)
+                .collectList();
+    }
+
+    @Override
+    public Mono<List<Station>> findStationsInBoundingBox(double minLat, double maxLat, double minLon, double maxLon,
+                                                         Projection projection) {
+        return r2dbcLocationRepository.findStationsInBoundingBox(minLat, maxLat, minLon, maxLon, projection)
+                .collectList();
+    }
+
+    @Override
+    public Flux<Airport> streamAirportsInBoundingBox(double minLat, double maxLat, double minLon, double maxLon) {
+        return r2dbcLocationRepository.findAirportsInBoundingBox(minLat, maxLat, minLon, maxLon);
+    }
+
+    @Override
+    public Flux<Station> streamStationsInBoundingBox(double minLat, double maxLat, double minLon, double maxLon) {
+        return r2dbcLocationRepository.findStationsInBoundingBox(minLat, maxLat, minLon, maxLon);
+    }
+
+    @Override
+    public Mono<LocationPage<Airport>> findAirportsPage(BoundingBox box, SpatialCursor after, int limit) {
+        return r2dbcLocationRepository.findAirportsPage(box, after, limit)
+                .collectList()
+                .map(rows -> LocationPage.of(rows, limit, Map.Entry::getKey, Map.Entry::getValue));
+    }
+
+    @Override
+    public Mono<LocationPage<Station>> findStationsPage(BoundingBox box, SpatialCursor after, int limit) {
+        return r2dbcLocationRepository.findStationsPage(box, after, limit)
+                .collectList()
+                .map(rows -> LocationPage.of(rows, limit, Map.Entry::getKey, Map.Entry::getValue));
+    }
+
+    @Override
+    public Mono<List<Airport>> findAirports(Collection<String> airportIds) {
+        return r2dbcLocationRepository.findAirportsByIds(airportIds).collectList();
+    }
+
+    @Override
+    public Mono<List<Station>> findStations(Collection<String> stationIds) {
+        return r2dbcLocationRepository.findStationsByIds(stationIds).collectList();
+    }
+
+    @Override
+    public Mono<List<List<Airport>>> findAirportsInBoundingBoxes(List<BoundingBox> boxes) {
+        return r2dbcLocationRepository.findAirportsInCover(boxes)
+                .collectList()
+                .map(candidates -> SpatialSweep.assign(boxes, candidates, Airport::getLatitude, Airport::getLongitude));
+    }
+
+    @Override
+    public Mono<List<List<Station>>> findStationsInBoundingBoxes(List<BoundingBox> boxes) {
+        return r2dbcLocationRepository.findStationsInCover(boxes)
+                .collectList()
+                .map(candidates -> SpatialSweep.assign(boxes, candidates, Station::getLatitude, Station::getLongitude));
+    }
+}
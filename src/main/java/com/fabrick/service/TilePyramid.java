@@ -0,0 +1,177 @@
+package com.fabrick.service;
+
+import com.fabrick.geo.WebMercator;
+import com.fabrick.model.Airport;
+import com.fabrick.model.MapTile;
+import com.fabrick.model.TileCluster;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * The locations of one dataset version indexed for map tiles, built once when the version is loaded.
+ * Points are sorted by their {@link WebMercator} key at the deepest level, so the points of any tile
+ * are one contiguous run found by binary search. Each tile is split into a grid of
+ * 2^gridBits × 2^gridBits cells; for every zoom up to {@code clusterZoom} the points are aggregated
+ * per cell ahead of time, so a low-zoom tile reads at most 4^gridBits clusters instead of its points.
+ * <p>
+ * A tile returns its points when it holds at most {@code maxPoints}, its clusters otherwise. Tiles
+ * deeper than the precomputed zooms cluster their own run of points, which is small by then.
+ */
+public class TilePyramid {
+
+    private final long version;
+    private final int gridBits;
+    private final int maxPoints;
+    private final long[] pointKeys;
+    private final List<Airport> points;
+    private final Level[] levels;
+
+    private TilePyramid(long version, int gridBits, int maxPoints, long[] pointKeys, List<Airport> points,
+                        Level[] levels) {
+        this.version = version;
+        this.gridBits = gridBits;
+        this.maxPoints = maxPoints;
+        this.pointKeys = pointKeys;
+        this.points = points;
+        this.levels = levels;
+    }
+
+    /**
+     * Index the located airports; those without coordinates are left out.
+     */
+    public static TilePyramid build(long version, Collection<Airport> locations,
+                                    int clusterZoom, int gridBits, int maxPoints) {
+        if (gridBits < 0 || clusterZoom < -1 || clusterZoom + gridBits > WebMercator.MAX_LEVEL) {
+            throw new IllegalArgumentException("clusterZoom + gridBits must not exceed " + WebMercator.MAX_LEVEL);
+        }
+
+        List<Airport> points = locations.stream()
+                .filter(location -> location.getLatitude() != null && location.getLongitude() != null)
+                .sorted(Comparator.comparingLong(TilePyramid::pointKey))
+                .toList();
+        long[] pointKeys = points.stream().mapToLong(TilePyramid::pointKey).toArray();
+
+        Level[] levels = new Level[clusterZoom + 1];
+        for (int z = 0; z <= clusterZoom; z++) {
+            levels[z] = Level.of(cluster(pointKeys, points, 0, points.size(), cellShift(z, gridBits)));
+        }
+        return new TilePyramid(version, gridBits, maxPoints, pointKeys, points, levels);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public int size() {
+        return points.size();
+    }
+
+    /**
+     * Deepest zoom tiles can be requested at: cells of a tile must not be finer than the point keys.
+     */
+    public int maxZoom() {
+        return WebMercator.MAX_LEVEL - gridBits;
+    }
+
+    /**
+     * Tile z/x/y, which must exist at a zoom of at most {@link #maxZoom()}.
+     */
+    public MapTile tile(int z, int x, int y) {
+        if (z > maxZoom() || !WebMercator.isTile(z, x, y)) {
+            throw new IllegalArgumentException("No tile " + z + "/" + x + "/" + y);
+        }
+
+        long tileKey = WebMercator.key(x, y);
+        int tileShift = 2 * (WebMercator.MAX_LEVEL - z);
+        int start = lowerBound(pointKeys, tileKey << tileShift);
+        int end = lowerBound(pointKeys, (tileKey + 1) << tileShift);
+
+        MapTile.MapTileBuilder tile = MapTile.builder()
+                .z(z)
+                .x(x)
+                .y(y)
+                .version(version)
+                .count(end - start);
+        if (end - start <= maxPoints) {
+            return tile.points(List.copyOf(points.subList(start, end))).build();
+        }
+        if (z < levels.length) {
+            return tile.clusters(levels[z].within(tileKey << 2 * gridBits, (tileKey + 1) << 2 * gridBits)).build();
+        }
+        return tile.clusters(cluster(pointKeys, points, start, end, cellShift(z, gridBits)).clusters()).build();
+    }
+
+    private static long pointKey(Airport location) {
+        return WebMercator.key(location.getLatitude(), location.getLongitude(), WebMercator.MAX_LEVEL);
+    }
+
+    /**
+     * Right shift from a point key to the key of its cell in a tile at zoom z.
+     */
+    private static int cellShift(int z, int gridBits) {
+        return 2 * (WebMercator.MAX_LEVEL - z - gridBits);
+    }
+
+    /**
+     * Aggregate the run of points [start, end) by cell, in key order.
+     */
+    private static Clustered cluster(long[] keys, List<Airport> points, int start, int end, int shift) {
+        List<Long> cellKeys = new ArrayList<>();
+        List<TileCluster> clusters = new ArrayList<>();
+        int i = start;
+        while (i < end) {
+            long cell = keys[i] >>> shift;
+            double latitude = 0;
+            double longitude = 0;
+            int count = 0;
+            for (; i < end && keys[i] >>> shift == cell; i++) {
+                latitude += points.get(i).getLatitude();
+                longitude += points.get(i).getLongitude();
+                count++;
+            }
+            cellKeys.add(cell);
+            clusters.add(TileCluster.builder()
+                    .latitude(latitude / count)
+                    .longitude(longitude / count)
+                    .count(count)
+                    .build());
+        }
+        return new Clustered(cellKeys, clusters);
+    }
+
+    /**
+     * First index whose key is at least {@code key}.
+     */
+    private static int lowerBound(long[] keys, long key) {
+        int index = Arrays.binarySearch(keys, key);
+        if (index < 0) {
+            return -index - 1;
+        }
+        while (index > 0 && keys[index - 1] == key) {
+            index--;
+        }
+        return index;
+    }
+
+    private record Clustered(List<Long> cellKeys, List<TileCluster> clusters) {
+    }
+
+    /**
+     * Clusters of one zoom, in cell key order.
+     */
+    private record Level(long[] cellKeys, List<TileCluster> clusters) {
+
+        static Level of(Clustered clustered) {
+            return new Level(clustered.cellKeys().stream().mapToLong(Long::longValue).toArray(),
+                    List.copyOf(clustered.clusters()));
+        }
+
+        List<TileCluster> within(long fromCell, long toCell) {
+            return clusters.subList(lowerBound(cellKeys, fromCell), lowerBound(cellKeys, toCell));
+        }
+    }
+}
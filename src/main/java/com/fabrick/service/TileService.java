@@ -0,0 +1,78 @@
+package com.fabrick.service;
+
+import com.fabrick.entity.LocationEntity;
+import com.fabrick.geo.WebMercator;
+import com.fabrick.model.Airport;
+import com.fabrick.model.DatasetSnapshot;
+import com.fabrick.model.MapTile;
+import com.fabrick.timing.RequestTiming;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Map tiles of the airports in the loaded dataset. A {@link TilePyramid} is built for every new
+ * dataset version before it is served and swapped in whole, so a tile always comes from one version.
+ * Tiles hold the airports' id, name and coordinates only; the lookups serve the rest.
+ */
+@Slf4j
+@Service
+public class TileService implements DatasetListener {
+
+    @Value("${fabrick.tiles.cluster-zoom:8}")
+    private int clusterZoom;
+
+    @Value("${fabrick.tiles.grid-bits:4}")
+    private int gridBits;
+
+    @Value("${fabrick.tiles.max-points:500}")
+    private int maxPoints;
+
+    private final AtomicReference<TilePyramid> pyramid = new AtomicReference<>();
+
+    @PostConstruct
+    void init() {
+        pyramid.set(TilePyramid.build(0L, List.of(), clusterZoom, gridBits, maxPoints));
+    }
+
+    @Override
+    public void datasetLoaded(DatasetSnapshot snapshot, Collection<LocationEntity> locations) {
+        long start = System.nanoTime();
+        TilePyramid next = TilePyramid.build(snapshot.getVersion(),
+                locations.stream().map(TileService::toPoint).toList(), clusterZoom, gridBits, maxPoints);
+        pyramid.set(next);
+        log.info("Built tile pyramid for dataset version {}: {} points, clusters to zoom {} in {} ms",
+                next.getVersion(), next.size(), clusterZoom, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Whether z/x/y names a tile that can be served.
+     */
+    public boolean isTile(int z, int x, int y) {
+        return z <= pyramid.get().maxZoom() && WebMercator.isTile(z, x, y);
+    }
+
+    /**
+     * Tile z/x/y of the current dataset version, timed as the {@code tile} request stage.
+     *
+     * @throws IllegalArgumentException if z/x/y is not a tile that can be served
+     */
+    public Mono<MapTile> getTile(int z, int x, int y) {
+        return RequestTiming.stage("tile", Mono.fromSupplier(() -> pyramid.get().tile(z, x, y)));
+    }
+
+    private static Airport toPoint(LocationEntity location) {
+        return Airport.builder()
+                .id(location.getLocationId())
+                .name(location.getName())
+                .latitude(location.getLatitude())
+                .longitude(location.getLongitude())
+                .build();
+    }
+}
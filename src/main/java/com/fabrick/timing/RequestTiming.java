@@ -0,0 +1,133 @@
+package com.fabrick.timing;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Time spent in each stage of one request, e.g. cache lookup, origin lookup, external fallback,
+ * bounding box query and serialization. Created by {@link ServerTimingWebFilter} and carried in the
+ * Reactor context, so the static helpers below cost one context lookup when the request is not timed.
+ * A stage entered several times, as in batch lookups, accumulates its time.
+ */
+public class RequestTiming {
+
+    private static final Class<RequestTiming> CONTEXT_KEY = RequestTiming.class;
+
+    private final long startNanos = System.nanoTime();
+    private final Map<String, Long> stages = new LinkedHashMap<>();
+
+    /**
+     * Add time spent in a stage.
+     */
+    public synchronized void add(String stage, long nanos) {
+        stages.merge(stage, nanos, Long::sum);
+    }
+
+    /**
+     * Start timing a stage; the returned action adds the elapsed time the first time it runs.
+     */
+    Runnable start(String stage) {
+        long start = System.nanoTime();
+        AtomicBoolean stopped = new AtomicBoolean();
+        return () -> {
+            if (stopped.compareAndSet(false, true)) {
+                add(stage, System.nanoTime() - start);
+            }
+        };
+    }
+
+    public long elapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+
+    /**
+     * Total milliseconds per stage, in the order the stages were first entered.
+     */
+    public synchronized Map<String, Double> stageMillis() {
+        Map<String, Double> millis = new LinkedHashMap<>();
+        stages.forEach((stage, nanos) -> millis.put(stage, toMillis(nanos)));
+        return millis;
+    }
+
+    /**
+     * Value of a {@code Server-Timing} header: one metric per stage plus {@code total}, the time
+     * since the request arrived.
+     */
+    public synchronized String serverTiming() {
+        StringBuilder header = new StringBuilder();
+        stages.forEach((stage, nanos) -> header.append(stage).append(";dur=").append(toMillis(nanos)).append(", "));
+        return header.append("total;dur=").append(toMillis(elapsedNanos())).toString();
+    }
+
+    /**
+     * Context carrying this timing to the stages of the request.
+     */
+    public Context attach(Context context) {
+        return context.put(CONTEXT_KEY, this);
+    }
+
+    /**
+     * The timing of the current request, or null if it is not timed.
+     */
+    public static RequestTiming from(ContextView context) {
+        return context.getOrDefault(CONTEXT_KEY, null);
+    }
+
+    /**
+     * Time a stage from subscription until it emits its value, fails or is cancelled. The time is
+     * taken before the signal travels downstream, where the response may already be written.
+     * Returns the call unchanged when the request is not timed.
+     */
+    public static <T> Mono<T> stage(String stage, Mono<T> call) {
+        return Mono.deferContextual(context -> {
+            RequestTiming timing = from(context);
+            if (timing == null) {
+                return call;
+            }
+            Runnable stop = timing.start(stage);
+            return call.doOnSuccess(value -> stop.run())
+                    .doOnError(error -> stop.run())
+                    .doOnCancel(stop);
+        });
+    }
+
+    /**
+     * Streaming variant of {@link #stage(String, Mono)}; the stage lasts until the stream terminates.
+     */
+    public static <T> Flux<T> stage(String stage, Flux<T> call) {
+        return Flux.deferContextual(context -> {
+            RequestTiming timing = from(context);
+            if (timing == null) {
+                return call;
+            }
+            Runnable stop = timing.start(stage);
+            return call.doOnComplete(stop)
+                    .doOnError(error -> stop.run())
+                    .doOnCancel(stop);
+        });
+    }
+
+    /**
+     * Attribute time already measured while assembling the call, such as a synchronous cache read,
+     * to the request that subscribes to it.
+     */
+    public static <T> Mono<T> record(String stage, long nanos, Mono<T> call) {
+        return Mono.deferContextual(context -> {
+            RequestTiming timing = from(context);
+            if (timing != null) {
+                timing.add(stage, nanos);
+            }
+            return call;
+        });
+    }
+
+    static double toMillis(long nanos) {
+        return Math.round(nanos / 1_000.0) / 1_000.0;
+    }
+}
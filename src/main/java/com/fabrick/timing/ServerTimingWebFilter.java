@@ -0,0 +1,86 @@
+package com.fabrick.timing;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Times the stages of each request with a {@link RequestTiming}.
+ * The stages finished before the response is committed are sent in a {@code Server-Timing} header;
+ * a sampled share of requests is also logged as one JSON trace record on the
+ * {@code com.fabrick.timing.trace} logger, including the time until the body was fully written.
+ * With the header disabled and sampling off, requests pass through untouched.
+ */
+@Slf4j
+public class ServerTimingWebFilter implements WebFilter {
+
+    public static final String SERVER_TIMING = "Server-Timing";
+
+    private static final Logger trace = LoggerFactory.getLogger("com.fabrick.timing.trace");
+
+    private final boolean header;
+    private final double sampleRate;
+    private final ObjectMapper objectMapper;
+
+    public ServerTimingWebFilter(boolean header, double sampleRate, ObjectMapper objectMapper) {
+        this.header = header;
+        this.sampleRate = sampleRate;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        boolean sampled = sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate;
+        if (!header && !sampled) {
+            return chain.filter(exchange);
+        }
+
+        RequestTiming timing = new RequestTiming();
+        long[] committedNanos = {-1};
+        exchange.getResponse().beforeCommit(() -> {
+            committedNanos[0] = timing.elapsedNanos();
+            if (header) {
+                exchange.getResponse().getHeaders().add(SERVER_TIMING, timing.serverTiming());
+            }
+            return Mono.empty();
+        });
+
+        return chain.filter(exchange)
+                .contextWrite(timing::attach)
+                .doFinally(signal -> {
+                    if (sampled) {
+                        trace(exchange, timing, committedNanos[0], signal);
+                    }
+                });
+    }
+
+    private void trace(ServerWebExchange exchange, RequestTiming timing, long committedNanos, SignalType signal) {
+        Map<String, Object> record = new LinkedHashMap<>();
+        record.put("requestId", exchange.getRequest().getId());
+        record.put("method", exchange.getRequest().getMethod().name());
+        record.put("path", exchange.getRequest().getPath().value());
+        HttpStatusCode status = exchange.getResponse().getStatusCode();
+        record.put("status", status != null ? status.value() : null);
+        record.put("outcome", signal.name());
+        record.put("stages", timing.stageMillis());
+        record.put("committedMs", committedNanos >= 0 ? RequestTiming.toMillis(committedNanos) : null);
+        record.put("totalMs", RequestTiming.toMillis(timing.elapsedNanos()));
+        try {
+            trace.info(objectMapper.writeValueAsString(record));
+        } catch (JsonProcessingException e) {
+            log.warn("Could not write trace record for {}", record.get("path"), e);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.fabrick.timing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.util.MimeType;
+import reactor.util.context.ContextView;
+
+import java.util.Map;
+
+/**
+ * JSON encoder that records serializing a single-value body as the {@code serialize} stage of the
+ * request. Spring passes the Reactor context of the write in the hints, which is where the
+ * {@link RequestTiming} comes from. Streamed bodies are encoded element by element after the headers
+ * are sent and are not timed.
+ */
+public class TimedJackson2JsonEncoder extends Jackson2JsonEncoder {
+
+    private static final String CONTEXT_HINT = ContextView.class.getName();
+
+    public TimedJackson2JsonEncoder(ObjectMapper objectMapper) {
+        super(objectMapper);
+    }
+
+    @Override
+    public DataBuffer encodeValue(Object value, DataBufferFactory bufferFactory, ResolvableType valueType,
+                                  MimeType mimeType, Map<String, Object> hints) {
+        RequestTiming timing = hints != null && hints.get(CONTEXT_HINT) instanceof ContextView context
+                ? RequestTiming.from(context)
+                : null;
+        if (timing == null) {
+            return super.encodeValue(value, bufferFactory, valueType, mimeType, hints);
+        }
+        long start = System.nanoTime();
+        try {
+            return super.encodeValue(value, bufferFactory, valueType, mimeType, hints);
+        } finally {
+            timing.add("serialize", System.nanoTime() - start);
+        }
+    }
+}
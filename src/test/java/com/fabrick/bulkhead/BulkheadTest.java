@@ -0,0 +1,56 @@
+package com.fabrick.bulkhead;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BulkheadTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private Bulkhead bulkhead;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        bulkhead = new Bulkhead("test", 1, Schedulers.immediate(), meterRegistry);
+    }
+
+    @Test
+    void testExecute_RejectsWhenFull() {
+        Sinks.One<String> pending = Sinks.one();
+        var first = bulkhead.execute(pending.asMono()).subscribe();
+
+        assertEquals(1, bulkhead.activeCalls());
+        assertEquals(1.0, meterRegistry.get("fabrick.bulkhead.saturation").tag("bulkhead", "test").gauge().value());
+
+        StepVerifier.create(bulkhead.execute(Mono.just("second")))
+                .expectError(BulkheadFullException.class)
+                .verify();
+        assertEquals(1.0, meterRegistry.get("fabrick.bulkhead.rejected").counter().count());
+
+        pending.tryEmitValue("first");
+        assertTrue(first.isDisposed());
+        assertEquals(0, bulkhead.activeCalls());
+    }
+
+    @Test
+    void testExecute_ReleasesOnErrorAndCancel() {
+        StepVerifier.create(bulkhead.execute(Mono.error(new IllegalStateException("boom"))))
+                .expectError(IllegalStateException.class)
+                .verify();
+        assertEquals(0, bulkhead.activeCalls());
+
+        bulkhead.execute(Mono.never()).subscribe().dispose();
+        assertEquals(0, bulkhead.activeCalls());
+
+        StepVerifier.create(bulkhead.execute(Mono.just("ok")))
+                .expectNext("ok")
+                .verifyComplete();
+    }
+}
@@ -0,0 +1,63 @@
+package com.fabrick.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CacheLoadTimerTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private CacheLoadTimer loadTimer;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        loadTimer = new CacheLoadTimer("stations", meterRegistry);
+    }
+
+    @Test
+    void testTime_RecordsSuccessAndFailureSeparately() {
+        StepVerifier.create(loadTimer.time(Mono.just("value"))).expectNext("value").verifyComplete();
+        StepVerifier.create(loadTimer.time(Mono.empty())).verifyComplete();
+        StepVerifier.create(loadTimer.time(Mono.error(new IllegalStateException()))).verifyError();
+
+        assertEquals(2, count("success"));
+        assertEquals(1, count("failure"));
+    }
+
+    @Test
+    void testTime_NothingRecordedUntilSubscribed() {
+        loadTimer.time(Mono.just("value"));
+
+        assertEquals(0, count("success"));
+    }
+
+    @Test
+    void testMeteredStatsCounter_TimesCaffeineLoadsAndKeepsStatistics() {
+        AsyncCache<String, String> cache = Caffeine.newBuilder()
+                .recordStats(() -> new MeteredStatsCounter(loadTimer))
+                .buildAsync();
+
+        cache.get("KDEN", (key, executor) -> CompletableFuture.completedFuture("Denver")).join();
+        cache.get("KDEN", (key, executor) -> CompletableFuture.completedFuture("Denver")).join();
+
+        assertEquals(1, count("success"));
+        assertEquals(1, cache.synchronous().stats().hitCount());
+        assertEquals(1, cache.synchronous().stats().loadSuccessCount());
+    }
+
+    private long count(String result) {
+        return meterRegistry.get("fabrick.cache.load")
+                .tags("cache", "stations", "result", result)
+                .timer()
+                .count();
+    }
+}
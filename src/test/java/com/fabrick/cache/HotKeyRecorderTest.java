@@ -0,0 +1,109 @@
+package com.fabrick.cache;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HotKeyRecorderTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testHeavyHitters_KeepsFrequentKeysUnderChurn() {
+        HeavyHitters sketch = new HeavyHitters(8);
+        for (int i = 0; i < 10_000; i++) {
+            sketch.offer("hot-" + (i % 3), 1);
+            sketch.offer("cold-" + i, 1);
+        }
+
+        Map<String, Long> top = sketch.top(3);
+        assertEquals(List.of("hot-0", "hot-1", "hot-2"), top.keySet().stream().sorted().toList());
+        top.values().forEach(count -> assertTrue(count >= 10_000 / 3));
+    }
+
+    @Test
+    void testHeavyHitters_MatchesExactCountsWhileWithinCapacity() {
+        HeavyHitters sketch = new HeavyHitters(16);
+        Map<String, Long> exact = new HashMap<>();
+        java.util.Random random = new Random(5);
+        for (int i = 0; i < 5_000; i++) {
+            String key = "k" + random.nextInt(16);
+            long increment = 1 + random.nextInt(3);
+            sketch.offer(key, increment);
+            exact.merge(key, increment, Long::sum);
+        }
+
+        Map<String, Long> top = sketch.top(16);
+        assertEquals(exact, top);
+        List<Long> counts = List.copyOf(top.values());
+        for (int i = 1; i < counts.size(); i++) {
+            assertTrue(counts.get(i - 1) >= counts.get(i));
+        }
+    }
+
+    @Test
+    void testPersistAndLoad_RoundTripsTopKeys() {
+        Path file = tempDir.resolve("hot-keys.json");
+
+        HotKeyRecorder recorder = recorder(file, 2);
+        for (int i = 0; i < 5; i++) {
+            recorder.record("stations", "KDEN", 0.5);
+        }
+        recorder.record("stations", "KAPA", 1.0);
+        recorder.record("stations", "KBJC", 1.0);
+        recorder.record("stations", "KBJC", 1.0);
+        recorder.record("asteroids", "3542519", null, LocalDate.of(2024, 1, 1));
+        recorder.persist();
+        assertTrue(Files.exists(file));
+
+        HotKeyRecorder next = recorder(file, 2);
+        Map<String, Map<String, Long>> loaded = next.load();
+
+        assertEquals(List.of("KDEN|0.5", "KBJC|1.0"), List.copyOf(loaded.get("stations").keySet()));
+        assertEquals(List.of("3542519||2024-01-01"), List.copyOf(loaded.get("asteroids").keySet()));
+        // Carried-over counts are decayed but keep their order
+        assertEquals(List.of("KDEN|0.5", "KBJC|1.0"), List.copyOf(next.topKeys().get("stations").keySet()));
+    }
+
+    @Test
+    void testLoad_MissingFileIsEmpty() {
+        assertTrue(recorder(tempDir.resolve("absent.json"), 10).load().isEmpty());
+    }
+
+    @Test
+    void testRecord_OffWithoutFileOrWhenWarmupIsDisabled() {
+        HotKeyRecorder withoutFile = recorder(tempDir.resolve("unused.json"), 10);
+        ReflectionTestUtils.setField(withoutFile, "file", "");
+        withoutFile.record("stations", "KDEN", 0.5);
+        withoutFile.persist();
+
+        HotKeyRecorder disabled = recorder(tempDir.resolve("disabled.json"), 10);
+        ReflectionTestUtils.setField(disabled, "enabled", false);
+        disabled.record("stations", "KDEN", 0.5);
+        disabled.persist();
+
+        assertFalse(withoutFile.isEnabled());
+        assertTrue(withoutFile.topKeys().isEmpty());
+        assertFalse(disabled.isEnabled());
+        assertTrue(disabled.topKeys().isEmpty());
+        assertFalse(Files.exists(tempDir.resolve("disabled.json")));
+    }
+
+    private static HotKeyRecorder recorder(Path file, int topKeys) {
+        HotKeyRecorder recorder = new HotKeyRecorder();
+        ReflectionTestUtils.setField(recorder, "file", file.toString());
+        ReflectionTestUtils.setField(recorder, "topKeys", topKeys);
+        return recorder;
+    }
+}
@@ -0,0 +1,62 @@
+package com.fabrick.cache;
+
+import com.fabrick.model.Station;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RetainedSizeTest {
+
+    @Test
+    void testOf_GrowsWithListContents() {
+        long empty = RetainedSize.of(List.of());
+        long one = RetainedSize.of(List.of(station("KDEN")));
+        long thousand = RetainedSize.of(stations(1000));
+
+        assertTrue(empty > 0);
+        assertTrue(one > empty);
+        // Roughly linear in the number of stations, each well over 100 bytes
+        assertTrue(thousand > 500 * (one - empty));
+        assertTrue(thousand < 2000 * (one - empty));
+    }
+
+    @Test
+    void testOf_CountsSpatialEntryItems() {
+        SpatialResultCache.Entry<Station> entry = new SpatialResultCache.Entry<>(39.86, -104.67, 1.0, stations(100));
+        assertTrue(RetainedSize.of(entry) >= RetainedSize.of(entry.getItems()));
+    }
+
+    @Test
+    void testResultExpiry_EmptyResultsExpireSooner() {
+        ResultExpiry expiry = new ResultExpiry(Duration.ofHours(24), Duration.ofMinutes(5));
+
+        assertEquals(Duration.ofMinutes(5).toNanos(), expiry.expireAfterCreate("k", List.of(), 0L));
+        assertEquals(Duration.ofHours(24).toNanos(), expiry.expireAfterCreate("k", List.of(station("KDEN")), 0L));
+        assertEquals(Duration.ofMinutes(5).toNanos(), expiry.expireAfterCreate("k",
+                new SpatialResultCache.Entry<Station>(0.0, 0.0, 1.0, List.of()), 0L));
+    }
+
+    private static List<Station> stations(int count) {
+        List<Station> stations = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            stations.add(station("K" + i));
+        }
+        return stations;
+    }
+
+    private static Station station(String id) {
+        return Station.builder()
+                .id(id)
+                .site("Centennial Airport")
+                .state("CO")
+                .country("US")
+                .latitude(39.5701)
+                .longitude(-104.849)
+                .elevation(1791)
+                .build();
+    }
+}
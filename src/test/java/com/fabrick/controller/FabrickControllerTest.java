@@ -1,26 +1,65 @@
 package com.fabrick.controller;
 
+import com.fabrick.cache.HotKeyRecorder;
+import com.fabrick.codec.ProtobufListEncoder;
+import com.fabrick.config.CodecConfig;
+import com.fabrick.config.ResponseCacheConfig;
+import com.fabrick.geo.SpatialCursor;
 import com.fabrick.model.Airport;
 import com.fabrick.model.AsteroidPath;
+import com.fabrick.model.BatchLookupRequest;
+import com.fabrick.model.LocationPage;
+import com.fabrick.model.MapTile;
+import com.fabrick.model.Projection;
 import com.fabrick.model.Station;
+import com.fabrick.model.TileCluster;
+import com.fabrick.service.AirportDatabaseService;
 import com.fabrick.service.AirportStationService;
 import com.fabrick.service.AsteroidService;
+import com.fabrick.service.TileService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.protobuf.ProtobufMapper;
+import com.fasterxml.jackson.dataformat.protobuf.schema.NativeProtobufSchema;
+import com.fasterxml.jackson.dataformat.protobuf.schema.ProtobufSchemaLoader;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @WebFluxTest(FabrickController.class)
+@Import({ResponseCacheConfig.class, CodecConfig.class})
 class FabrickControllerTest {
 
     @Autowired
@@ -32,6 +71,31 @@ class FabrickControllerTest {
     @MockBean
     private AirportStationService airportStationService;
 
+    @MockBean
+    private HotKeyRecorder hotKeyRecorder;
+
+    @MockBean
+    private AirportDatabaseService airportDatabaseService;
+
+    @MockBean
+    private TileService tileService;
+
+    private final AtomicLong datasetVersion = new AtomicLong(1);
+
+    @TestConfiguration
+    static class ResponseCacheTestConfig {
+
+        @Bean
+        CacheManager cacheManager() {
+            return new ConcurrentMapCacheManager("responses");
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        when(airportDatabaseService.currentVersion()).thenAnswer(invocation -> datasetVersion.get());
+    }
+
     @Test
     void testGetAsteroidPaths_WithAllParameters() {
         // Creare il percorso dell'asteroide
@@ -84,7 +148,7 @@ class FabrickControllerTest {
         // Creare una lista vuota
         List<Station> emptyStationList = new ArrayList<>();
 
-        when(airportStationService.getClosestStations(eq("KDEN"), eq(0.0)))
+        when(airportStationService.getClosestStations(eq("KDEN"), eq(0.0), eq(Projection.ALL)))
                 .thenReturn(Mono.just(emptyStationList));
 
         webTestClient.get()
@@ -100,7 +164,7 @@ class FabrickControllerTest {
         // Creare una lista vuota
         List<Station> emptyStationList = new ArrayList<>();
 
-        when(airportStationService.getClosestStations(eq("KDEN"), eq(1.0)))
+        when(airportStationService.getClosestStations(eq("KDEN"), eq(1.0), eq(Projection.ALL)))
                 .thenReturn(Mono.just(emptyStationList));
 
         webTestClient.get()
@@ -125,7 +189,7 @@ class FabrickControllerTest {
         List<Airport> airportList = new ArrayList<>();
         airportList.add(airport);
 
-        when(airportStationService.getClosestAirports(eq("KAFF"), eq(0.5)))
+        when(airportStationService.getClosestAirports(eq("KAFF"), eq(0.5), eq(Projection.ALL)))
                 .thenReturn(Mono.just(airportList));
 
         webTestClient.get()
@@ -136,4 +200,396 @@ class FabrickControllerTest {
                 .hasSize(1)
                 .contains(airport);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testGetClosestAirports_ProjectsRequestedFields() {
+        Projection projection = Projection.parse("id,latitude,longitude", Airport.FIELDS);
+        Airport airport = Airport.builder().id("KAFF").name("Air Force Academy").latitude(38.9667).longitude(-104.8167).build();
+        when(airportStationService.getClosestAirports(eq("KAFF"), eq(0.75), eq(Projection.ALL)))
+                .thenReturn(Mono.just(List.of(airport)));
+        when(airportStationService.getClosestAirports(eq("KAFF"), eq(0.75), eq(projection)))
+                .thenReturn(Mono.just(List.of(airport.project(projection))));
+
+        // Without fields= the wire format is unchanged: unset properties are written as null
+        String allFieldsEtag = webTestClient.get()
+                .uri("/api/fabrick/v1.0/stations/KAFF/airports?closestBy=0.75")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .json("[{\"id\":\"KAFF\",\"name\":\"Air Force Academy\",\"state\":null,\"country\":null," +
+                        "\"latitude\":38.9667,\"longitude\":-104.8167,\"elevation\":null}]", true)
+                .returnResult()
+                .getResponseHeaders().getETag();
+
+        webTestClient.get()
+                .uri("/api/fabrick/v1.0/stations/KAFF/airports?closestBy=0.75&fields=longitude, id,latitude")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().value(HttpHeaders.ETAG, etag -> assertNotEquals(allFieldsEtag, etag))
+                .expectBody()
+                .json("[{\"id\":\"KAFF\",\"latitude\":38.9667,\"longitude\":-104.8167}]", true);
+    }
+
+    @Test
+    void testGetClosestStations_UnknownFieldIsBadRequest() {
+        webTestClient.get()
+                .uri("/api/fabrick/v1.0/airports/KDEN/stations?closestBy=0.5&fields=id,name")
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        verifyNoInteractions(airportStationService);
+    }
+
+    @Test
+    void testGetClosestStations_ConditionalRequestGets304WithoutLookup() {
+        Station station = Station.builder().id("KAPA").site("Centennial Airport").latitude(39.5701).longitude(-104.849).build();
+        when(airportStationService.getClosestStations(eq("KAPA"), eq(0.5), eq(Projection.ALL)))
+                .thenReturn(Mono.just(List.of(station)));
+
+        String etag = webTestClient.get()
+                .uri("/api/fabrick/v1.0/airports/KAPA/stations?closestBy=0.5")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueMatches(HttpHeaders.ETAG, "\"[0-9a-f]{32}\"")
+                .expectBody()
+                .jsonPath("$[0].id").isEqualTo("KAPA")
+                .returnResult()
+                .getResponseHeaders().getETag();
+
+        webTestClient.get()
+                .uri("/api/fabrick/v1.0/airports/KAPA/stations?closestBy=0.5")
+                .ifNoneMatch(etag)
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, etag)
+                .expectBody().isEmpty();
+
+        webTestClient.get()
+                .uri("/api/fabrick/v1.0/airports/KAPA/stations?closestBy=0.5")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[0].id").isEqualTo("KAPA");
+
+        // The second full response came from the encoded cache
+        verify(airportStationService, times(1)).getClosestStations("KAPA", 0.5, Projection.ALL);
+    }
+
+    @Test
+    void testGetClosestAirports_EtagFollowsContentAcrossDatasetVersions() {
+        Airport airport = Airport.builder().id("KDEN").name("Denver International").latitude(39.8617).longitude(-104.6732).build();
+        Airport renamed = Airport.builder().id("KDEN").name("Denver International Airport").latitude(39.8617).longitude(-104.6732).build();
+        when(airportStationService.getClosestAirports(eq("KDEN"), eq(0.25), eq(Projection.ALL)))
+                .thenReturn(Mono.just(List.of(airport)))
+                .thenReturn(Mono.just(List.of(airport)))
+                .thenReturn(Mono.just(List.of(renamed)));
+
+        String etag = webTestClient.get()
+                .uri("/api/fabrick/v1.0/stations/KDEN/airports?closestBy=0.25")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().returnResult()
+                .getResponseHeaders().getETag();
+
+        // A reload with the same content, or another replica, tags the same bytes the same way
+        datasetVersion.incrementAndGet();
+        webTestClient.get()
+                .uri("/api/fabrick/v1.0/stations/KDEN/airports?closestBy=0.25")
+                .ifNoneMatch(etag)
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, etag);
+
+        datasetVersion.incrementAndGet();
+        String changed = webTestClient.get()
+                .uri("/api/fabrick/v1.0/stations/KDEN/airports?closestBy=0.25")
+                .ifNoneMatch(etag)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[0].name").isEqualTo("Denver International Airport")
+                .returnResult()
+                .getResponseHeaders().getETag();
+
+        assertNotEquals(etag, changed);
+        verify(airportStationService, times(3)).getClosestAirports("KDEN", 0.25, Projection.ALL);
+    }
+
+    @Test
+    void testGetClosestStations_EmptyResultIsNotTagged() {
+        when(airportStationService.getClosestStations(eq("ZZZZ"), eq(0.5), eq(Projection.ALL)))
+                .thenReturn(Mono.just(List.of()));
+
+        webTestClient.get()
+                .uri("/api/fabrick/v1.0/airports/ZZZZ/stations?closestBy=0.5")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().doesNotExist(HttpHeaders.ETAG)
+                .expectBody().json("[]");
+    }
+
+    @Test
+    void testGetClosestStations_NegotiatesBinaryFormatsWithTheirOwnEtags() throws Exception {
+        Station station = Station.builder().id("KBJC").site("Rocky Mountain Metro").latitude(39.9088).longitude(-105.117).elevation(1724).build();
+        when(airportStationService.getClosestStations(eq("KBJC"), eq(0.5), eq(Projection.ALL)))
+                .thenReturn(Mono.just(List.of(station)));
+
+        var json = webTestClient.get()
+                .uri("/api/fabrick/v1.0/airports/KBJC/stations?closestBy=0.5")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().returnResult();
+        var cbor = webTestClient.get()
+                .uri("/api/fabrick/v1.0/airports/KBJC/stations?closestBy=0.5")
+                .accept(MediaType.parseMediaType("application/cbor"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType("application/cbor")
+                .expectHeader().valueEquals(HttpHeaders.VARY, HttpHeaders.ACCEPT + ", " + HttpHeaders.ACCEPT_ENCODING)
+                .expectBody().returnResult();
+        var protobuf = webTestClient.get()
+                .uri("/api/fabrick/v1.0/airports/KBJC/stations?closestBy=0.5")
+                .accept(ProtobufListEncoder.APPLICATION_PROTOBUF)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(ProtobufListEncoder.APPLICATION_PROTOBUF)
+                .expectBody().returnResult();
+
+        assertEquals("KBJC", new CBORMapper().readTree(cbor.getResponseBody()).get(0).get("id").asText());
+        JsonNode decoded = new ProtobufMapper().readerFor(JsonNode.class)
+                .with(protobufSchema().forType("StationList"))
+                .readValue(protobuf.getResponseBody());
+        assertEquals("KBJC", decoded.get("items").get(0).get("id").asText());
+        assertEquals(1724, decoded.get("items").get(0).get("elevation").asInt());
+        assertTrue(protobuf.getResponseBody().length < json.getResponseBody().length);
+
+        assertNotEquals(json.getResponseHeaders().getETag(), cbor.getResponseHeaders().getETag());
+        assertNotEquals(json.getResponseHeaders().getETag(), protobuf.getResponseHeaders().getETag());
+    }
+
+    @Test
+    void testGetClosestStations_UnsupportedFormatIsNotAcceptable() {
+        webTestClient.get()
+                .uri("/api/fabrick/v1.0/airports/KBJC/stations?closestBy=0.5")
+                .accept(MediaType.APPLICATION_XML)
+                .exchange()
+                .expectStatus().isEqualTo(406);
+    }
+
+    @Test
+    void testGetAsteroidPaths_AsProtobuf() throws Exception {
+        AsteroidPath path = AsteroidPath.builder().fromPlanet("Earth").toPlanet("Mars").fromDate("2020-01-01").toDate("2020-06-01").build();
+        when(asteroidService.getAsteroidPaths(eq("3542519"), any(LocalDate.class), any(LocalDate.class)))
+                .thenReturn(Mono.just(List.of(path)));
+
+        byte[] body = webTestClient.get()
+                .uri("/api/fabrick/v1.0/asteroids/3542519/paths")
+                .accept(ProtobufListEncoder.APPLICATION_PROTOBUF)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(ProtobufListEncoder.APPLICATION_PROTOBUF)
+                .expectBody().returnResult().getResponseBody();
+
+        JsonNode decoded = new ProtobufMapper().readerFor(JsonNode.class)
+                .with(protobufSchema().forType("AsteroidPathList"))
+                .readValue(body);
+        assertEquals("Mars", decoded.get("items").get(0).get("toPlanet").asText());
+    }
+
+    @Test
+    void testGetClosestStationsBatch_Success() {
+        Station station = Station.builder()
+                .id("KAPA")
+                .site("Centennial Airport")
+                .latitude(39.5701)
+                .longitude(-104.849)
+                .build();
+
+        when(airportStationService.getClosestStationsBatch(eq(List.of("KDEN", "KBJC")), eq(0.5)))
+                .thenReturn(Mono.just(Map.of("KDEN", List.of(station), "KBJC", List.of())));
+
+        webTestClient.post()
+                .uri("/api/fabrick/v1.0/airports/stations/batch")
+                .bodyValue(BatchLookupRequest.builder().ids(List.of("KDEN", "KBJC")).closestBy(0.5).build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.KDEN[0].id").isEqualTo("KAPA")
+                .jsonPath("$.KBJC").isEmpty();
+    }
+
+    @Test
+    void testGetClosestAirportsBatch_RejectsEmptyIds() {
+        webTestClient.post()
+                .uri("/api/fabrick/v1.0/stations/airports/batch")
+                .bodyValue(BatchLookupRequest.builder().ids(List.of()).closestBy(0.5).build())
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void testStreamClosestStations_Ndjson() {
+        Station centennial = Station.builder().id("KAPA").site("Centennial Airport").build();
+        Station metro = Station.builder().id("KBJC").site("Rocky Mountain Metropolitan Airport").build();
+
+        when(airportStationService.streamClosestStations(eq("KDEN"), eq(0.5)))
+                .thenReturn(Flux.just(centennial, metro));
+
+        webTestClient.get()
+                .uri("/api/fabrick/v1.0/airports/KDEN/stations?closestBy=0.5")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBodyList(Station.class)
+                .contains(centennial, metro);
+    }
+
+    @Test
+    void testGetClosestStationsPage_PassesCursor() {
+        SpatialCursor cursor = new SpatialCursor(42L, 7L);
+        LocationPage<Station> page = LocationPage.<Station>builder()
+                .items(List.of(Station.builder().id("KAPA").build()))
+                .nextCursor(new SpatialCursor(43L, 1L).encode())
+                .build();
+
+        when(airportStationService.getClosestStationsPage(eq("KDEN"), eq(0.5), eq(cursor), eq(1)))
+                .thenReturn(Mono.just(page));
+
+        webTestClient.get()
+                .uri("/api/fabrick/v1.0/airports/KDEN/stations?closestBy=0.5&limit=1&cursor=" + cursor.encode())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.items[0].id").isEqualTo("KAPA")
+                .jsonPath("$.nextCursor").isEqualTo(page.getNextCursor());
+    }
+
+    @Test
+    void testGetClosestAirportsPage_RejectsBadCursorAndLimit() {
+        webTestClient.get()
+                .uri("/api/fabrick/v1.0/stations/KDEN/airports?limit=10&cursor=not-a-cursor")
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        webTestClient.get()
+                .uri("/api/fabrick/v1.0/stations/KDEN/airports?limit=0")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void testGetStationsAlongRoute_FromToAndWaypoints() {
+        Station chicago = Station.builder().id("KORD").latitude(41.9786).longitude(-87.9048).build();
+        when(airportStationService.getStationsAlongRoute(List.of("KDEN", "KJFK"), 100.0))
+                .thenReturn(Mono.just(List.of(chicago)));
+        when(airportStationService.getStationsAlongRoute(List.of("KDEN", "KORD", "KJFK"), 100.0))
+                .thenReturn(Mono.just(List.of(chicago)));
+
+        webTestClient.get()
+                .uri("/api/fabrick/v1.0/routes/stations?from=KDEN&to=KJFK&widthKm=100")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(Station.class)
+                .hasSize(1)
+                .contains(chicago);
+
+        webTestClient.get()
+                .uri("/api/fabrick/v1.0/routes/stations?waypoints=KDEN,KORD,KJFK&widthKm=100")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(Station.class)
+                .hasSize(1)
+                .contains(chicago);
+
+        verify(airportStationService).getStationsAlongRoute(List.of("KDEN", "KJFK"), 100.0);
+        verify(airportStationService).getStationsAlongRoute(List.of("KDEN", "KORD", "KJFK"), 100.0);
+    }
+
+    @Test
+    void testGetAirportsAlongRoute_RejectsBadRoutesAndWidths() {
+        for (String query : List.of(
+                "from=KDEN&widthKm=50",
+                "waypoints=KDEN&widthKm=50",
+                "from=KDEN&to=KJFK&waypoints=KDEN,KJFK&widthKm=50",
+                "from=KDEN&to=KJFK&widthKm=0",
+                "from=KDEN&to=KJFK&widthKm=5000")) {
+            webTestClient.get()
+                    .uri("/api/fabrick/v1.0/routes/airports?" + query)
+                    .exchange()
+                    .expectStatus().isBadRequest();
+        }
+
+        verify(airportStationService, never()).getAirportsAlongRoute(any(), anyDouble());
+    }
+
+    @Test
+    void testGetTile_CachedPerDatasetVersion() {
+        MapTile tile = MapTile.builder()
+                .z(3).x(1).y(3).version(1).count(1200)
+                .clusters(List.of(TileCluster.builder().latitude(39.8).longitude(-104.7).count(1200).build()))
+                .build();
+        when(tileService.isTile(3, 1, 3)).thenReturn(true);
+        when(tileService.getTile(3, 1, 3)).thenReturn(Mono.just(tile));
+
+        String etag = webTestClient.get()
+                .uri("/api/fabrick/v1.0/tiles/3/1/3")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.count").isEqualTo(1200)
+                .jsonPath("$.clusters[0].count").isEqualTo(1200)
+                .jsonPath("$.points").doesNotExist()
+                .returnResult()
+                .getResponseHeaders().getETag();
+
+        webTestClient.get()
+                .uri("/api/fabrick/v1.0/tiles/3/1/3")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, etag);
+
+        webTestClient.get()
+                .uri("/api/fabrick/v1.0/tiles/3/1/3")
+                .header(HttpHeaders.IF_NONE_MATCH, etag)
+                .exchange()
+                .expectStatus().isNotModified();
+
+        verify(tileService, times(1)).getTile(3, 1, 3);
+    }
+
+    @Test
+    void testGetTile_PointsLeaveUnsetPropertiesOut() {
+        MapTile tile = MapTile.builder()
+                .z(12).x(853).y(1553).version(1).count(1)
+                .points(List.of(Airport.builder().id("KDEN").name("Denver International")
+                        .latitude(39.8617).longitude(-104.6732).build()))
+                .build();
+        when(tileService.isTile(12, 853, 1553)).thenReturn(true);
+        when(tileService.getTile(12, 853, 1553)).thenReturn(Mono.just(tile));
+
+        webTestClient.get()
+                .uri("/api/fabrick/v1.0/tiles/12/853/1553")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .json("{\"z\":12,\"x\":853,\"y\":1553,\"version\":1,\"count\":1,\"points\":[" +
+                        "{\"id\":\"KDEN\",\"name\":\"Denver International\",\"latitude\":39.8617,\"longitude\":-104.6732}]}", true);
+    }
+
+    @Test
+    void testGetTile_RejectsCoordinatesOutsideTheZoom() {
+        when(tileService.isTile(2, 4, 0)).thenReturn(false);
+
+        webTestClient.get()
+                .uri("/api/fabrick/v1.0/tiles/2/4/0")
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        verify(tileService, never()).getTile(anyInt(), anyInt(), anyInt());
+    }
+
+    private static NativeProtobufSchema protobufSchema() throws Exception {
+        return ProtobufSchemaLoader.std.loadNative(new ClassPathResource("proto/fabrick.proto").getURL());
+    }
+}
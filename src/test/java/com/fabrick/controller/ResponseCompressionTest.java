@@ -0,0 +1,138 @@
+package com.fabrick.controller;
+
+import com.fabrick.model.Projection;
+import com.fabrick.model.Station;
+import com.fabrick.service.AirportDatabaseService;
+import com.fabrick.service.AirportStationService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+/**
+ * Compression by the server itself, which a mock web client never sees: the JDK client used here
+ * does not decode responses, so the headers and bytes are the ones on the wire.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:compression-test",
+        "spring.r2dbc.url=r2dbc:h2:mem:///compression-test"
+})
+class ResponseCompressionTest {
+
+    @LocalServerPort
+    private int port;
+
+    @MockBean
+    private AirportStationService airportStationService;
+
+    @MockBean
+    private AirportDatabaseService airportDatabaseService;
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    @Test
+    void testGetClosestStations_LargeResponseIsGzipped() throws Exception {
+        when(airportStationService.getClosestStations(eq("KDEN"), eq(5.0), eq(Projection.ALL)))
+                .thenReturn(Mono.just(stations(100)));
+
+        HttpResponse<byte[]> response = get("/api/fabrick/v1.0/airports/KDEN/stations?closestBy=5.0", "gzip");
+
+        assertEquals(200, response.statusCode());
+        assertEquals("gzip", response.headers().firstValue("Content-Encoding").orElse(null));
+        try (GZIPInputStream body = new GZIPInputStream(new ByteArrayInputStream(response.body()))) {
+            byte[] json = body.readAllBytes();
+            assertTrue(json.length > 2048);
+            assertEquals(100, new ObjectMapper().readTree(json).size());
+        }
+    }
+
+    @Test
+    void testGetClosestStations_LargeResponseIsBrotliWhenAccepted() throws Exception {
+        when(airportStationService.getClosestStations(eq("KAPA"), eq(5.0), eq(Projection.ALL)))
+                .thenReturn(Mono.just(stations(100)));
+
+        HttpResponse<byte[]> response = get("/api/fabrick/v1.0/airports/KAPA/stations?closestBy=5.0", "br, gzip");
+
+        assertEquals(200, response.statusCode());
+        assertEquals("br", response.headers().firstValue("Content-Encoding").orElse(null));
+        assertTrue(response.body().length < 2048);
+    }
+
+    @Test
+    void testGetClosestStations_SmallResponseIsNotCompressed() throws Exception {
+        when(airportStationService.getClosestStations(eq("KBJC"), eq(0.5), eq(Projection.ALL)))
+                .thenReturn(Mono.just(stations(1)));
+
+        HttpResponse<byte[]> response = get("/api/fabrick/v1.0/airports/KBJC/stations?closestBy=0.5", "br, gzip");
+
+        assertEquals(200, response.statusCode());
+        assertTrue(response.headers().firstValue("Content-Encoding").isEmpty());
+        assertTrue(response.body().length < 2048);
+        JsonNode json = new ObjectMapper().readTree(response.body());
+        assertEquals("ST00", json.get(0).get("id").asText());
+    }
+
+    @Test
+    void testGetClosestStations_CompressedResponseTagDiffersFromIdentity() throws Exception {
+        when(airportStationService.getClosestStations(eq("KFTG"), eq(5.0), eq(Projection.ALL)))
+                .thenReturn(Mono.just(stations(100)));
+        String path = "/api/fabrick/v1.0/airports/KFTG/stations?closestBy=5.0";
+
+        HttpResponse<byte[]> gzip = get(path, "gzip");
+        HttpResponse<byte[]> identity = get(path, "identity");
+
+        assertEquals("gzip", gzip.headers().firstValue("Content-Encoding").orElse(null));
+        assertTrue(identity.headers().firstValue("Content-Encoding").isEmpty());
+        String gzipTag = gzip.headers().firstValue("ETag").orElseThrow();
+        String identityTag = identity.headers().firstValue("ETag").orElseThrow();
+        assertNotEquals(identityTag, gzipTag);
+        assertTrue(gzipTag.startsWith("W/"));
+        assertEquals(304, get(path, "gzip", gzipTag).statusCode());
+    }
+
+    private HttpResponse<byte[]> get(String path, String acceptEncoding) throws IOException, InterruptedException {
+        return get(path, acceptEncoding, null);
+    }
+
+    private HttpResponse<byte[]> get(String path, String acceptEncoding, String ifNoneMatch)
+            throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Accept", "application/json")
+                .header("Accept-Encoding", acceptEncoding);
+        if (ifNoneMatch != null) {
+            request.header("If-None-Match", ifNoneMatch);
+        }
+        return httpClient.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private static List<Station> stations(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> Station.builder()
+                        .id(String.format("ST%02d", i))
+                        .site("Weather station " + i)
+                        .state("CO")
+                        .country("US")
+                        .latitude(39.5 + i * 0.01)
+                        .longitude(-104.8 - i * 0.01)
+                        .elevation(1600 + i)
+                        .build())
+                .toList();
+    }
+}
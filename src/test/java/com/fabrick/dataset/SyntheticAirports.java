@@ -0,0 +1,269 @@
+package com.fabrick.dataset;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+
+/**
+ * OurAirports-schema CSV rows at any size, seeded so every run reads the same data.
+ * <p>
+ * Locations are clustered the way the real dataset is: a weighted set of hubs, each with towns
+ * spread around it and fields scattered around the towns, plus a thin uniform background. Dense
+ * hubs therefore produce the crowded bounding boxes that dominate query cost, and sparse regions
+ * produce the empty ones.
+ * <p>
+ * The loader only keeps four-character idents, so the first {@link #ICAO_CAPACITY} rows get
+ * unique alphanumeric codes and later rows get OurAirports-style local idents ({@code US-1234567}).
+ * Those rows are parsed and skipped, as in the real file.
+ * <p>
+ * Run as a program to write a file:
+ * {@code mvn -DskipTests test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.fabrick.dataset.SyntheticAirports -Dexec.args="8000000 target/airports-8m.csv"}
+ */
+public final class SyntheticAirports {
+
+    public static final String HEADER = "\"id\",\"ident\",\"type\",\"name\",\"latitude_deg\",\"longitude_deg\"," +
+            "\"elevation_ft\",\"continent\",\"iso_country\",\"iso_region\",\"municipality\",\"scheduled_service\"," +
+            "\"gps_code\",\"iata_code\",\"local_code\",\"home_link\",\"wikipedia_link\",\"keywords\"";
+
+    private static final String IDENT_ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
+
+    /**
+     * Number of distinct four-character idents, i.e. rows the loader can keep.
+     */
+    public static final int ICAO_CAPACITY = (int) Math.pow(IDENT_ALPHABET.length(), 4);
+
+    private static final String[] TYPES = {"small_airport", "heliport", "medium_airport", "large_airport"};
+    private static final int[] TYPE_WEIGHTS = {60, 30, 8, 2};
+
+    private static final Hub[] HUBS = {
+            new Hub("Denver", 39.74, -104.99, "NA", "US", "US-CO", 2.0, 30),
+            new Hub("Los Angeles", 34.05, -118.24, "NA", "US", "US-CA", 1.5, 40),
+            new Hub("Dallas", 32.78, -96.80, "NA", "US", "US-TX", 2.5, 45),
+            new Hub("Chicago", 41.88, -87.63, "NA", "US", "US-IL", 2.0, 35),
+            new Hub("Atlanta", 33.75, -84.39, "NA", "US", "US-GA", 2.0, 30),
+            new Hub("New York", 40.71, -74.01, "NA", "US", "US-NY", 1.5, 35),
+            new Hub("Seattle", 47.61, -122.33, "NA", "US", "US-WA", 1.5, 20),
+            new Hub("Miami", 25.76, -80.19, "NA", "US", "US-FL", 1.5, 25),
+            new Hub("Phoenix", 33.45, -112.07, "NA", "US", "US-AZ", 2.0, 15),
+            new Hub("Anchorage", 61.22, -149.90, "NA", "US", "US-AK", 4.0, 15),
+            new Hub("Toronto", 43.65, -79.38, "NA", "CA", "CA-ON", 2.0, 15),
+            new Hub("Calgary", 51.05, -114.07, "NA", "CA", "CA-AB", 3.0, 10),
+            new Hub("Mexico City", 19.43, -99.13, "NA", "MX", "MX-CMX", 2.5, 10),
+            new Hub("Sao Paulo", -23.55, -46.63, "SA", "BR", "BR-SP", 2.5, 25),
+            new Hub("Buenos Aires", -34.60, -58.38, "SA", "AR", "AR-C", 3.0, 8),
+            new Hub("London", 51.51, -0.13, "EU", "GB", "GB-ENG", 1.5, 12),
+            new Hub("Paris", 48.86, 2.35, "EU", "FR", "FR-IDF", 2.0, 12),
+            new Hub("Frankfurt", 50.11, 8.68, "EU", "DE", "DE-HE", 2.0, 12),
+            new Hub("Milan", 45.46, 9.19, "EU", "IT", "IT-25", 1.5, 6),
+            new Hub("Madrid", 40.42, -3.70, "EU", "ES", "ES-MD", 2.0, 5),
+            new Hub("Moscow", 55.76, 37.62, "EU", "RU", "RU-MOW", 3.0, 8),
+            new Hub("Johannesburg", -26.20, 28.05, "AF", "ZA", "ZA-GT", 2.5, 6),
+            new Hub("Lagos", 6.52, 3.38, "AF", "NG", "NG-LA", 2.0, 3),
+            new Hub("Delhi", 28.61, 77.21, "AS", "IN", "IN-DL", 2.5, 5),
+            new Hub("Beijing", 39.90, 116.41, "AS", "CN", "CN-11", 2.5, 5),
+            new Hub("Tokyo", 35.68, 139.69, "AS", "JP", "JP-13", 1.5, 5),
+            new Hub("Jakarta", -6.21, 106.85, "AS", "ID", "ID-JK", 3.0, 5),
+            new Hub("Sydney", -33.87, 151.21, "OC", "AU", "AU-NSW", 2.5, 15),
+            new Hub("Perth", -31.95, 115.86, "OC", "AU", "AU-WA", 4.0, 8),
+            new Hub("Auckland", -36.85, 174.76, "OC", "NZ", "NZ-AUK", 2.0, 5),
+    };
+
+    /**
+     * Background locations, with the country code OurAirports uses for unassigned ones.
+     */
+    private static final Hub REMOTE = new Hub("Remote", 0, 0, "AN", "ZZ", "ZZ-U-A", 0, 0);
+
+    private static final int TOWNS_PER_HUB = 32;
+    private static final double TOWN_SPREAD = 0.15;
+    private static final double BACKGROUND_SHARE = 0.05;
+
+    private SyntheticAirports() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: SyntheticAirports <rows> <file> [seed]");
+            System.exit(2);
+        }
+        long rows = Long.parseLong(args[0]);
+        Path file = Path.of(args[1]);
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 1L;
+
+        long start = System.nanoTime();
+        write(file, rows, seed);
+        System.out.printf("Wrote %d rows (%d MB) to %s in %d ms%n", rows, Files.size(file) / (1024 * 1024),
+                file, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Header plus {@code rows} data rows, newline separated. Only for sizes that fit in memory.
+     */
+    public static String csv(int rows, long seed) {
+        StringWriter csv = new StringWriter(rows * 160);
+        try {
+            write(csv, rows, seed);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return csv.toString();
+    }
+
+    /**
+     * Stream header plus {@code rows} data rows to a file.
+     */
+    public static void write(Path file, long rows, long seed) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            write(writer, rows, seed);
+        }
+    }
+
+    /**
+     * Stream header plus {@code rows} data rows. A smaller dataset with the same seed is a prefix
+     * of a larger one.
+     */
+    public static void write(Writer out, long rows, long seed) throws IOException {
+        Generator generator = new Generator(seed);
+        out.write(HEADER);
+        out.write('\n');
+        for (long i = 0; i < rows; i++) {
+            out.write(generator.row(i));
+            out.write('\n');
+        }
+    }
+
+    /**
+     * A single representative data row.
+     */
+    public static String row(long index, long seed) {
+        return new Generator(seed).row(index);
+    }
+
+    /**
+     * Unique four-character ICAO-like code for an index below {@link #ICAO_CAPACITY}.
+     * Indexes below 36^3 all start with {@code A}.
+     */
+    public static String ident(int index) {
+        if (index < 0 || index >= ICAO_CAPACITY) {
+            throw new IllegalArgumentException("No four-character ident for index " + index);
+        }
+        char[] code = new char[4];
+        for (int i = 3; i >= 0; i--) {
+            code[i] = IDENT_ALPHABET.charAt(index % IDENT_ALPHABET.length());
+            index /= IDENT_ALPHABET.length();
+        }
+        return new String(code);
+    }
+
+    /**
+     * Draws rows from one random stream; town centres are fixed by the seed.
+     */
+    private static final class Generator {
+
+        private final SplittableRandom random;
+        private final double[][] townLatitudes = new double[HUBS.length][TOWNS_PER_HUB];
+        private final double[][] townLongitudes = new double[HUBS.length][TOWNS_PER_HUB];
+        private final int totalHubWeight;
+        private final int totalTypeWeight;
+
+        Generator(long seed) {
+            random = new SplittableRandom(seed);
+            int hubWeight = 0;
+            for (int h = 0; h < HUBS.length; h++) {
+                Hub hub = HUBS[h];
+                for (int t = 0; t < TOWNS_PER_HUB; t++) {
+                    townLatitudes[h][t] = clampLatitude(hub.latitude + gaussian() * hub.spread);
+                    townLongitudes[h][t] = wrapLongitude(hub.longitude + gaussian() * hub.spread);
+                }
+                hubWeight += hub.weight;
+            }
+            totalHubWeight = hubWeight;
+            int typeWeight = 0;
+            for (int weight : TYPE_WEIGHTS) {
+                typeWeight += weight;
+            }
+            totalTypeWeight = typeWeight;
+        }
+
+        String row(long index) {
+            Hub hub;
+            double latitude;
+            double longitude;
+            if (random.nextDouble() < BACKGROUND_SHARE) {
+                hub = REMOTE;
+                latitude = -55 + random.nextDouble() * 125;
+                longitude = -180 + random.nextDouble() * 360;
+            } else {
+                int h = hub();
+                hub = HUBS[h];
+                // Squaring skews towards the first towns, so a few towns hold most fields
+                double u = random.nextDouble();
+                int town = (int) (TOWNS_PER_HUB * u * u);
+                latitude = clampLatitude(townLatitudes[h][town] + gaussian() * TOWN_SPREAD);
+                longitude = wrapLongitude(townLongitudes[h][town] + gaussian() * TOWN_SPREAD);
+            }
+
+            String ident = index < ICAO_CAPACITY ? ident((int) index) : hub.country + "-" + index;
+            String type = type();
+            return (index + 1) + ",\"" + ident + "\",\"" + type + "\"," +
+                    "\"Synthetic Field " + index + ", " + hub.name + "\"," + round(latitude) + "," + round(longitude) + "," +
+                    random.nextInt(9000) + ",\"" + hub.continent + "\",\"" + hub.country + "\",\"" + hub.region + "\"," +
+                    "\"" + hub.name + "\",\"" + (type.equals("large_airport") ? "yes" : "no") + "\"," +
+                    "\"" + ident + "\",\"\",\"\",\"\",\"\",\"\"";
+        }
+
+        private int hub() {
+            int draw = random.nextInt(totalHubWeight);
+            for (int h = 0; h < HUBS.length; h++) {
+                draw -= HUBS[h].weight;
+                if (draw < 0) {
+                    return h;
+                }
+            }
+            throw new IllegalStateException("Hub weights changed");
+        }
+
+        private String type() {
+            int draw = random.nextInt(totalTypeWeight);
+            for (int i = 0; i < TYPES.length; i++) {
+                draw -= TYPE_WEIGHTS[i];
+                if (draw < 0) {
+                    return TYPES[i];
+                }
+            }
+            throw new IllegalStateException("Type weights changed");
+        }
+
+        /**
+         * Standard normal deviate (Box-Muller).
+         */
+        private double gaussian() {
+            return Math.sqrt(-2 * Math.log(1 - random.nextDouble())) * Math.cos(2 * Math.PI * random.nextDouble());
+        }
+
+        private static double clampLatitude(double latitude) {
+            return Math.max(-89.9, Math.min(89.9, latitude));
+        }
+
+        private static double wrapLongitude(double longitude) {
+            return ((longitude + 180) % 360 + 360) % 360 - 180;
+        }
+
+        /**
+         * Six decimals, as in the real file.
+         */
+        private static double round(double degrees) {
+            return Math.round(degrees * 1e6) / 1e6;
+        }
+    }
+
+    private record Hub(String name, double latitude, double longitude, String continent,
+                       String country, String region, double spread, int weight) {
+    }
+}
@@ -0,0 +1,76 @@
+package com.fabrick.dataset;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SyntheticAirportsTest {
+
+    @Test
+    void testCsv_SameSeedGivesSameDataAndSmallerSizesArePrefixes() {
+        String small = SyntheticAirports.csv(1_000, 3);
+        String large = SyntheticAirports.csv(2_000, 3);
+
+        assertEquals(small, SyntheticAirports.csv(1_000, 3));
+        assertTrue(large.startsWith(small));
+        assertNotEquals(small, SyntheticAirports.csv(1_000, 4));
+    }
+
+    @Test
+    void testCsv_RowsFollowTheOurAirportsSchemaWithUniqueIdents() {
+        List<String> lines = SyntheticAirports.csv(10_000, 1).lines().toList();
+        int columns = fields(SyntheticAirports.HEADER).length;
+
+        Set<String> idents = new HashSet<>();
+        for (String line : lines.subList(1, lines.size())) {
+            String[] fields = fields(line);
+            assertEquals(columns, fields.length, line);
+            assertEquals(4, fields[1].length());
+            assertTrue(idents.add(fields[1]));
+        }
+        assertEquals(10_000, idents.size());
+    }
+
+    @Test
+    void testCsv_LocationsAreClustered() {
+        List<String> lines = SyntheticAirports.csv(20_000, 1).lines().toList();
+
+        Map<String, Integer> perSquareDegree = new HashMap<>();
+        for (String line : lines.subList(1, lines.size())) {
+            String[] fields = fields(line);
+            String cell = (int) Math.floor(Double.parseDouble(fields[4])) + ":"
+                    + (int) Math.floor(Double.parseDouble(fields[5]));
+            perSquareDegree.merge(cell, 1, Integer::sum);
+        }
+
+        // Uniform over the same area would put a handful of rows in each square degree
+        int densest = perSquareDegree.values().stream().max(Integer::compare).orElseThrow();
+        assertTrue(densest > 200, "densest square degree holds " + densest);
+        assertTrue(perSquareDegree.size() < 5_000, "rows spread over " + perSquareDegree.size());
+    }
+
+    @Test
+    void testRow_BeyondIdentCapacityUsesLocalIdent() {
+        String row = SyntheticAirports.row(SyntheticAirports.ICAO_CAPACITY, 1);
+
+        assertTrue(fields(row)[1].length() > 4);
+        assertThrows(IllegalArgumentException.class, () -> SyntheticAirports.ident(SyntheticAirports.ICAO_CAPACITY));
+    }
+
+    /**
+     * Split on commas outside quotes and strip the quotes.
+     */
+    private static String[] fields(String line) {
+        String[] fields = line.split(",(?=(?:[^\"]*\"[^\"]*\")*[^\"]*$)", -1);
+        for (int i = 0; i < fields.length; i++) {
+            fields[i] = fields[i].replace("\"", "");
+        }
+        return fields;
+    }
+}
@@ -0,0 +1,154 @@
+package com.fabrick.geo;
+
+import com.fabrick.geo.GeoCell.BatchRange;
+import com.fabrick.geo.GeoCell.CellRange;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GeoCellTest {
+
+    @Test
+    void testCellId_NearbyPointsSharePrefix() {
+        long denver = GeoCell.cellId(39.8617, -104.6732);
+        long centennial = GeoCell.cellId(39.5701, -104.849);
+        long heathrow = GeoCell.cellId(51.4706, -0.461941);
+
+        // Denver-area points agree on many more leading bits than Denver and London
+        int denverCentennial = Long.numberOfLeadingZeros(denver ^ centennial);
+        int denverHeathrow = Long.numberOfLeadingZeros(denver ^ heathrow);
+        assertTrue(denverCentennial > denverHeathrow);
+    }
+
+    @Test
+    void testCellId_ClampsOutOfRangeCoordinates() {
+        assertEquals(GeoCell.cellId(90.0, 180.0), GeoCell.cellId(95.0, 200.0));
+        assertEquals(0L, GeoCell.cellId(-90.0, -180.0));
+    }
+
+    @Test
+    void testCover_ZeroSizedBoxIsSingleCell() {
+        List<CellRange> ranges = GeoCell.cover(39.8617, 39.8617, -104.6732, -104.6732);
+
+        assertEquals(1, ranges.size());
+        long cell = GeoCell.cellId(39.8617, -104.6732);
+        assertEquals(cell, ranges.get(0).getFrom());
+        assertEquals(cell, ranges.get(0).getTo());
+    }
+
+    @Test
+    void testCover_RangesAreSortedDisjointAndBounded() {
+        List<CellRange> ranges = GeoCell.cover(38.8617, 40.8617, -105.6732, -103.6732);
+
+        assertFalse(ranges.isEmpty());
+        assertTrue(ranges.size() <= GeoCell.MAX_COVER_CELLS);
+        for (int i = 1; i < ranges.size(); i++) {
+            assertTrue(ranges.get(i).getFrom() > ranges.get(i - 1).getTo() + 1);
+        }
+    }
+
+    @Test
+    void testCover_ContainsEveryPointInsideTheBox() {
+        Random random = new Random(42);
+
+        for (int box = 0; box < 200; box++) {
+            double minLat = -90 + random.nextDouble() * 170;
+            double minLon = -180 + random.nextDouble() * 350;
+            double maxLat = Math.min(90, minLat + random.nextDouble() * 20);
+            double maxLon = Math.min(180, minLon + random.nextDouble() * 20);
+            List<CellRange> ranges = GeoCell.cover(minLat, maxLat, minLon, maxLon);
+
+            for (int point = 0; point < 50; point++) {
+                double lat = minLat + random.nextDouble() * (maxLat - minLat);
+                double lon = minLon + random.nextDouble() * (maxLon - minLon);
+                long cell = GeoCell.cellId(lat, lon);
+
+                assertTrue(ranges.stream().anyMatch(r -> r.getFrom() <= cell && cell <= r.getTo()),
+                        "Point " + lat + "," + lon + " not covered");
+            }
+        }
+    }
+
+    @Test
+    void testCover_EmptyForInvertedBox() {
+        assertTrue(GeoCell.cover(10.0, 5.0, 0.0, 1.0).isEmpty());
+    }
+
+    @Test
+    void testCoverBatch_BoundedAndCoversEveryBox() {
+        Random random = new Random(7);
+        List<BoundingBox> boxes = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            boxes.add(BoundingBox.around(-80 + random.nextDouble() * 160, -170 + random.nextDouble() * 340, 0.5));
+        }
+
+        List<BatchRange> ranges = GeoCell.coverBatch(boxes, GeoCell.MAX_BATCH_RANGES);
+
+        assertTrue(ranges.size() <= GeoCell.MAX_BATCH_RANGES);
+        for (int i = 1; i < ranges.size(); i++) {
+            assertTrue(ranges.get(i).getFrom() > ranges.get(i - 1).getTo());
+        }
+        for (BoundingBox box : boxes) {
+            for (double lat : new double[]{box.getMinLat(), box.getMaxLat()}) {
+                for (double lon : new double[]{box.getMinLon(), box.getMaxLon()}) {
+                    long cell = GeoCell.cellId(lat, lon);
+                    assertTrue(ranges.stream().anyMatch(r -> r.getFrom() <= cell && cell <= r.getTo()
+                            && r.getEnvelope().contains(lat, lon)));
+                }
+            }
+        }
+    }
+
+    @Test
+    void testCoverBatch_RangesKeepTheirOwnEnvelope() {
+        BoundingBox denver = BoundingBox.around(39.8617, -104.6732, 0.1);
+        BoundingBox tokyo = BoundingBox.around(35.5523, 139.7798, 0.1);
+
+        List<BatchRange> ranges = GeoCell.coverBatch(List.of(denver, tokyo), GeoCell.MAX_BATCH_RANGES);
+
+        assertFalse(ranges.isEmpty());
+        for (BatchRange range : ranges) {
+            assertTrue(range.getEnvelope().equals(denver) || range.getEnvelope().equals(tokyo));
+        }
+        List<CellRange> denverCover =
+                GeoCell.cover(denver.getMinLat(), denver.getMaxLat(), denver.getMinLon(), denver.getMaxLon());
+        assertEquals(denverCover.size(), ranges.stream().filter(r -> r.getEnvelope().equals(denver)).count());
+    }
+
+    @Test
+    void testSpatialSweep_AssignsItemsToEveryContainingBox() {
+        List<double[]> points = List.of(
+                new double[]{39.86, -104.67},
+                new double[]{39.57, -104.85},
+                new double[]{51.47, -0.46});
+        List<BoundingBox> boxes = List.of(
+                BoundingBox.around(39.86, -104.67, 0.5),
+                BoundingBox.around(39.86, -104.67, 0.1),
+                BoundingBox.around(51.47, -0.46, 0.5),
+                BoundingBox.around(0.0, 0.0, 0.5));
+
+        List<List<double[]>> result = SpatialSweep.assign(boxes, points, p -> p[0], p -> p[1]);
+
+        assertEquals(2, result.get(0).size());
+        assertEquals(1, result.get(1).size());
+        assertEquals(51.47, result.get(2).get(0)[0]);
+        assertTrue(result.get(3).isEmpty());
+    }
+
+    @Test
+    void testSpatialCursor_RoundTripAndRangeStart() {
+        SpatialCursor cursor = new SpatialCursor(GeoCell.cellId(39.86, -104.67), 123L);
+        assertEquals(cursor, SpatialCursor.decode(cursor.encode()));
+        assertThrows(IllegalArgumentException.class, () -> SpatialCursor.decode("not-a-cursor"));
+
+        CellRange range = new CellRange(100L, 200L);
+        assertEquals(new SpatialCursor(99L, 0L), SpatialCursor.startOf(range, null));
+        assertEquals(new SpatialCursor(99L, 0L), SpatialCursor.startOf(range, new SpatialCursor(50L, 9L)));
+        assertEquals(new SpatialCursor(150L, 9L), SpatialCursor.startOf(range, new SpatialCursor(150L, 9L)));
+        assertNull(SpatialCursor.startOf(range, new SpatialCursor(201L, 0L)));
+    }
+}
@@ -0,0 +1,97 @@
+package com.fabrick.geo;
+
+import com.fabrick.geo.Route.Position;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RouteTest {
+
+    private static final double[] DENVER = {39.8617, -104.6732};
+    private static final double[] NEW_YORK = {40.6398, -73.7789};
+    private static final double[] TOKYO = {35.5523, 139.7798};
+    private static final double[] ANCHORAGE = {61.1743, -149.9963};
+    private static final double[] LONGYEARBYEN = {78.2461, 15.4656};
+
+    @Test
+    void testLengthAndLocate_AlongTheRoute() {
+        Route route = route(DENVER, NEW_YORK);
+
+        // Great-circle distance KDEN-KJFK is about 2620 km
+        assertEquals(2620, route.getLengthKm(), 15);
+
+        Position start = route.locate(DENVER[0], DENVER[1]);
+        assertEquals(0, start.getAlongTrackKm(), 1e-6);
+        assertEquals(0, start.getDistanceKm(), 1e-6);
+
+        Position end = route.locate(NEW_YORK[0], NEW_YORK[1]);
+        assertEquals(route.getLengthKm(), end.getAlongTrackKm(), 1e-6);
+        assertEquals(0, end.getDistanceKm(), 1e-6);
+
+        // Chicago O'Hare lies just north of the route, about half way
+        Position chicago = route.locate(41.9786, -87.9048);
+        assertTrue(chicago.getAlongTrackKm() > 1200 && chicago.getAlongTrackKm() < 1500);
+        assertTrue(chicago.getDistanceKm() < 150);
+
+        // Behind the origin, the distance is to the origin itself
+        Position behind = route.locate(39.8617, -110.0);
+        assertEquals(0, behind.getAlongTrackKm(), 1e-6);
+        assertEquals(route(DENVER, new double[]{39.8617, -110.0}).getLengthKm(), behind.getDistanceKm(), 1e-6);
+    }
+
+    @Test
+    void testLocate_MeasuresAlongEveryLeg() {
+        Route direct = route(DENVER, NEW_YORK);
+        Route viaChicago = route(DENVER, new double[]{41.9786, -87.9048}, NEW_YORK);
+
+        Position chicago = viaChicago.locate(41.9786, -87.9048);
+        assertEquals(0, chicago.getDistanceKm(), 1e-6);
+        assertEquals(route(DENVER, new double[]{41.9786, -87.9048}).getLengthKm(), chicago.getAlongTrackKm(), 1e-6);
+        assertTrue(viaChicago.getLengthKm() > direct.getLengthKm());
+    }
+
+    @Test
+    void testCorridor_CoversEveryPointWithinTheWidth() {
+        Random random = new Random(3);
+        for (Route route : List.of(route(DENVER, NEW_YORK), route(TOKYO, ANCHORAGE), route(ANCHORAGE, LONGYEARBYEN))) {
+            List<BoundingBox> boxes = route.corridor(100, 200);
+            assertTrue(boxes.size() >= Math.ceil(route.getLengthKm() / 200));
+
+            int inside = 0;
+            while (inside < 2_000) {
+                double lat = random.nextDouble() * 180 - 90;
+                double lon = random.nextDouble() * 360 - 180;
+                if (route.locate(lat, lon).getDistanceKm() > 100) {
+                    continue;
+                }
+                inside++;
+                assertTrue(boxes.stream().anyMatch(box -> box.contains(lat, lon)),
+                        "no box covers " + lat + "," + lon);
+            }
+        }
+    }
+
+    @Test
+    void testCorridor_SplitsBoxesAtTheAntimeridian() {
+        List<BoundingBox> boxes = route(TOKYO, ANCHORAGE).corridor(50, 200);
+
+        for (BoundingBox box : boxes) {
+            assertTrue(box.getMinLon() >= -180 && box.getMaxLon() <= 180);
+            assertTrue(box.getMaxLon() - box.getMinLon() < 180, "box spans the globe: " + box);
+        }
+        assertTrue(boxes.stream().anyMatch(box -> box.getMaxLon() == 180));
+        assertTrue(boxes.stream().anyMatch(box -> box.getMinLon() == -180));
+    }
+
+    @Test
+    void testThrough_NeedsTwoWaypoints() {
+        assertThrows(IllegalArgumentException.class, () -> route(DENVER));
+    }
+
+    private static Route route(double[]... waypoints) {
+        return Route.through(List.of(waypoints), point -> point[0], point -> point[1]);
+    }
+}
@@ -0,0 +1,102 @@
+package com.fabrick.limit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrencyLimitWebFilterTest {
+
+    private AdaptiveConcurrencyLimiter limiter;
+    private ConcurrencyLimitWebFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        limiter = new AdaptiveConcurrencyLimiter("airports", new GradientLimit(1, 1, 1), new SimpleMeterRegistry());
+        filter = new ConcurrencyLimitWebFilter(
+                Map.of(PathPatternParser.defaultInstance.parse("/api/fabrick/v1.0/airports/**"), limiter),
+                Duration.ofSeconds(2));
+    }
+
+    @Test
+    void testFilter_ShedsWith503AndRetryAfterWhenLimitReached() {
+        Sinks.Empty<Void> pending = Sinks.empty();
+        MockServerWebExchange first = exchange("/api/fabrick/v1.0/airports/KDEN/stations");
+        var inFlight = filter.filter(first, exchange -> pending.asMono()).subscribe();
+
+        MockServerWebExchange second = exchange("/api/fabrick/v1.0/airports/KAPA/stations");
+        StepVerifier.create(filter.filter(second, exchange -> Mono.error(new AssertionError("must not run"))))
+                .verifyComplete();
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, second.getResponse().getStatusCode());
+        assertEquals("2", second.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+
+        pending.tryEmitEmpty();
+        assertTrue(inFlight.isDisposed());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void testFilter_SlowStreamDoesNotShrinkTheLimit() {
+        AdaptiveConcurrencyLimiter stations = new AdaptiveConcurrencyLimiter("stations",
+                new GradientLimit(16, 1, 16), new SimpleMeterRegistry());
+        ConcurrencyLimitWebFilter stationsFilter = new ConcurrencyLimitWebFilter(
+                Map.of(PathPatternParser.defaultInstance.parse("/api/fabrick/v1.0/stations/**"), stations),
+                Duration.ofSeconds(2));
+        String path = "/api/fabrick/v1.0/stations/KDEN/airports";
+        // Half the limit busy, so every sample counts
+        Sinks.Empty<Void> pending = Sinks.empty();
+        for (int i = 0; i < 7; i++) {
+            stationsFilter.filter(exchange(path), exchange -> pending.asMono()).subscribe();
+        }
+        for (int i = 0; i < 20; i++) {
+            StepVerifier.create(stationsFilter.filter(exchange(path), exchange -> Mono.empty())).verifyComplete();
+        }
+        int limit = stations.getLimit();
+
+        StepVerifier.create(stationsFilter.filter(exchange(path), exchange -> {
+                    exchange.getResponse().getHeaders().setContentType(MediaType.APPLICATION_NDJSON);
+                    return Mono.delay(Duration.ofMillis(50)).then();
+                }))
+                .verifyComplete();
+        assertEquals(limit, stations.getLimit());
+        assertEquals(7, stations.getInFlight());
+
+        // The same latency on a JSON lookup is a sign of queueing and does shrink it
+        StepVerifier.create(stationsFilter.filter(exchange(path), exchange -> {
+                    exchange.getResponse().getHeaders().setContentType(MediaType.APPLICATION_JSON);
+                    return Mono.delay(Duration.ofMillis(50)).then();
+                }))
+                .verifyComplete();
+        assertTrue(stations.getLimit() < limit);
+        pending.tryEmitEmpty();
+    }
+
+    @Test
+    void testFilter_PassesUnmatchedPaths() {
+        limiter.tryAcquire();
+
+        MockServerWebExchange health = exchange("/api/fabrick/v1.0/health");
+        StepVerifier.create(filter.filter(health, exchange -> Mono.empty()))
+                .verifyComplete();
+
+        assertNull(health.getResponse().getStatusCode());
+    }
+
+    private static MockServerWebExchange exchange(String path) {
+        return MockServerWebExchange.from(MockServerHttpRequest.get(path));
+    }
+}
@@ -0,0 +1,49 @@
+package com.fabrick.limit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GradientLimitTest {
+
+    private static final long MILLIS = 1_000_000L;
+
+    @Test
+    void testLimitGrowsWhileLatencyIsStable() {
+        GradientLimit limit = new GradientLimit(10, 2, 100);
+
+        for (int i = 0; i < 50; i++) {
+            limit.onSample(10 * MILLIS, limit.getLimit());
+        }
+
+        assertTrue(limit.getLimit() > 10);
+        assertTrue(limit.getLimit() <= 100);
+    }
+
+    @Test
+    void testLimitShrinksWhenLatencyRises() {
+        GradientLimit limit = new GradientLimit(50, 2, 100);
+        for (int i = 0; i < 20; i++) {
+            limit.onSample(10 * MILLIS, 50);
+        }
+        int before = limit.getLimit();
+
+        for (int i = 0; i < 20; i++) {
+            limit.onSample(100 * MILLIS, limit.getLimit());
+        }
+
+        assertTrue(limit.getLimit() < before);
+        assertTrue(limit.getLimit() >= 2);
+    }
+
+    @Test
+    void testLimitIgnoresSamplesFarBelowLimit() {
+        GradientLimit limit = new GradientLimit(40, 2, 100);
+
+        for (int i = 0; i < 20; i++) {
+            limit.onSample(500 * MILLIS, 1);
+        }
+
+        assertEquals(40, limit.getLimit());
+    }
+}
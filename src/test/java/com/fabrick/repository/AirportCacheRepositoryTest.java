@@ -0,0 +1,82 @@
+package com.fabrick.repository;
+
+import com.fabrick.entity.AirportCacheEntity;
+import com.fabrick.entity.LocationEntity;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:l2-cache-test",
+        "spring.r2dbc.url=r2dbc:h2:mem:///l2-cache-test"
+})
+class AirportCacheRepositoryTest {
+
+    @Autowired
+    private LocationRepository locationRepository;
+
+    @Autowired
+    private AirportCacheRepository airportCacheRepository;
+
+    @Autowired
+    private SecondLevelCacheInvalidation cacheInvalidation;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private SessionFactory sessionFactory;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        locationRepository.deleteAllInBatch();
+        locationRepository.saveAll(List.of(LocationEntity.builder()
+                .locationId("KDEN")
+                .name("Denver International")
+                .latitude(39.8617)
+                .longitude(-104.6732)
+                .updatedAt(LocalDateTime.now())
+                .build()));
+        sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        sessionFactory.getCache().evictAllRegions();
+        statistics = sessionFactory.getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void testFindByAirportId_RepeatedLookupRunsNoSql() {
+        assertEquals("Denver International", airportCacheRepository.findByAirportId("KDEN").orElseThrow().getName());
+        long statements = statistics.getPrepareStatementCount();
+        assertTrue(statements > 0);
+
+        assertEquals("Denver International", airportCacheRepository.findByAirportId("KDEN").orElseThrow().getName());
+
+        assertEquals(statements, statistics.getPrepareStatementCount());
+        assertTrue(statistics.getNaturalIdCacheHitCount() > 0);
+        assertTrue(statistics.getSecondLevelCacheHitCount() > 0);
+    }
+
+    @Test
+    void testAfterLoad_EvictsWhatALookupOverlappingAReloadCached() {
+        long generation = cacheInvalidation.generation();
+        AirportCacheEntity denver = airportCacheRepository.findByAirportId("KDEN").orElseThrow();
+        assertTrue(sessionFactory.getCache().containsEntity(AirportCacheEntity.class, denver.getId()));
+
+        // Unchanged generation: the cached row stays
+        cacheInvalidation.afterLoad(generation, AirportCacheEntity.class);
+        assertTrue(sessionFactory.getCache().containsEntity(AirportCacheEntity.class, denver.getId()));
+
+        // A reload evicted in between: whatever the lookup put afterwards goes too
+        cacheInvalidation.afterLoad(generation - 1, AirportCacheEntity.class);
+        assertFalse(sessionFactory.getCache().containsEntity(AirportCacheEntity.class, denver.getId()));
+    }
+}
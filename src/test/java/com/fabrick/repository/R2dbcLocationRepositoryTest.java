@@ -0,0 +1,191 @@
+package com.fabrick.repository;
+
+import com.fabrick.entity.LocationEntity;
+import com.fabrick.geo.BoundingBox;
+import com.fabrick.geo.GeoCell;
+import com.fabrick.geo.SpatialCursor;
+import com.fabrick.model.Airport;
+import com.fabrick.model.Projection;
+import com.fabrick.model.Station;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import reactor.test.StepVerifier;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "fabrick.persistence.mode=r2dbc",
+        "spring.datasource.url=jdbc:h2:mem:r2dbc-test",
+        "spring.r2dbc.url=r2dbc:h2:mem:///r2dbc-test"
+})
+class R2dbcLocationRepositoryTest {
+
+    @Autowired
+    private LocationRepository locationRepository;
+
+    @Autowired
+    private R2dbcLocationRepository r2dbcLocationRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        locationRepository.deleteAllInBatch();
+        locationRepository.saveAll(List.of(
+                location("KDEN", "Denver International", 39.8617, -104.6732, 5434.0),
+                location("KAPA", "Centennial", 39.5701, -104.849, 5885.0),
+                location("LLBS", "Beersheba", 31.287, 34.723, -1266.6)
+        ));
+    }
+
+    @Test
+    void testFindAirportById() {
+        StepVerifier.create(r2dbcLocationRepository.findAirportById("KDEN"))
+                .assertNext(airport -> {
+                    assertEquals("Denver International", airport.getName());
+                    assertEquals(5434.0, airport.getElevation());
+                })
+                .verifyComplete();
+
+        StepVerifier.create(r2dbcLocationRepository.findAirportById("XXXX"))
+                .verifyComplete();
+    }
+
+    @Test
+    void testQueriesAreTimedAsRepositoryInvocations() {
+        StepVerifier.create(r2dbcLocationRepository.findStationsInBoundingBox(31.0, 32.0, 34.0, 35.0))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        Timer timer = meterRegistry.find("spring.data.repository.invocations")
+                .tags("repository", "R2dbcLocationRepository", "method", "findStationsInBoundingBox",
+                        "state", "SUCCESS", "exception", "None")
+                .timer();
+        assertNotNull(timer);
+        assertTrue(timer.count() >= 1);
+    }
+
+    @Test
+    void testFindStationById_TruncatesElevation() {
+        StepVerifier.create(r2dbcLocationRepository.findStationById("LLBS"))
+                .assertNext(station -> {
+                    assertEquals("Beersheba", station.getSite());
+                    assertEquals(-1266, station.getElevation());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void testFindInBoundingBox() {
+        StepVerifier.create(r2dbcLocationRepository.findAirportsInBoundingBox(39.0, 40.5, -105.5, -104.0)
+                        .map(Airport::getId)
+                        .collectList())
+                .assertNext(ids -> assertEquals(List.of("KAPA", "KDEN"), ids.stream().sorted().toList()))
+                .verifyComplete();
+
+        StepVerifier.create(r2dbcLocationRepository.findStationsInBoundingBox(31.0, 32.0, 34.0, 35.0)
+                        .map(Station::getId)
+                        .collectList())
+                .assertNext(ids -> assertEquals(List.of("LLBS"), ids))
+                .verifyComplete();
+    }
+
+    @Test
+    void testFindInBoundingBox_ReadsOnlyProjectedColumns() {
+        StepVerifier.create(r2dbcLocationRepository.findAirportsInBoundingBox(39.8, 39.9, -104.7, -104.6,
+                        Projection.parse("id,latitude,longitude", Airport.FIELDS)))
+                .assertNext(airport -> assertEquals(
+                        Airport.builder().id("KDEN").latitude(39.8617).longitude(-104.6732).build(), airport))
+                .verifyComplete();
+
+        StepVerifier.create(r2dbcLocationRepository.findStationsInBoundingBox(31.0, 32.0, 34.0, 35.0,
+                        Projection.parse("site,elevation", Station.FIELDS)))
+                .assertNext(station -> assertEquals(Station.builder().site("Beersheba").elevation(-1266).build(), station))
+                .verifyComplete();
+    }
+
+    @Test
+    void testFindByIdsAndCover() {
+        StepVerifier.create(r2dbcLocationRepository.findAirportsByIds(List.of("KDEN", "LLBS", "XXXX"))
+                        .map(Airport::getId)
+                        .collectList())
+                .assertNext(ids -> assertEquals(List.of("KDEN", "LLBS"), ids.stream().sorted().toList()))
+                .verifyComplete();
+
+        List<BoundingBox> boxes = List.of(
+                BoundingBox.around(39.8617, -104.6732, 0.1),
+                BoundingBox.around(31.287, 34.723, 0.5));
+        StepVerifier.create(r2dbcLocationRepository.findStationsInCover(boxes)
+                        .map(Station::getId)
+                        .collectList())
+                .assertNext(ids -> assertTrue(ids.containsAll(List.of("KDEN", "LLBS"))))
+                .verifyComplete();
+    }
+
+    @Test
+    void testFindInCover_FarApartOriginsReadOnlyTheirOwnNeighbourhood() {
+        BoundingBox denver = BoundingBox.around(39.8617, -104.6732, 0.1);
+        BoundingBox tokyo = BoundingBox.around(35.5523, 139.7798, 0.1);
+        // Just outside each box but inside its cover cells and inside the envelope of both boxes
+        LocationEntity southOfDenver = location("DEN1", "South of Denver", denver.getMinLat() - 0.001, -104.6732, 0.0);
+        LocationEntity northOfTokyo = location("HND1", "North of Tokyo", tokyo.getMaxLat() + 0.001, 139.7798, 0.0);
+        assertTrue(inCover(denver, southOfDenver) && inCover(tokyo, northOfTokyo));
+        locationRepository.saveAll(List.of(
+                location("RJTT", "Tokyo Haneda", 35.5523, 139.7798, 21.0), southOfDenver, northOfTokyo));
+
+        StepVerifier.create(r2dbcLocationRepository.findAirportsInCover(List.of(denver, tokyo))
+                        .map(Airport::getId)
+                        .collectList())
+                .assertNext(ids -> assertEquals(List.of("KDEN", "RJTT"), ids.stream().sorted().toList()))
+                .verifyComplete();
+    }
+
+    @Test
+    void testFindPage_WalksEveryRowOnce() {
+        BoundingBox box = new BoundingBox(-90.0, 90.0, -180.0, 180.0);
+        List<String> seen = new ArrayList<>();
+        SpatialCursor cursor = null;
+        int pages = 0;
+        do {
+            List<Map.Entry<SpatialCursor, Airport>> rows =
+                    r2dbcLocationRepository.findAirportsPage(box, cursor, 1).collectList().block();
+            assertNotNull(rows);
+            assertTrue(rows.size() <= 2);
+            seen.add(rows.get(0).getValue().getId());
+            cursor = rows.size() > 1 ? rows.get(0).getKey() : null;
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(3, pages);
+        assertEquals(List.of("KAPA", "KDEN", "LLBS"), seen.stream().sorted().toList());
+    }
+
+    private static boolean inCover(BoundingBox box, LocationEntity location) {
+        long cell = GeoCell.cellId(location.getLatitude(), location.getLongitude());
+        return GeoCell.cover(box.getMinLat(), box.getMaxLat(), box.getMinLon(), box.getMaxLon()).stream()
+                .anyMatch(range -> range.getFrom() <= cell && cell <= range.getTo());
+    }
+
+    private static LocationEntity location(String id, String name, double lat, double lon, double elevation) {
+        return LocationEntity.builder()
+                .locationId(id)
+                .name(name)
+                .state("")
+                .country("US")
+                .latitude(lat)
+                .longitude(lon)
+                .elevation(elevation)
+                .updatedAt(LocalDateTime.now())
+                .build();
+    }
+}
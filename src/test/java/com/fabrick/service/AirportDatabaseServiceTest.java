@@ -0,0 +1,241 @@
+package com.fabrick.service;
+
+import com.fabrick.dataset.SyntheticAirports;
+import com.fabrick.entity.LocationEntity;
+import com.fabrick.model.DatasetReloadResult;
+import com.fabrick.repository.LocationRepository;
+import com.fabrick.repository.SecondLevelCacheInvalidation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class AirportDatabaseServiceTest {
+
+    private static final String HEADER = "id,ident,type,name,latitude_deg,longitude_deg,elevation_ft," +
+            "continent,iso_country,iso_region,municipality,scheduled_service,gps_code";
+
+    @TempDir
+    Path tempDir;
+
+    private Path csv;
+    private LocationRepository locationRepository;
+    private ConcurrentMapCacheManager cacheManager;
+    private DatasetListener datasetListener;
+    private AirportDatabaseService airportDatabaseService;
+
+    @BeforeEach
+    void setUp() {
+        csv = tempDir.resolve("airports.csv");
+        locationRepository = mock(LocationRepository.class);
+        cacheManager = new ConcurrentMapCacheManager("airports", "stations");
+        datasetListener = mock(DatasetListener.class);
+
+        airportDatabaseService = new AirportDatabaseService(
+                locationRepository,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)),
+                new DefaultResourceLoader(),
+                cacheManager,
+                mock(SecondLevelCacheInvalidation.class),
+                List.of(datasetListener)
+        );
+        ReflectionTestUtils.setField(airportDatabaseService, "datasetLocation", csv.toUri().toString());
+    }
+
+    @Test
+    void testReload_InitialLoadInsertsEverything() throws IOException {
+        writeCsv(
+                "1,KDEN,large_airport,Denver International,39.8617,-104.6732,5434,NA,US,US-CO,Denver,yes,KDEN",
+                "2,KAPA,medium_airport,Centennial,39.5701,-104.849,5885,NA,US,US-CO,Denver,yes,KAPA",
+                "3,XX,small_airport,Too Short,10.0,10.0,100,NA,US,US-CO,Nowhere,no,XX"
+        );
+
+        DatasetReloadResult result = airportDatabaseService.reloadAirportsDatabase();
+
+        assertEquals(1L, result.getVersion());
+        assertEquals(2, result.getInserted());
+        assertEquals(0, result.getUpdated());
+        assertEquals(0, result.getDeleted());
+        assertEquals(2, airportDatabaseService.currentSnapshot().getRecordCount());
+        verify(locationRepository).saveAll(argThatHasSize(2));
+    }
+
+    @Test
+    void testReload_AppliesOnlyTheDiff() throws IOException {
+        LocationEntity denver = location("KDEN", "Denver International", 39.8617, -104.6732);
+        LocationEntity centennial = location("KAPA", "Centennial", 39.5701, -104.849);
+        LocationEntity closed = location("KOLD", "Closed Field", 40.0, -105.0);
+        closed.setId(3L);
+        when(locationRepository.findAll()).thenReturn(List.of(denver, centennial, closed));
+
+        writeCsv(
+                "1,KDEN,large_airport,Denver International,39.8617,-104.6732,,NA,US,US-CO,Denver,yes,KDEN",
+                "2,KAPA,medium_airport,Centennial Airport,39.5701,-104.849,,NA,US,US-CO,Denver,yes,KAPA",
+                "4,KBJC,medium_airport,Rocky Mountain Metro,39.9088,-105.117,,NA,US,US-CO,Denver,yes,KBJC"
+        );
+
+        DatasetReloadResult result = airportDatabaseService.reloadAirportsDatabase();
+
+        assertEquals(1, result.getInserted());
+        assertEquals(1, result.getUpdated());
+        assertEquals(1, result.getDeleted());
+        assertEquals(1, result.getUnchanged());
+        assertEquals("Centennial Airport", centennial.getName());
+
+        verify(locationRepository).deleteAllByIdInBatch(List.of(3L));
+        verify(locationRepository).saveAll(argThatHasSize(2));
+    }
+
+    @Test
+    void testReload_DeletesThousandsOfDroppedRowsInChunks() throws IOException {
+        writeCsv("1,KDEN,large_airport,Denver International,39.8617,-104.6732,,NA,US,US-CO,Denver,yes,KDEN");
+        List<LocationEntity> stored = new ArrayList<>();
+        stored.add(location("KDEN", "Denver International", 39.8617, -104.6732));
+        for (int i = 0; i < 3_200; i++) {
+            LocationEntity dropped = location(String.format("X%03X", i), "Closed field " + i, 40.0, -105.0);
+            dropped.setId((long) i + 1);
+            stored.add(dropped);
+        }
+        when(locationRepository.findAll()).thenReturn(stored);
+
+        DatasetReloadResult result = airportDatabaseService.reloadAirportsDatabase();
+
+        assertEquals(3_200, result.getDeleted());
+        assertEquals(1, result.getUnchanged());
+        ArgumentCaptor<List<Long>> chunks = ArgumentCaptor.captor();
+        verify(locationRepository, times(7)).deleteAllByIdInBatch(chunks.capture());
+        assertTrue(chunks.getAllValues().stream().allMatch(chunk -> chunk.size() <= AirportDatabaseService.DELETE_CHUNK_SIZE));
+        assertEquals(3_200, chunks.getAllValues().stream().mapToInt(List::size).sum());
+        verify(locationRepository, never()).deleteAllInBatch(anyIterable());
+    }
+
+    @Test
+    void testReload_UnchangedDatasetKeepsVersionAndCaches() throws IOException {
+        writeCsv("1,KDEN,large_airport,Denver International,39.8617,-104.6732,,NA,US,US-CO,Denver,yes,KDEN");
+        airportDatabaseService.reloadAirportsDatabase();
+
+        when(locationRepository.findAll()).thenReturn(
+                List.of(location("KDEN", "Denver International", 39.8617, -104.6732)));
+        cacheManager.getCache("stations").put("1-KDEN-0.5", new ArrayList<>());
+
+        DatasetReloadResult result = airportDatabaseService.reloadAirportsDatabase();
+
+        assertEquals(1L, result.getVersion());
+        assertEquals(1, result.getUnchanged());
+        assertNotNull(cacheManager.getCache("stations").get("1-KDEN-0.5"));
+    }
+
+    @Test
+    void testReload_NotifiesListenersBeforeServingTheNewVersion() throws IOException {
+        writeCsv(
+                "1,KDEN,large_airport,Denver International,39.8617,-104.6732,,NA,US,US-CO,Denver,yes,KDEN",
+                "2,KAPA,medium_airport,Centennial,39.5701,-104.849,,NA,US,US-CO,Denver,yes,KAPA"
+        );
+        doAnswer(invocation -> {
+            assertEquals(0L, airportDatabaseService.currentVersion());
+            return null;
+        }).when(datasetListener).datasetLoaded(any(), any());
+
+        airportDatabaseService.reloadAirportsDatabase();
+
+        verify(datasetListener).datasetLoaded(
+                argThat(snapshot -> snapshot.getVersion() == 1L),
+                argThat(locations -> locations.size() == 2));
+        assertEquals(1L, airportDatabaseService.currentVersion());
+
+        when(locationRepository.findAll()).thenReturn(List.of(
+                location("KDEN", "Denver International", 39.8617, -104.6732),
+                location("KAPA", "Centennial", 39.5701, -104.849)));
+        airportDatabaseService.reloadAirportsDatabase();
+
+        verifyNoMoreInteractions(datasetListener);
+    }
+
+    @Test
+    void testReload_ListenerFailureKeepsThePreviousVersionUntilARetrySucceeds() throws IOException {
+        writeCsv("1,KDEN,large_airport,Denver International,39.8617,-104.6732,,NA,US,US-CO,Denver,yes,KDEN");
+        airportDatabaseService.reloadAirportsDatabase();
+
+        writeCsv("1,KDEN,large_airport,Denver International Airport,39.8617,-104.6732,,NA,US,US-CO,Denver,yes,KDEN");
+        when(locationRepository.findAll()).thenReturn(
+                List.of(location("KDEN", "Denver International", 39.8617, -104.6732)));
+        doThrow(new IllegalArgumentException("pyramid")).when(datasetListener).datasetLoaded(
+                argThat(snapshot -> snapshot.getVersion() == 2L), any());
+        cacheManager.getCache("stations").put("1-KDEN-0.5", new ArrayList<>());
+
+        assertThrows(IllegalArgumentException.class, () -> airportDatabaseService.reloadAirportsDatabase());
+        assertEquals(1L, airportDatabaseService.currentVersion());
+        assertNotNull(cacheManager.getCache("stations").get("1-KDEN-0.5"));
+
+        // The diff is committed by now, so the retry finds nothing to write but still swaps the version in
+        doNothing().when(datasetListener).datasetLoaded(any(), any());
+        when(locationRepository.findAll()).thenReturn(
+                List.of(location("KDEN", "Denver International Airport", 39.8617, -104.6732)));
+        DatasetReloadResult result = airportDatabaseService.reloadAirportsDatabase();
+
+        assertEquals(2L, result.getVersion());
+        assertEquals(1, result.getUnchanged());
+        assertNull(cacheManager.getCache("stations").get("1-KDEN-0.5"));
+        verify(datasetListener, times(2)).datasetLoaded(argThat(snapshot -> snapshot.getVersion() == 2L), any());
+    }
+
+    @Test
+    void testParseLocations_KeepsEverySyntheticRowWithinIdentCapacity() throws IOException {
+        ByteArrayResource csv = new ByteArrayResource(
+                SyntheticAirports.csv(5_000, 7).getBytes(StandardCharsets.UTF_8));
+
+        Map<String, LocationEntity> locations = airportDatabaseService.parseLocations(csv);
+
+        assertEquals(5_000, locations.size());
+        assertTrue(locations.get("AAAA").getName().startsWith("Synthetic Field 0, "));
+    }
+
+    @Test
+    void testReload_MissingFile() {
+        assertThrows(FileNotFoundException.class, () -> airportDatabaseService.reloadAirportsDatabase());
+        assertEquals(0L, airportDatabaseService.currentVersion());
+        verify(locationRepository, never()).saveAll(anyList());
+    }
+
+    private void writeCsv(String... rows) throws IOException {
+        List<String> lines = new ArrayList<>();
+        lines.add(HEADER);
+        lines.addAll(List.of(rows));
+        Files.write(csv, lines);
+    }
+
+    private static <T> List<T> argThatHasSize(int size) {
+        return argThat(list -> list != null && list.size() == size);
+    }
+
+    private static LocationEntity location(String id, String name, double lat, double lon) {
+        return LocationEntity.builder()
+                .locationId(id)
+                .name(name)
+                .state("CO")
+                .country("US")
+                .latitude(lat)
+                .longitude(lon)
+                .updatedAt(LocalDateTime.now())
+                .build();
+    }
+}
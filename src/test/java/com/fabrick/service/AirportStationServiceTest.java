@@ -1,18 +1,26 @@
 package com.fabrick.service;
 
+import com.fabrick.bulkhead.Bulkhead;
+import com.fabrick.cache.CacheLoadTimer;
+import com.fabrick.cache.SpatialResultCache;
 import com.fabrick.entity.AirportCacheEntity;
 import com.fabrick.entity.StationCacheEntity;
 import com.fabrick.model.Airport;
+import com.fabrick.model.Projection;
 import com.fabrick.model.Station;
 import com.fabrick.repository.AirportCacheRepository;
 import com.fabrick.repository.StationCacheRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 import reactor.test.StepVerifier;
 
 import java.io.IOException;
@@ -31,6 +39,8 @@ class AirportStationServiceTest {
     private AirportStationService airportStationService;
     private AirportCacheRepository airportCacheRepository;
     private StationCacheRepository stationCacheRepository;
+    private CaffeineCacheManager cacheManager;
+    private AirportDatabaseService airportDatabaseService;
 
     @BeforeEach
     void setUp() throws IOException {
@@ -43,12 +53,27 @@ class AirportStationServiceTest {
 
         airportCacheRepository = mock(AirportCacheRepository.class);
         stationCacheRepository = mock(StationCacheRepository.class);
+        cacheManager = new CaffeineCacheManager("airports", "stations");
+        airportDatabaseService = mock(AirportDatabaseService.class);
+        when(airportDatabaseService.currentVersion()).thenReturn(1L);
 
         airportStationService = new AirportStationService(
                 webClient,
-                airportCacheRepository,
-                stationCacheRepository
+                new JpaLocationLookup(airportCacheRepository, stationCacheRepository, new JpaExecutor(
+                        Schedulers.boundedElastic(),
+                        new SimpleMeterRegistry().timer("fabrick.jpa.queue.wait"))),
+                new Bulkhead("geo", 10, Schedulers.immediate(), new SimpleMeterRegistry()),
+                new SpatialResultCache<>(cacheManager.getCache("stations"), 0.25, 5.0,
+                        Station::getLatitude, Station::getLongitude,
+                        new CacheLoadTimer("stations", new SimpleMeterRegistry())),
+                new SpatialResultCache<>(cacheManager.getCache("airports"), 0.25, 5.0,
+                        Airport::getLatitude, Airport::getLongitude,
+                        new CacheLoadTimer("airports", new SimpleMeterRegistry())),
+                airportDatabaseService
         );
+        ReflectionTestUtils.setField(airportStationService, "corridorSegmentKm", 200.0);
+        ReflectionTestUtils.setField(airportStationService, "corridorConcurrency", 4);
+        ReflectionTestUtils.setField(airportStationService, "corridorMaxBoxes", 64);
     }
 
     @AfterEach
@@ -74,22 +99,21 @@ class AirportStationServiceTest {
                 .thenReturn(Optional.of(airportEntity));
 
         // Create nearby stations
-        List<StationCacheEntity> stationEntities = new ArrayList<>();
-        StationCacheEntity station1 = StationCacheEntity.builder()
-                .stationId("KAPA")
+        List<Station> nearbyStations = new ArrayList<>();
+        Station station1 = Station.builder()
+                .id("KAPA")
                 .site("Centennial Airport")
                 .state("CO")
                 .country("US")
                 .latitude(39.5701)
                 .longitude(-104.849)
                 .elevation(1791)
-                .cachedAt(LocalDateTime.now())
                 .build();
-        stationEntities.add(station1);
+        nearbyStations.add(station1);
 
         when(stationCacheRepository.findInBoundingBox(
                 anyDouble(), anyDouble(), anyDouble(), anyDouble()))
-                .thenReturn(stationEntities);
+                .thenReturn(nearbyStations);
 
         // Act
         Mono<List<Station>> result = airportStationService.getClosestStations("KDEN", 0.5);
@@ -170,22 +194,21 @@ class AirportStationServiceTest {
                 .thenReturn(Optional.of(stationEntity));
 
         // Create nearby airports
-        List<AirportCacheEntity> airportEntities = new ArrayList<>();
-        AirportCacheEntity airport1 = AirportCacheEntity.builder()
-                .airportId("KAPA")
+        List<Airport> nearbyAirports = new ArrayList<>();
+        Airport airport1 = Airport.builder()
+                .id("KAPA")
                 .name("Centennial Airport")
                 .state("CO")
                 .country("US")
                 .latitude(39.5701)
                 .longitude(-104.849)
                 .elevation(1791.0)
-                .cachedAt(LocalDateTime.now())
                 .build();
-        airportEntities.add(airport1);
+        nearbyAirports.add(airport1);
 
         when(airportCacheRepository.findInBoundingBox(
                 anyDouble(), anyDouble(), anyDouble(), anyDouble()))
-                .thenReturn(airportEntities);
+                .thenReturn(nearbyAirports);
 
         // Act
         Mono<List<Airport>> result = airportStationService.getClosestAirports("KDEN", 1.0);
@@ -320,6 +343,85 @@ class AirportStationServiceTest {
         );
     }
 
+    @Test
+    void testGetClosestStations_SmallerRadiusServedFromLargerEntry() {
+        when(airportCacheRepository.findByAirportId("KDEN")).thenReturn(Optional.of(AirportCacheEntity.builder()
+                .airportId("KDEN")
+                .latitude(40.0)
+                .longitude(-105.0)
+                .cachedAt(LocalDateTime.now())
+                .build()));
+
+        Station near = Station.builder().id("KNEAR").latitude(40.1).longitude(-105.1).build();
+        Station far = Station.builder().id("KFAR").latitude(40.9).longitude(-104.2).build();
+        when(stationCacheRepository.findInBoundingBox(anyDouble(), anyDouble(), anyDouble(), anyDouble()))
+                .thenReturn(List.of(near, far));
+
+        // 0.99 is queried as its 1.0 bucket, then filtered back to 0.99
+        StepVerifier.create(airportStationService.getClosestStations("KDEN", 0.99))
+                .assertNext(stations -> assertEquals(List.of(near, far), stations))
+                .verifyComplete();
+        verify(stationCacheRepository).findInBoundingBox(eq(39.0), eq(41.0), eq(-106.0), eq(-104.0));
+
+        StepVerifier.create(airportStationService.getClosestStations("KDEN", 1.0))
+                .assertNext(stations -> assertEquals(List.of(near, far), stations))
+                .verifyComplete();
+        StepVerifier.create(airportStationService.getClosestStations("KDEN", 0.3))
+                .assertNext(stations -> assertEquals(List.of(near), stations))
+                .verifyComplete();
+
+        verify(airportCacheRepository, times(1)).findByAirportId("KDEN");
+        verify(stationCacheRepository, times(1)).findInBoundingBox(anyDouble(), anyDouble(), anyDouble(), anyDouble());
+    }
+
+    @Test
+    void testGetClosestAirports_ProjectionReadsOnlyRequestedColumnsOnMiss() {
+        when(stationCacheRepository.findByStationId("KDEN")).thenReturn(Optional.of(StationCacheEntity.builder()
+                .stationId("KDEN")
+                .latitude(40.0)
+                .longitude(-105.0)
+                .cachedAt(LocalDateTime.now())
+                .build()));
+        Projection projection = Projection.parse("id,latitude,longitude", Airport.FIELDS);
+        Airport projected = Airport.builder().id("KAPA").latitude(39.5701).longitude(-104.849).build();
+        when(airportCacheRepository.findInBoundingBox(anyDouble(), anyDouble(), anyDouble(), anyDouble(), eq(projection)))
+                .thenReturn(List.of(projected));
+
+        StepVerifier.create(airportStationService.getClosestAirports("KDEN", 0.9, projection))
+                .assertNext(airports -> assertEquals(List.of(projected), airports))
+                .verifyComplete();
+
+        // Exact radius rather than its bucket, and no whole rows read or cached
+        verify(airportCacheRepository).findInBoundingBox(eq(39.1), eq(40.9), eq(-105.9), eq(-104.1), eq(projection));
+        verify(airportCacheRepository, never()).findInBoundingBox(anyDouble(), anyDouble(), anyDouble(), anyDouble());
+        assertNull(cacheManager.getCache("airports").get("1-KDEN"));
+    }
+
+    @Test
+    void testGetClosestStations_ProjectionServedFromCachedEntry() {
+        when(airportCacheRepository.findByAirportId("KDEN")).thenReturn(Optional.of(AirportCacheEntity.builder()
+                .airportId("KDEN")
+                .latitude(40.0)
+                .longitude(-105.0)
+                .cachedAt(LocalDateTime.now())
+                .build()));
+        Station station = Station.builder().id("KAPA").site("Centennial Airport").state("CO")
+                .latitude(39.5701).longitude(-104.849).elevation(1791).build();
+        when(stationCacheRepository.findInBoundingBox(anyDouble(), anyDouble(), anyDouble(), anyDouble()))
+                .thenReturn(List.of(station));
+
+        StepVerifier.create(airportStationService.getClosestStations("KDEN", 1.0))
+                .expectNextCount(1)
+                .verifyComplete();
+        StepVerifier.create(airportStationService.getClosestStations("KDEN", 1.0,
+                        Projection.parse("id,elevation", Station.FIELDS)))
+                .assertNext(stations -> assertEquals(List.of(Station.builder().id("KAPA").elevation(1791).build()), stations))
+                .verifyComplete();
+
+        verify(airportCacheRepository, times(1)).findByAirportId("KDEN");
+        verify(stationCacheRepository, never()).findInBoundingBox(anyDouble(), anyDouble(), anyDouble(), anyDouble(), any());
+    }
+
     @Test
     void testGetClosestStations_ErrorHandling() {
         // Arrange: simulate database error
@@ -352,21 +454,21 @@ class AirportStationServiceTest {
         when(stationCacheRepository.findByStationId("KDEN"))
                 .thenReturn(Optional.of(stationEntity));
 
-        List<AirportCacheEntity> airportEntities = new ArrayList<>();
-        airportEntities.add(AirportCacheEntity.builder()
-                .airportId("KAPA")
+        List<Airport> nearbyAirports = new ArrayList<>();
+        nearbyAirports.add(Airport.builder()
+                .id("KAPA")
                 .name("Centennial")
                 .latitude(39.5701)
                 .longitude(-104.849)
                 .build());
-        airportEntities.add(AirportCacheEntity.builder()
-                .airportId("KBJC")
+        nearbyAirports.add(Airport.builder()
+                .id("KBJC")
                 .name("Broomfield")
                 .latitude(39.9088)
                 .longitude(-105.117)
                 .build());
-        airportEntities.add(AirportCacheEntity.builder()
-                .airportId("KFNL")
+        nearbyAirports.add(Airport.builder()
+                .id("KFNL")
                 .name("Fort Collins")
                 .latitude(40.4518)
                 .longitude(-105.011)
@@ -374,7 +476,7 @@ class AirportStationServiceTest {
 
         when(airportCacheRepository.findInBoundingBox(
                 anyDouble(), anyDouble(), anyDouble(), anyDouble()))
-                .thenReturn(airportEntities);
+                .thenReturn(nearbyAirports);
 
         // Act
         Mono<List<Airport>> result = airportStationService.getClosestAirports("KDEN", 1.0);
@@ -389,4 +491,152 @@ class AirportStationServiceTest {
                 })
                 .verifyComplete();
     }
-}
\ No newline at end of file
+
+    @Test
+    void testGetClosestStationsBatch_ResolvesOriginsOnceAndSweeps() {
+        Airport denver = Airport.builder().id("KDEN").latitude(39.8617).longitude(-104.6732).build();
+        Airport heathrow = Airport.builder().id("EGLL").latitude(51.4706).longitude(-0.461941).build();
+        Station centennial = Station.builder().id("KAPA").latitude(39.5701).longitude(-104.849).build();
+
+        when(airportCacheRepository.findByAirportIdIn(anyCollection()))
+                .thenReturn(List.of(denver, heathrow));
+        when(stationCacheRepository.findInBoundingBoxes(anyList()))
+                .thenReturn(List.of(List.of(centennial), List.of()));
+
+        StepVerifier.create(airportStationService.getClosestStationsBatch(List.of("KDEN", "EGLL"), 0.5))
+                .assertNext(result -> {
+                    assertEquals(List.of("KDEN", "EGLL"), List.copyOf(result.keySet()));
+                    assertEquals(List.of(centennial), result.get("KDEN"));
+                    assertTrue(result.get("EGLL").isEmpty());
+                })
+                .verifyComplete();
+
+        verify(airportCacheRepository).findByAirportIdIn(List.of("KDEN", "EGLL"));
+        verify(stationCacheRepository, times(1)).findInBoundingBoxes(anyList());
+        verify(airportCacheRepository, never()).findByAirportId(anyString());
+
+        // Second call is answered from the per-airport cache entries
+        StepVerifier.create(airportStationService.getClosestStationsBatch(List.of("EGLL", "KDEN"), 0.5))
+                .assertNext(result -> assertEquals(List.of(centennial), result.get("KDEN")))
+                .verifyComplete();
+        verify(airportCacheRepository, times(1)).findByAirportIdIn(anyCollection());
+        assertNotNull(cacheManager.getCache("stations").get("1-KDEN"));
+    }
+
+    @Test
+    void testGetClosestAirportsBatch_FetchesUnknownStationsInOneExternalCall() throws InterruptedException {
+        when(stationCacheRepository.findByStationIdIn(anyCollection())).thenReturn(List.of());
+        when(airportCacheRepository.findInBoundingBoxes(anyList()))
+                .thenReturn(List.of(List.of(Airport.builder().id("KDEN").build())));
+
+        mockWebServer.enqueue(new MockResponse()
+                .setBody("[{\"icaoId\":\"KDEN\",\"name\":\"Denver\",\"lat\":39.86,\"lon\":-104.67,\"elev\":1656}]")
+                .addHeader("Content-Type", "application/json"));
+
+        StepVerifier.create(airportStationService.getClosestAirportsBatch(List.of("KDEN", "ZZZZ"), 0.5))
+                .assertNext(result -> {
+                    assertEquals(1, result.get("KDEN").size());
+                    assertTrue(result.get("ZZZZ").isEmpty());
+                })
+                .verifyComplete();
+
+        assertEquals(1, mockWebServer.getRequestCount());
+        assertTrue(mockWebServer.takeRequest().getPath().contains("ids=KDEN,ZZZZ"));
+    }
+
+    @Test
+    void testGetStationsAlongRoute_QueriesEachSegmentAndOrdersAlongTrack() {
+        Airport denver = Airport.builder().id("KDEN").latitude(39.8617).longitude(-104.6732).build();
+        Airport newYork = Airport.builder().id("KJFK").latitude(40.6398).longitude(-73.7789).build();
+        Station chicago = Station.builder().id("KORD").latitude(41.9786).longitude(-87.9048).build();
+        Station centennial = Station.builder().id("KAPA").latitude(39.5701).longitude(-104.849).build();
+        Station miami = Station.builder().id("KMIA").latitude(25.7959).longitude(-80.2870).build();
+
+        when(airportCacheRepository.findByAirportIdIn(anyCollection())).thenReturn(List.of(newYork, denver));
+        // Every segment box returns the same rows; each must come back once
+        when(stationCacheRepository.findInBoundingBox(anyDouble(), anyDouble(), anyDouble(), anyDouble()))
+                .thenReturn(List.of(chicago, miami, centennial));
+
+        StepVerifier.create(airportStationService.getStationsAlongRoute(List.of("KDEN", "KJFK"), 200))
+                .assertNext(stations -> assertEquals(List.of(centennial, chicago), stations))
+                .verifyComplete();
+
+        // About 2620 km in segments of at most 200 km
+        verify(stationCacheRepository, times(14)).findInBoundingBox(anyDouble(), anyDouble(), anyDouble(), anyDouble());
+        verify(airportCacheRepository).findByAirportIdIn(List.of("KDEN", "KJFK"));
+    }
+
+    @Test
+    void testGetStationsAlongRoute_SegmentsScaleWithWidthAndBoxesAreCapped() {
+        Airport denver = Airport.builder().id("KDEN").latitude(39.8617).longitude(-104.6732).build();
+        Airport newYork = Airport.builder().id("KJFK").latitude(40.6398).longitude(-73.7789).build();
+        when(airportCacheRepository.findByAirportIdIn(anyCollection())).thenReturn(List.of(denver, newYork));
+        when(stationCacheRepository.findInBoundingBox(anyDouble(), anyDouble(), anyDouble(), anyDouble()))
+                .thenReturn(List.of());
+
+        // 500 km wide: segments of 500 km rather than 200
+        StepVerifier.create(airportStationService.getStationsAlongRoute(List.of("KDEN", "KJFK"), 500))
+                .assertNext(stations -> assertTrue(stations.isEmpty()))
+                .verifyComplete();
+        verify(stationCacheRepository, times(6)).findInBoundingBox(anyDouble(), anyDouble(), anyDouble(), anyDouble());
+
+        clearInvocations(stationCacheRepository);
+        ReflectionTestUtils.setField(airportStationService, "corridorMaxBoxes", 4);
+        StepVerifier.create(airportStationService.getStationsAlongRoute(List.of("KDEN", "KJFK", "KDEN"), 50))
+                .assertNext(stations -> assertTrue(stations.isEmpty()))
+                .verifyComplete();
+        verify(stationCacheRepository, atMost(4)).findInBoundingBox(anyDouble(), anyDouble(), anyDouble(), anyDouble());
+    }
+
+    @Test
+    void testGetAirportsAlongRoute_EmptyWhenAWaypointIsUnknown() {
+        Airport denver = Airport.builder().id("KDEN").latitude(39.8617).longitude(-104.6732).build();
+        when(airportCacheRepository.findByAirportIdIn(anyCollection())).thenReturn(List.of(denver));
+        mockWebServer.enqueue(new MockResponse()
+                .setBody("[]")
+                .addHeader("Content-Type", "application/json"));
+
+        StepVerifier.create(airportStationService.getAirportsAlongRoute(List.of("KDEN", "ZZZZ", "KDEN"), 50))
+                .assertNext(airports -> assertTrue(airports.isEmpty()))
+                .verifyComplete();
+
+        verify(airportCacheRepository, never()).findInBoundingBox(anyDouble(), anyDouble(), anyDouble(), anyDouble());
+    }
+
+    @Test
+    void testStreamClosestStations_PagesThroughCellRange() {
+        when(airportCacheRepository.findByAirportId("KDEN")).thenReturn(Optional.of(AirportCacheEntity.builder()
+                .airportId("KDEN")
+                .latitude(39.8617)
+                .longitude(-104.6732)
+                .build()));
+
+        List<StationCacheEntity> fullPage = new ArrayList<>();
+        for (long id = 1; id <= JpaLocationLookup.STREAM_PAGE_SIZE; id++) {
+            fullPage.add(StationCacheEntity.builder().id(id).cellId(7L).stationId("S" + id).build());
+        }
+        List<StationCacheEntity> lastPage = List.of(StationCacheEntity.builder().id(9999L).cellId(8L).stationId("LAST").build());
+
+        when(stationCacheRepository.findPageInCellRange(anyLong(), anyLong(), anyDouble(), anyDouble(),
+                anyDouble(), anyDouble(), anyLong(), anyLong(), any()))
+                .thenReturn(fullPage).thenReturn(lastPage);
+
+        StepVerifier.create(airportStationService.streamClosestStations("KDEN", 0.0), 10)
+                .expectNextCount(10)
+                .thenCancel()
+                .verify();
+
+        // Only the first page has been read for the first ten elements
+        verify(stationCacheRepository, times(1)).findPageInCellRange(anyLong(), anyLong(), anyDouble(),
+                anyDouble(), anyDouble(), anyDouble(), anyLong(), anyLong(), any());
+
+        when(stationCacheRepository.findPageInCellRange(anyLong(), anyLong(), anyDouble(), anyDouble(),
+                anyDouble(), anyDouble(), anyLong(), anyLong(), any()))
+                .thenReturn(fullPage).thenReturn(lastPage);
+        StepVerifier.create(airportStationService.streamClosestStations("KDEN", 0.0).last())
+                .assertNext(station -> assertEquals("LAST", station.getId()))
+                .verifyComplete();
+        verify(stationCacheRepository).findPageInCellRange(anyLong(), anyLong(), anyDouble(),
+                anyDouble(), anyDouble(), anyDouble(), eq(7L), eq((long) JpaLocationLookup.STREAM_PAGE_SIZE), any());
+    }
+}
@@ -1,6 +1,8 @@
 package com.fabrick.service;
 
+import com.fabrick.bulkhead.Bulkhead;
 import com.fabrick.model.AsteroidPath;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
 import org.junit.jupiter.api.AfterEach;
@@ -8,6 +10,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 import reactor.test.StepVerifier;
 
 import java.io.IOException;
@@ -31,7 +34,8 @@ class AsteroidServiceTest {
                 .baseUrl(mockWebServer.url("/").toString())
                 .build();
 
-        asteroidService = new AsteroidService(webClient);
+        asteroidService = new AsteroidService(webClient,
+                new Bulkhead("asteroid", 10, Schedulers.immediate(), new SimpleMeterRegistry()));
     }
 
     @AfterEach
@@ -0,0 +1,99 @@
+package com.fabrick.service;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JpaExecutorTest {
+
+    private Scheduler scheduler;
+    private Timer queueWait;
+    private JpaExecutor jpaExecutor;
+
+    @BeforeEach
+    void setUp() {
+        scheduler = Schedulers.fromExecutorService(Executors.newVirtualThreadPerTaskExecutor(), "jpa-test");
+        queueWait = new SimpleMeterRegistry().timer("fabrick.jpa.queue.wait");
+        jpaExecutor = new JpaExecutor(scheduler, new Semaphore(2), queueWait);
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.dispose();
+    }
+
+    @Test
+    void testExecute_RunsOnVirtualThreadAndRecordsWait() {
+        StepVerifier.create(jpaExecutor.execute(() -> Thread.currentThread().isVirtual()))
+                .expectNext(true)
+                .verifyComplete();
+
+        assertEquals(1, queueWait.count());
+        assertEquals(2, jpaExecutor.availablePermits());
+    }
+
+    @Test
+    void testExecute_NeverExceedsPermits() {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+
+        StepVerifier.create(Flux.range(0, 50)
+                        .flatMap(i -> jpaExecutor.execute(() -> {
+                            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                            Thread.sleep(5);
+                            running.decrementAndGet();
+                            return i;
+                        }))
+                        .count())
+                .expectNext(50L)
+                .verifyComplete();
+
+        assertEquals(2, maxRunning.get());
+        assertEquals(50, queueWait.count());
+    }
+
+    @Test
+    void testExecute_BoundedSchedulerLimitsConcurrencyWithoutPermits() {
+        Scheduler bounded = Schedulers.newBoundedElastic(2, 100, "jpa-bounded-test");
+        JpaExecutor boundedExecutor = new JpaExecutor(bounded, queueWait);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+
+        try {
+            StepVerifier.create(Flux.range(0, 20)
+                            .flatMap(i -> boundedExecutor.execute(() -> {
+                                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                                Thread.sleep(5);
+                                running.decrementAndGet();
+                                return i;
+                            }))
+                            .count())
+                    .expectNext(20L)
+                    .verifyComplete();
+        } finally {
+            bounded.dispose();
+        }
+
+        assertTrue(maxRunning.get() <= 2);
+        assertEquals(20, queueWait.count());
+        assertEquals(0, boundedExecutor.availablePermits());
+    }
+
+    @Test
+    void testExecute_NullResultCompletesEmpty() {
+        StepVerifier.create(jpaExecutor.execute(() -> null))
+                .verifyComplete();
+    }
+}
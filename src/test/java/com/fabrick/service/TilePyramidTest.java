@@ -0,0 +1,98 @@
+package com.fabrick.service;
+
+import com.fabrick.geo.WebMercator;
+import com.fabrick.model.Airport;
+import com.fabrick.model.MapTile;
+import com.fabrick.model.TileCluster;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TilePyramidTest {
+
+    private static final Airport DENVER = airport("KDEN", 39.8617, -104.6732);
+    private static final Airport CENTENNIAL = airport("KAPA", 39.5701, -104.849);
+    private static final Airport HANEDA = airport("RJTT", 35.5523, 139.7798);
+
+    @Test
+    void testTile_FewPointsAreListed() {
+        TilePyramid pyramid = TilePyramid.build(3L, List.of(DENVER, CENTENNIAL, HANEDA), 8, 4, 10);
+
+        MapTile world = pyramid.tile(0, 0, 0);
+
+        assertEquals(3L, world.getVersion());
+        assertEquals(3, world.getCount());
+        assertNull(world.getClusters());
+        assertEquals(3, world.getPoints().size());
+
+        // Zoom 1: the western hemisphere's northern tile holds Denver-area airports only
+        MapTile northWest = pyramid.tile(1, 0, 0);
+        assertEquals(2, northWest.getCount());
+        assertTrue(northWest.getPoints().containsAll(List.of(DENVER, CENTENNIAL)));
+        assertEquals(0, pyramid.tile(1, 0, 1).getCount());
+    }
+
+    @Test
+    void testTile_ManyPointsAreClusteredWithinTheBound() {
+        List<Airport> airports = randomAirports(5_000, new Random(7));
+        TilePyramid pyramid = TilePyramid.build(1L, airports, 6, 3, 100);
+
+        for (int z = 0; z <= 10; z++) {
+            int x = WebMercator.tileX(-104.6732, z);
+            int y = WebMercator.tileY(39.8617, z);
+            MapTile tile = pyramid.tile(z, x, y);
+
+            if (tile.getPoints() != null) {
+                assertTrue(tile.getPoints().size() <= 100);
+                assertEquals(tile.getCount(), tile.getPoints().size());
+            } else {
+                // At most one cluster per grid cell, together covering every point of the tile
+                assertTrue(tile.getClusters().size() <= 64);
+                assertEquals(tile.getCount(), tile.getClusters().stream().mapToInt(TileCluster::getCount).sum());
+            }
+        }
+        assertEquals(5_000, pyramid.tile(0, 0, 0).getClusters().stream().mapToInt(TileCluster::getCount).sum());
+    }
+
+    @Test
+    void testTile_ClustersBeyondThePrecomputedZoomsMatchPrecomputedOnes() {
+        List<Airport> airports = randomAirports(5_000, new Random(11));
+        TilePyramid shallow = TilePyramid.build(1L, airports, 2, 4, 50);
+        TilePyramid deep = TilePyramid.build(1L, airports, 8, 4, 50);
+
+        for (int z = 3; z <= 8; z++) {
+            int x = WebMercator.tileX(-104.6732, z);
+            int y = WebMercator.tileY(39.8617, z);
+            assertEquals(deep.tile(z, x, y), shallow.tile(z, x, y));
+        }
+    }
+
+    @Test
+    void testTile_RejectsTilesOutsideTheZoomOrTooDeep() {
+        TilePyramid pyramid = TilePyramid.build(1L, List.of(DENVER), 8, 4, 10);
+
+        assertEquals(WebMercator.MAX_LEVEL - 4, pyramid.maxZoom());
+        assertThrows(IllegalArgumentException.class, () -> pyramid.tile(2, 4, 0));
+        assertThrows(IllegalArgumentException.class, () -> pyramid.tile(pyramid.maxZoom() + 1, 0, 0));
+    }
+
+    private static List<Airport> randomAirports(int count, Random random) {
+        List<Airport> airports = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            // Half of them around Denver, so deep tiles there stay populated
+            boolean local = i % 2 == 0;
+            double lat = local ? 39.8617 + random.nextGaussian() * 0.5 : random.nextDouble() * 160 - 80;
+            double lon = local ? -104.6732 + random.nextGaussian() * 0.5 : random.nextDouble() * 360 - 180;
+            airports.add(airport("A" + i, lat, lon));
+        }
+        return airports;
+    }
+
+    private static Airport airport(String id, double lat, double lon) {
+        return Airport.builder().id(id).name(id).latitude(lat).longitude(lon).build();
+    }
+}
@@ -0,0 +1,78 @@
+package com.fabrick.timing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ServerTimingWebFilterTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void testFilter_SendsStagesTimedByTheRequestInServerTimingHeader() {
+        ServerTimingWebFilter filter = new ServerTimingWebFilter(true, 0.0, objectMapper);
+        MockServerWebExchange exchange = exchange();
+
+        StepVerifier.create(filter.filter(exchange, ex -> RequestTiming.record("cache", 2_000_000, Mono.just(1))
+                        .then(RequestTiming.stage("bbox", Mono.delay(Duration.ofMillis(20))))
+                        .then(ex.getResponse().setComplete())))
+                .verifyComplete();
+
+        String header = exchange.getResponse().getHeaders().getFirst(ServerTimingWebFilter.SERVER_TIMING);
+        assertNotNull(header);
+        assertTrue(header.startsWith("cache;dur=2.0, bbox;dur="), header);
+        assertTrue(header.contains(", total;dur="), header);
+
+        double bbox = Double.parseDouble(header.replaceAll(".*bbox;dur=([0-9.]+).*", "$1"));
+        assertTrue(bbox >= 20, header);
+    }
+
+    @Test
+    void testFilter_RepeatedStagesAccumulate() {
+        ServerTimingWebFilter filter = new ServerTimingWebFilter(true, 0.0, objectMapper);
+        MockServerWebExchange exchange = exchange();
+
+        StepVerifier.create(filter.filter(exchange, ex -> RequestTiming.record("lookup", 1_000_000, Mono.just(1))
+                        .then(RequestTiming.record("lookup", 1_500_000, Mono.just(2)))
+                        .then(ex.getResponse().setComplete())))
+                .verifyComplete();
+
+        assertTrue(exchange.getResponse().getHeaders().getFirst(ServerTimingWebFilter.SERVER_TIMING)
+                .startsWith("lookup;dur=2.5, total;dur="));
+    }
+
+    @Test
+    void testFilter_LeavesRequestUntimedWhenHeaderAndSamplingAreOff() {
+        ServerTimingWebFilter filter = new ServerTimingWebFilter(false, 0.0, objectMapper);
+        MockServerWebExchange exchange = exchange();
+
+        StepVerifier.create(filter.filter(exchange, ex -> Mono.deferContextual(context -> {
+                    assertNull(RequestTiming.from(context));
+                    return RequestTiming.stage("bbox", Mono.just(1)).then(ex.getResponse().setComplete());
+                })))
+                .verifyComplete();
+
+        assertNull(exchange.getResponse().getHeaders().getFirst(ServerTimingWebFilter.SERVER_TIMING));
+    }
+
+    @Test
+    void testStage_PassesValuesThroughOutsideATimedRequest() {
+        StepVerifier.create(RequestTiming.stage("bbox", Mono.just("KDEN")))
+                .expectNext("KDEN")
+                .verifyComplete();
+        StepVerifier.create(RequestTiming.record("cache", 1_000, Mono.just("KDEN")))
+                .expectNext("KDEN")
+                .verifyComplete();
+    }
+
+    private static MockServerWebExchange exchange() {
+        return MockServerWebExchange.from(MockServerHttpRequest.get("/api/fabrick/v1.0/airports/KDEN/stations"));
+    }
+}